@@ -0,0 +1,73 @@
+package com.pankaj.budgetapp.config;
+
+import com.pankaj.budgetapp.service.DataVersions;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Strong ETags for read endpoints, derived from the data versions of the tables behind them.
+ * A GET whose If-None-Match still matches is answered with 304 here, before the controller
+ * (and so any repository) runs. The tag also covers the request variant (path, query, Accept),
+ * FX rates when a {@code currency} parameter is present, and the current day, since some
+ * responses default to "this month" or compare against today. Tags use the published
+ * versions, which move only once the in-memory read models have caught up.
+ */
+@Component
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    private final DataVersions dataVersions;
+
+    @Autowired
+    public ConditionalGetInterceptor(DataVersions dataVersions) {
+        this.dataVersions = dataVersions;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return true;
+        }
+        Set<DataVersions.Source> sources = sourcesFor(request.getRequestURI());
+        if (sources.isEmpty()) {
+            return true;
+        }
+        if (request.getParameter("currency") != null) {
+            sources.add(DataVersions.Source.FX);
+        }
+        String variant = request.getRequestURI() + '?' + request.getQueryString()
+                + '|' + request.getHeader(HttpHeaders.ACCEPT);
+        String etag = "\"" + dataVersions.publishedTag(sources) + "-" + Long.toString(LocalDate.now().toEpochDay(), 36)
+                + "-" + Integer.toHexString(variant.hashCode()) + "\"";
+
+        // Clients may reuse a stored response only after revalidating it
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        // Sets the ETag header and, on a match, the 304 status
+        return !new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+
+    private static Set<DataVersions.Source> sourcesFor(String uri) {
+        Set<DataVersions.Source> sources = EnumSet.noneOf(DataVersions.Source.class);
+        if (uri.startsWith("/api/budget")) {
+            sources.add(DataVersions.Source.BUDGET_ITEMS);
+        } else if (uri.startsWith("/api/assets")) {
+            sources.add(DataVersions.Source.ASSETS);
+        } else if (uri.startsWith("/api/expenses")) {
+            sources.add(DataVersions.Source.TRANSACTIONS);
+        } else if (uri.equals("/api/sync/pull")) {
+            sources.add(DataVersions.Source.TRANSACTIONS);
+            sources.add(DataVersions.Source.ASSETS);
+            sources.add(DataVersions.Source.SETTINGS);
+        }
+        return sources;
+    }
+}
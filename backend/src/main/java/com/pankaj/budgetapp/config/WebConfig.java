@@ -1,9 +1,26 @@
 package com.pankaj.budgetapp.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
-public class WebConfig {
+public class WebConfig implements WebMvcConfigurer {
     // CORS is configured globally in `GlobalCorsConfig`.
     // Keeping a second CORS configuration here caused an exception when credentials are enabled.
+
+    private final ConditionalGetInterceptor conditionalGetInterceptor;
+
+    @Autowired
+    public WebConfig(ConditionalGetInterceptor conditionalGetInterceptor) {
+        this.conditionalGetInterceptor = conditionalGetInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(conditionalGetInterceptor)
+                .addPathPatterns("/api/budget", "/api/budget/**", "/api/assets", "/api/assets/**",
+                        "/api/expenses", "/api/expenses/**", "/api/sync/pull");
+    }
 }
@@ -0,0 +1,51 @@
+package com.pankaj.budgetapp.controller;
+
+import com.pankaj.budgetapp.entity.BudgetItem;
+import com.pankaj.budgetapp.service.LedgerPrefixIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    private final LedgerPrefixIndex ledgerPrefixIndex;
+
+    @Autowired
+    public AnalyticsController(LedgerPrefixIndex ledgerPrefixIndex) {
+        this.ledgerPrefixIndex = ledgerPrefixIndex;
+    }
+
+    // Defaults to the last twelve months by month and category
+    @GetMapping("/series")
+    public ResponseEntity<Map<String, Object>> getSeries(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "month") String granularity,
+            @RequestParam(defaultValue = "category") String groupBy,
+            @RequestParam(required = false) BudgetItem.TransactionType type) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusMonths(11).withDayOfMonth(1);
+        try {
+            LedgerPrefixIndex.Series series = ledgerPrefixIndex.series(start, end,
+                    LedgerPrefixIndex.Granularity.valueOf(granularity.toUpperCase()),
+                    LedgerPrefixIndex.GroupBy.valueOf(groupBy.toUpperCase()), type);
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("from", start);
+            body.put("to", end);
+            body.put("granularity", series.getGranularity().name().toLowerCase());
+            body.put("groupBy", series.getGroupBy().name().toLowerCase());
+            body.put("buckets", series.getBuckets());
+            body.put("series", series.getSeries());
+            return ResponseEntity.ok(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
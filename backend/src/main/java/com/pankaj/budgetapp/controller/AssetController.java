@@ -2,6 +2,7 @@ package com.pankaj.budgetapp.controller;
 
 import com.pankaj.budgetapp.entity.Asset;
 import com.pankaj.budgetapp.service.AssetService;
+import com.pankaj.budgetapp.service.StorageLocationTree;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -16,10 +17,12 @@ import java.util.Map;
 public class AssetController {
 
     private final AssetService assetService;
+    private final StorageLocationTree locationTree;
 
     @Autowired
-    public AssetController(AssetService assetService) {
+    public AssetController(AssetService assetService, StorageLocationTree locationTree) {
         this.assetService = assetService;
+        this.locationTree = locationTree;
     }
 
     @GetMapping
@@ -71,6 +74,27 @@ public class AssetController {
         return ResponseEntity.ok(assetService.findByLocation(location));
     }
 
+    // Locations as a tree with asset counts and total value per subtree; depth < 0 expands everything
+    @GetMapping("/locations/tree")
+    public ResponseEntity<StorageLocationTree.LocationSummary> getLocationTree(
+            @RequestParam(defaultValue = "-1") int depth) {
+        return ResponseEntity.ok(locationTree.getTree(depth));
+    }
+
+    // One location ("Home/Bedroom") with its rollups and, by default, its direct children
+    @GetMapping("/locations/subtree")
+    public ResponseEntity<StorageLocationTree.LocationSummary> getLocationSubtree(
+            @RequestParam String path,
+            @RequestParam(defaultValue = "1") int depth) {
+        StorageLocationTree.LocationSummary summary = locationTree.getSubtree(path, depth);
+        return summary != null ? ResponseEntity.ok(summary) : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/locations/subtree/assets")
+    public ResponseEntity<List<Asset>> getAssetsInLocationSubtree(@RequestParam String path) {
+        return ResponseEntity.ok(assetService.findInLocationSubtree(path));
+    }
+
     @PostMapping("/{id}/verify")
     public ResponseEntity<Asset> verifyAssetLocation(@PathVariable Long id) {
         try {
@@ -1,32 +1,76 @@
 package com.pankaj.budgetapp.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pankaj.budgetapp.entity.BudgetItem;
 import com.pankaj.budgetapp.service.BudgetService;
+import com.pankaj.budgetapp.service.BulkIngestService;
+import com.pankaj.budgetapp.service.DataVersions;
+import com.pankaj.budgetapp.service.KeysetCursor;
+import com.pankaj.budgetapp.service.LedgerColumnStore;
+import com.pankaj.budgetapp.service.ReadModelCache;
+import com.pankaj.budgetapp.service.RecurringMaterializationService;
+import com.pankaj.budgetapp.service.RecurringProjectionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/budget")
 public class BudgetController {
 
     private final BudgetService budgetService;
+    private final LedgerColumnStore ledgerColumnStore;
+    private final RecurringProjectionService projectionService;
+    private final RecurringMaterializationService materializationService;
+    private final ObjectMapper objectMapper;
+    private final ReadModelCache readModelCache;
+    private final BulkIngestService bulkIngestService;
 
     @Autowired
-    public BudgetController(BudgetService budgetService) {
+    public BudgetController(BudgetService budgetService, LedgerColumnStore ledgerColumnStore,
+                            RecurringProjectionService projectionService,
+                            RecurringMaterializationService materializationService,
+                            ObjectMapper objectMapper,
+                            ReadModelCache readModelCache,
+                            BulkIngestService bulkIngestService) {
         this.budgetService = budgetService;
+        this.ledgerColumnStore = ledgerColumnStore;
+        this.projectionService = projectionService;
+        this.materializationService = materializationService;
+        this.objectMapper = objectMapper;
+        this.readModelCache = readModelCache;
+        this.bulkIngestService = bulkIngestService;
     }
 
-    @GetMapping
-    public ResponseEntity<List<BudgetItem>> getAllBudgetItems() {
-        return ResponseEntity.ok(budgetService.getAllBudgetItems());
+    // Whole list unless cursor or limit is given, then one keyset page
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getAllBudgetItems(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        if (cursor == null && limit == null) {
+            return ResponseEntity.ok(budgetService.getAllBudgetItems());
+        }
+        return page(EnumSet.allOf(BudgetItem.TransactionType.class), cursor, limit);
+    }
+
+    @GetMapping(produces = NdjsonWriter.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> streamAllBudgetItems() {
+        return stream(EnumSet.allOf(BudgetItem.TransactionType.class));
     }
 
     @GetMapping("/{id}")
@@ -42,6 +86,16 @@ public class BudgetController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    // JSON array or NDJSON body; rows are validated and inserted in chunks, errors reported per row
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, NdjsonWriter.MEDIA_TYPE})
+    public ResponseEntity<BulkIngestService.Result> bulkCreateBudgetItems(InputStream body) throws IOException {
+        BulkIngestService.Result result = bulkIngestService.ingestBudgetItems(body);
+        if (result.getFatalError() != null && result.getReceived() == 0) {
+            return ResponseEntity.badRequest().body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<BudgetItem> updateBudgetItem(
             @PathVariable Long id,
@@ -60,32 +114,65 @@ public class BudgetController {
         return ResponseEntity.noContent().build();
     }
 
-    @GetMapping("/income")
-    public ResponseEntity<List<BudgetItem>> getIncomeItems() {
-        return ResponseEntity.ok(budgetService.getIncomeItems());
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildRollups() {
+        return ResponseEntity.ok(Map.of("buckets", budgetService.rebuildRollups()));
     }
 
-    @GetMapping("/expenses")
-    public ResponseEntity<List<BudgetItem>> getExpenseItems() {
-        return ResponseEntity.ok(budgetService.getExpenseItems());
+    @GetMapping(value = "/income", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getIncomeItems(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        if (cursor == null && limit == null) {
+            return ResponseEntity.ok(budgetService.getIncomeItems());
+        }
+        return page(EnumSet.of(BudgetItem.TransactionType.INCOME), cursor, limit);
+    }
+
+    @GetMapping(value = "/income", produces = NdjsonWriter.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> streamIncomeItems() {
+        return stream(EnumSet.of(BudgetItem.TransactionType.INCOME));
+    }
+
+    @GetMapping(value = "/expenses", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getExpenseItems(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        if (cursor == null && limit == null) {
+            return ResponseEntity.ok(budgetService.getExpenseItems());
+        }
+        return page(EnumSet.of(BudgetItem.TransactionType.EXPENSE), cursor, limit);
+    }
+
+    @GetMapping(value = "/expenses", produces = NdjsonWriter.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> streamExpenseItems() {
+        return stream(EnumSet.of(BudgetItem.TransactionType.EXPENSE));
     }
 
     @GetMapping("/summary")
-    public ResponseEntity<Map<String, BigDecimal>> getBudgetSummary() {
-        Map<String, BigDecimal> summary = new HashMap<>();
-        summary.put("totalIncome", budgetService.getTotalIncome());
-        summary.put("totalExpenses", budgetService.getTotalExpenses());
-        summary.put("balance", budgetService.getBalance());
-        return ResponseEntity.ok(summary);
+    public ResponseEntity<Map<String, BigDecimal>> getBudgetSummary(
+            @RequestParam(required = false) String currency) {
+        Set<DataVersions.Source> sources = EnumSet.of(DataVersions.Source.BUDGET_ITEMS);
+        if (currency != null) {
+            // Converted totals also follow the FX snapshot, so they expire after a minute
+            return inCurrency(() -> readModelCache.get("budget-summary:" + currency.toUpperCase(), sources,
+                    60_000, () -> budgetService.getSummary(currency)));
+        }
+        return ResponseEntity.ok(readModelCache.get("budget-summary:", sources, Long.MAX_VALUE,
+                budgetService::getSummary));
     }
 
     @GetMapping("/monthly")
     public ResponseEntity<Map<String, BigDecimal>> getMonthlyBreakdown(
             @RequestParam(required = false) Integer year,
-            @RequestParam(required = false) Integer month) {
+            @RequestParam(required = false) Integer month,
+            @RequestParam(required = false) String currency) {
         LocalDate now = LocalDate.now();
         int y = year != null ? year : now.getYear();
         int m = month != null ? month : now.getMonthValue();
+        if (currency != null) {
+            return inCurrency(() -> budgetService.getMonthlyBreakdown(y, m, currency));
+        }
         return ResponseEntity.ok(budgetService.getMonthlyBreakdown(y, m));
     }
 
@@ -100,12 +187,20 @@ public class BudgetController {
     }
 
     @GetMapping("/categories/income")
-    public ResponseEntity<Map<String, BigDecimal>> getIncomeCategoryBreakdown() {
+    public ResponseEntity<Map<String, BigDecimal>> getIncomeCategoryBreakdown(
+            @RequestParam(required = false) String currency) {
+        if (currency != null) {
+            return inCurrency(() -> budgetService.getCategoryBreakdown(BudgetItem.TransactionType.INCOME, currency));
+        }
         return ResponseEntity.ok(budgetService.getCategoryBreakdown(BudgetItem.TransactionType.INCOME));
     }
 
     @GetMapping("/categories/expenses")
-    public ResponseEntity<Map<String, BigDecimal>> getExpenseCategoryBreakdown() {
+    public ResponseEntity<Map<String, BigDecimal>> getExpenseCategoryBreakdown(
+            @RequestParam(required = false) String currency) {
+        if (currency != null) {
+            return inCurrency(() -> budgetService.getCategoryBreakdown(BudgetItem.TransactionType.EXPENSE, currency));
+        }
         return ResponseEntity.ok(budgetService.getCategoryBreakdown(BudgetItem.TransactionType.EXPENSE));
     }
 
@@ -114,11 +209,38 @@ public class BudgetController {
         return ResponseEntity.ok(budgetService.getRecurringItems());
     }
 
+    // Runs the daily recurring materialization now; idempotent
+    @PostMapping("/recurring/materialize")
+    public ResponseEntity<Map<String, Object>> materializeRecurring() {
+        int created = materializationService.materializeDue();
+        Map<String, Object> result = new HashMap<>();
+        result.put("created", created);
+        return ResponseEntity.ok(result);
+    }
+
+    // Projected monthly cash flow from recurring items; horizon in months
+    @GetMapping("/forecast")
+    public ResponseEntity<Map<String, Object>> getForecast(
+            @RequestParam(defaultValue = "12") int horizon,
+            @RequestParam(required = false) String currency) {
+        try {
+            Map<String, Object> result = new HashMap<>();
+            result.put("horizonMonths", horizon);
+            result.put("months", projectionService.forecast(horizon, currency));
+            if (currency != null) {
+                result.put("currency", currency.toUpperCase());
+            }
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
     @GetMapping("/analysis")
     public ResponseEntity<Map<String, Object>> getBudgetAnalysis() {
         Map<String, Object> result = new HashMap<>();
-        // Get all transactions and income
-        List<BudgetItem> allItems = budgetService.getAllItems();
         BigDecimal totalIncome = budgetService.getTotalIncome();
         BigDecimal totalExpenses = budgetService.getTotalExpenses();
 
@@ -134,14 +256,9 @@ public class BudgetController {
         recommended.put("SHOPPING", 0.05);
         recommended.put("OTHER_EXPENSE", 0.1);
 
-        // Sum by category
-        Map<String, BigDecimal> spentByCategory = new HashMap<>();
-        for (BudgetItem item : allItems) {
-            if (item.getTransactionType() != null && item.getTransactionType().toString().equals("EXPENSE")) {
-                String cat = item.getCategory() != null ? item.getCategory().toString() : "OTHER_EXPENSE";
-                spentByCategory.put(cat, spentByCategory.getOrDefault(cat, BigDecimal.ZERO).add(item.getAmount()));
-            }
-        }
+        // Sum by category from the in-memory column store (no entity loading)
+        Map<String, BigDecimal> spentByCategory =
+                ledgerColumnStore.spentByCategory(BudgetItem.TransactionType.EXPENSE, null, null);
 
         // Analysis logic
         List<Map<String, String>> analysis = new java.util.ArrayList<>();
@@ -195,4 +312,29 @@ public class BudgetController {
         result.put("savings", savings);
         return ResponseEntity.ok(result);
     }
+
+    // One keyset page; an invalid cursor -> 400
+    private ResponseEntity<?> page(Collection<BudgetItem.TransactionType> types, String cursor, Integer limit) {
+        try {
+            return ResponseEntity.ok(budgetService.getBudgetItemPage(types, cursor, KeysetCursor.clampLimit(limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(Collection<BudgetItem.TransactionType> types) {
+        StreamingResponseBody body = out -> budgetService.forEachBudgetItem(types, new NdjsonWriter(objectMapper, out));
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NdjsonWriter.MEDIA_TYPE)).body(body);
+    }
+
+    // Unknown currency -> 400, no rates loaded yet -> 503
+    private ResponseEntity<Map<String, BigDecimal>> inCurrency(Supplier<Map<String, BigDecimal>> totals) {
+        try {
+            return ResponseEntity.ok(totals.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
 }
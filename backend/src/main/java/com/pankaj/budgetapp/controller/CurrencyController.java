@@ -1,10 +1,28 @@
 package com.pankaj.budgetapp.controller;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pankaj.budgetapp.service.CurrencyService;
+import com.pankaj.budgetapp.service.HistoricalRateStore;
+import com.pankaj.budgetapp.service.RateProviderChain;
+import com.pankaj.budgetapp.service.RateSnapshot;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
 @RestController
 @RequestMapping("/api")
@@ -12,9 +30,19 @@ import java.util.Map;
 public class CurrencyController {
 
     private final CurrencyService currencyService;
+    private final HistoricalRateStore historicalRateStore;
+    private final RateProviderChain providerChain;
+    private final ObjectMapper objectMapper;
+    private final JsonFactory jsonFactory = new JsonFactory();
 
-    public CurrencyController(CurrencyService currencyService) {
+    public CurrencyController(CurrencyService currencyService,
+                              HistoricalRateStore historicalRateStore,
+                              RateProviderChain providerChain,
+                              ObjectMapper objectMapper) {
         this.currencyService = currencyService;
+        this.historicalRateStore = historicalRateStore;
+        this.providerChain = providerChain;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/symbols")
@@ -34,19 +62,144 @@ public class CurrencyController {
 
     @GetMapping("/rates")
     public ResponseEntity<Map<String, Double>> getRates(@RequestParam(value = "base", defaultValue = "USD") String base) {
-        return ResponseEntity.ok(currencyService.getLatestRates(base));
+        RateSnapshot snapshot = currencyService.currentSnapshot();
+        // Rate age travels in headers so the body stays a plain code -> rate map
+        return ResponseEntity.ok()
+                .header("X-Rates-Age", String.valueOf(ageSeconds(snapshot)))
+                .header("X-Rates-As-Of", String.valueOf(snapshot.getFetchedAt()))
+                .body(currencyService.rebase(snapshot, base));
+    }
+
+    @GetMapping("/rates/providers")
+    public ResponseEntity<Map<String, Object>> getProviderStatus() {
+        return ResponseEntity.ok(providerChain.getStatus());
     }
 
     @GetMapping("/convert")
     public ResponseEntity<?> convert(@RequestParam String from,
                                      @RequestParam String to,
-                                     @RequestParam double amount) {
+                                     @RequestParam double amount,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        RateSnapshot snapshot = currencyService.currentSnapshot();
         try {
-            double result = currencyService.convert(from, to, amount);
-            return ResponseEntity.ok(Map.of("from", from.toUpperCase(), "to", to.toUpperCase(), "amount", amount, "result", result));
+            double result = date != null
+                    ? currencyService.convert(snapshot, from, to, amount, date)
+                    : snapshot.convert(from, to, amount);
+            Map<String, Object> body = new HashMap<>();
+            body.put("from", from.toUpperCase());
+            body.put("to", to.toUpperCase());
+            body.put("amount", amount);
+            body.put("result", result);
+            if (date != null) {
+                body.put("date", date.toString());
+            }
+            body.put("rateAgeSeconds", ageSeconds(snapshot));
+            body.put("ratesAsOf", snapshot.getFetchedAt());
+            return ResponseEntity.ok(body);
         } catch (IllegalArgumentException ex) {
             return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    /**
+     * Converts many amounts in one call. The body (a JSON array or NDJSON) is read one entry at
+     * a time, and results are streamed back in request order as they are computed, so neither
+     * side is held in memory. Every entry, and every dated entry without history, is resolved
+     * against the same rate snapshot. A bad entry gets an "error" field instead of failing the
+     * whole batch; malformed JSON ends the results with a top-level "error".
+     */
+    @PostMapping("/convert/batch")
+    public ResponseEntity<?> convertBatch(InputStream requestBody) throws IOException {
+        RateSnapshot snapshot = currencyService.currentSnapshot();
+        MappingIterator<ConversionRequest> requests;
+        try {
+            requests = objectMapper.readerFor(ConversionRequest.class).readValues(requestBody);
+        } catch (JsonProcessingException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Malformed input: " + ex.getOriginalMessage()));
+        }
+        StreamingResponseBody body = out -> {
+            try (requests; JsonGenerator gen = jsonFactory.createGenerator(out)) {
+                gen.writeStartObject();
+                gen.writeStringField("base", snapshot.getBase());
+                gen.writeNumberField("ratesAsOf", snapshot.getFetchedAt());
+                gen.writeNumberField("rateAgeSeconds", ageSeconds(snapshot));
+                gen.writeArrayFieldStart("results");
+                int count = 0;
+                String fatalError = null;
+                while (true) {
+                    ConversionRequest req;
+                    try {
+                        if (!requests.hasNextValue()) {
+                            break;
+                        }
+                        req = requests.nextValue();
+                    } catch (JsonMappingException ex) {
+                        // Well-formed JSON of the wrong shape; the iterator skips past it
+                        count++;
+                        gen.writeStartObject();
+                        gen.writeStringField("error", ex.getOriginalMessage());
+                        gen.writeEndObject();
+                        continue;
+                    } catch (JsonProcessingException ex) {
+                        fatalError = "Malformed input after entry " + count + ": " + ex.getOriginalMessage();
+                        break;
+                    }
+                    count++;
+                    gen.writeStartObject();
+                    gen.writeStringField("from", req.getFrom());
+                    gen.writeStringField("to", req.getTo());
+                    gen.writeNumberField("amount", req.getAmount());
+                    if (req.getDate() != null) {
+                        gen.writeStringField("date", req.getDate().toString());
+                    }
+                    try {
+                        if (req.getFrom() == null || req.getTo() == null) {
+                            throw new IllegalArgumentException("from and to are required");
+                        }
+                        double result = req.getDate() != null
+                                ? currencyService.convert(snapshot, req.getFrom(), req.getTo(), req.getAmount(), req.getDate())
+                                : snapshot.convert(req.getFrom(), req.getTo(), req.getAmount());
+                        gen.writeNumberField("result", result);
+                    } catch (IllegalArgumentException | IllegalStateException ex) {
+                        gen.writeStringField("error", ex.getMessage());
+                    }
+                    gen.writeEndObject();
+                }
+                gen.writeEndArray();
+                gen.writeNumberField("count", count);
+                if (fatalError != null) {
+                    gen.writeStringField("error", fatalError);
+                }
+                gen.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Bulk backfill of the local rate history.
+     * Body: { "2024-01-02": { "EUR": 0.91, "INR": 83.2, ... }, ... } with USD-based rates.
+     */
+    @PostMapping("/rates/history")
+    public ResponseEntity<?> importRateHistory(@RequestBody Map<String, Map<String, Double>> history) {
+        if (!historicalRateStore.isAvailable()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "Rate history store is not available"));
+        }
+        Map<LocalDate, Map<String, Double>> byDate = new TreeMap<>();
+        try {
+            history.forEach((day, rates) -> byDate.put(LocalDate.parse(day), rates));
+        } catch (RuntimeException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid date: " + ex.getMessage()));
         }
+        int written = historicalRateStore.importHistory(byDate);
+        Map<String, Object> body = new HashMap<>();
+        body.put("days", byDate.size());
+        body.put("ratesWritten", written);
+        body.put("lastDate", String.valueOf(historicalRateStore.getLastDate()));
+        return ResponseEntity.ok(body);
     }
 
     @GetMapping("/monthly-data")
@@ -55,4 +208,25 @@ public class CurrencyController {
         double[] totalExpenses = {1200, 1100, 1300, 1250, 1400, 1350, 1200, 1150, 1500, 1450, 1600, 1550};
         return ResponseEntity.ok(Map.of("totalExpenses", totalExpenses));
     }
-}
\ No newline at end of file
+
+    private static long ageSeconds(RateSnapshot snapshot) {
+        long age = snapshot.ageMillis();
+        return age < 0 ? -1 : age / 1000;
+    }
+
+    public static class ConversionRequest {
+        private String from;
+        private String to;
+        private double amount;
+        private LocalDate date;
+
+        public String getFrom() { return from; }
+        public void setFrom(String from) { this.from = from; }
+        public String getTo() { return to; }
+        public void setTo(String to) { this.to = to; }
+        public double getAmount() { return amount; }
+        public void setAmount(double amount) { this.amount = amount; }
+        public LocalDate getDate() { return date; }
+        public void setDate(LocalDate date) { this.date = date; }
+    }
+}
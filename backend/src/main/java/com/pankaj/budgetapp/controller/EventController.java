@@ -0,0 +1,46 @@
+package com.pankaj.budgetapp.controller;
+
+import com.pankaj.budgetapp.service.EventStreamService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api")
+public class EventController {
+
+    private final EventStreamService eventStreamService;
+
+    @Autowired
+    public EventController(EventStreamService eventStreamService) {
+        this.eventStreamService = eventStreamService;
+    }
+
+    // EventSource sends Last-Event-ID on reconnect; ?lastEventId= covers the first connect after a reload
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(required = false) String lastEventId) {
+        String raw = lastEventIdHeader != null ? lastEventIdHeader : lastEventId;
+        Long last = null;
+        if (raw != null && !raw.isBlank()) {
+            try {
+                last = Long.parseLong(raw.trim());
+            } catch (NumberFormatException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        try {
+            return ResponseEntity.ok(eventStreamService.subscribe(last));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
@@ -1,10 +1,25 @@
 package com.pankaj.budgetapp.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pankaj.budgetapp.entity.Transaction;
+import com.pankaj.budgetapp.event.TransactionEvent;
 import com.pankaj.budgetapp.repository.TransactionRepository;
+import com.pankaj.budgetapp.service.BulkIngestService;
+import com.pankaj.budgetapp.service.KeysetCursor;
+import com.pankaj.budgetapp.service.TransactionSearchIndex;
+import com.pankaj.budgetapp.service.TransactionService;
+import com.pankaj.budgetapp.service.UlidGenerator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -18,14 +33,76 @@ import java.util.Optional;
 public class ExpenseController {
 
     private final TransactionRepository transactionRepository;
-
-    public ExpenseController(TransactionRepository transactionRepository) {
+    private final TransactionService transactionService;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BulkIngestService bulkIngestService;
+    private final TransactionSearchIndex searchIndex;
+
+    public ExpenseController(TransactionRepository transactionRepository,
+                             TransactionService transactionService,
+                             ObjectMapper objectMapper,
+                             ApplicationEventPublisher eventPublisher,
+                             BulkIngestService bulkIngestService,
+                             TransactionSearchIndex searchIndex) {
         this.transactionRepository = transactionRepository;
+        this.transactionService = transactionService;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.bulkIngestService = bulkIngestService;
+        this.searchIndex = searchIndex;
+    }
+
+    // Whole list unless cursor or limit is given, then one keyset page
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getAllExpenses(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        if (cursor == null && limit == null) {
+            return ResponseEntity.ok(transactionRepository.findAllByOrderByDateDesc());
+        }
+        try {
+            return ResponseEntity.ok(transactionService.getPage(cursor, KeysetCursor.clampLimit(limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
-    @GetMapping
-    public ResponseEntity<List<Transaction>> getAllExpenses() {
-        return ResponseEntity.ok(transactionRepository.findAllByOrderByDateDesc());
+    @GetMapping(produces = NdjsonWriter.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> streamAllExpenses() {
+        StreamingResponseBody body = out -> transactionService.forEachTransaction(new NdjsonWriter(objectMapper, out));
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NdjsonWriter.MEDIA_TYPE)).body(body);
+    }
+
+    // Any combination of filters; category may repeat. Returns one page plus facet counts
+    @GetMapping("/search")
+    public ResponseEntity<?> searchExpenses(
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String currency,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "" + TransactionSearchIndex.DEFAULT_LIMIT) int limit) {
+        if (!searchIndex.isLoaded()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "Search index is still loading"));
+        }
+        TransactionSearchIndex.Query query = new TransactionSearchIndex.Query();
+        query.setCategories(category);
+        query.setType(type);
+        query.setCurrency(currency);
+        query.setFrom(from);
+        query.setTo(to);
+        query.setMinAmount(minAmount);
+        query.setMaxAmount(maxAmount);
+        query.setText(q);
+        query.setOffset(offset);
+        query.setLimit(limit);
+        return ResponseEntity.ok(searchIndex.search(query));
     }
 
     @GetMapping("/{id}")
@@ -35,57 +112,34 @@ public class ExpenseController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // Write and event share a transaction, so the change log entry commits with the row
     @PostMapping
+    @Transactional
     public ResponseEntity<Transaction> createExpense(@RequestBody Map<String, Object> payload) {
-        Transaction transaction = new Transaction();
-
-        // Set ID (use provided or generate)
-        String id = payload.get("id") != null ? payload.get("id").toString() : String.valueOf(System.currentTimeMillis());
-        transaction.setId(id);
-
-        // Set amount
-        if (payload.get("amount") != null) {
-            transaction.setAmount(new BigDecimal(payload.get("amount").toString()));
-        }
-
-        // Set category
-        if (payload.get("category") != null) {
-            transaction.setCategory(payload.get("category").toString());
-        }
-
-        // Set date
-        if (payload.get("date") != null) {
-            transaction.setDate(LocalDate.parse(payload.get("date").toString()));
-        }
-
-        // Set description
-        if (payload.get("description") != null) {
-            transaction.setDescription(payload.get("description").toString());
-        }
-
-        // Set currency
-        if (payload.get("currency") != null) {
-            transaction.setCurrency(payload.get("currency").toString());
-        }
+        Transaction transaction = TransactionService.fromPayload(payload);
 
-        // Set type
-        if (payload.get("type") != null) {
-            String typeStr = payload.get("type").toString().toUpperCase();
-            transaction.setType(Transaction.TransactionType.valueOf(typeStr));
-        }
-
-        // Set recurringId
-        if (payload.get("recurringId") != null) {
-            transaction.setRecurringId(payload.get("recurringId").toString());
+        // Use the provided ID or generate one
+        if (transaction.getId() == null) {
+            transaction.setId(UlidGenerator.next());
         }
 
-        transaction.setCreatedAt(LocalDateTime.now());
-
         Transaction saved = transactionRepository.save(transaction);
+        eventPublisher.publishEvent(new TransactionEvent(TransactionEvent.Kind.CREATED, saved));
         return ResponseEntity.ok(saved);
     }
 
+    // JSON array or NDJSON body; rows are validated and inserted in chunks, errors reported per row
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, NdjsonWriter.MEDIA_TYPE})
+    public ResponseEntity<BulkIngestService.Result> bulkCreateExpenses(InputStream body) throws IOException {
+        BulkIngestService.Result result = bulkIngestService.ingestTransactions(body);
+        if (result.getFatalError() != null && result.getReceived() == 0) {
+            return ResponseEntity.badRequest().body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+
     @PutMapping("/{id}")
+    @Transactional
     public ResponseEntity<Transaction> updateExpense(@PathVariable String id, @RequestBody Map<String, Object> payload) {
         Optional<Transaction> existing = transactionRepository.findById(id);
 
@@ -115,13 +169,18 @@ public class ExpenseController {
         transaction.setUpdatedAt(LocalDateTime.now());
 
         Transaction saved = transactionRepository.save(transaction);
+        eventPublisher.publishEvent(new TransactionEvent(
+                existing.isPresent() ? TransactionEvent.Kind.UPDATED : TransactionEvent.Kind.CREATED, saved));
         return ResponseEntity.ok(saved);
     }
 
     @DeleteMapping("/{id}")
+    @Transactional
     public ResponseEntity<Void> deleteExpense(@PathVariable String id) {
-        if (transactionRepository.existsById(id)) {
-            transactionRepository.deleteById(id);
+        Optional<Transaction> existing = transactionRepository.findById(id);
+        if (existing.isPresent()) {
+            transactionRepository.delete(existing.get());
+            eventPublisher.publishEvent(new TransactionEvent(TransactionEvent.Kind.DELETED, existing.get()));
             return ResponseEntity.ok().build();
         }
         return ResponseEntity.notFound().build();
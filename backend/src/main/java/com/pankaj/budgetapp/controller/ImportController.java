@@ -0,0 +1,69 @@
+package com.pankaj.budgetapp.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.pankaj.budgetapp.service.ImportProfile;
+import com.pankaj.budgetapp.service.StatementImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/imports")
+@CrossOrigin(origins = "*")
+public class ImportController {
+
+    private final StatementImportService importService;
+
+    @Autowired
+    public ImportController(StatementImportService importService) {
+        this.importService = importService;
+    }
+
+    // Starts a background import; poll GET /api/imports/{id} for progress
+    @PostMapping
+    public ResponseEntity<?> importStatement(@RequestParam("file") MultipartFile file,
+                                             @RequestParam(required = false) String format,
+                                             @RequestParam(required = false) String profile) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(importService.submit(file, format, profile));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to store upload: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<List<StatementImportService.Job>> getJobs() {
+        return ResponseEntity.ok(importService.getJobs());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<StatementImportService.Job> getJob(@PathVariable String id) {
+        StatementImportService.Job job = importService.getJob(id);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/profiles")
+    public ResponseEntity<Map<String, ImportProfile>> getProfiles() {
+        return ResponseEntity.ok(importService.getProfiles());
+    }
+
+    @PutMapping("/profiles/{name}")
+    public ResponseEntity<ImportProfile> saveProfile(@PathVariable String name, @RequestBody ImportProfile profile)
+            throws JsonProcessingException {
+        return ResponseEntity.ok(importService.saveProfile(name, profile));
+    }
+
+    @DeleteMapping("/profiles/{name}")
+    public ResponseEntity<Void> deleteProfile(@PathVariable String name) throws JsonProcessingException {
+        return importService.deleteProfile(name) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+}
@@ -1,12 +1,15 @@
 package com.pankaj.budgetapp.controller;
 
+import com.pankaj.budgetapp.service.DataVersions;
 import com.pankaj.budgetapp.service.NotificationService;
+import com.pankaj.budgetapp.service.ReadModelCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 
@@ -14,11 +17,16 @@ import java.util.Map;
 @RequestMapping("/api/notifications")
 public class NotificationController {
 
+    // Counts depend on the clock as well as on assets
+    private static final long COUNT_MAX_AGE_MS = 60_000;
+
     private final NotificationService notificationService;
+    private final ReadModelCache readModelCache;
 
     @Autowired
-    public NotificationController(NotificationService notificationService) {
+    public NotificationController(NotificationService notificationService, ReadModelCache readModelCache) {
         this.notificationService = notificationService;
+        this.readModelCache = readModelCache;
     }
 
     @GetMapping("/reminders")
@@ -28,22 +36,7 @@ public class NotificationController {
 
     @GetMapping("/count")
     public ResponseEntity<Map<String, Integer>> getReminderCount() {
-        List<NotificationService.Reminder> reminders = notificationService.getReminders();
-        int critical = (int) reminders.stream()
-                .filter(r -> r.getType() == NotificationService.ReminderType.CRITICAL)
-                .count();
-        int warnings = (int) reminders.stream()
-                .filter(r -> r.getType() == NotificationService.ReminderType.WARNING)
-                .count();
-        int info = (int) reminders.stream()
-                .filter(r -> r.getType() == NotificationService.ReminderType.INFO)
-                .count();
-
-        return ResponseEntity.ok(Map.of(
-                "total", reminders.size(),
-                "critical", critical,
-                "warnings", warnings,
-                "info", info
-        ));
+        return ResponseEntity.ok(readModelCache.get("notification-count", EnumSet.of(DataVersions.Source.ASSETS),
+                COUNT_MAX_AGE_MS, notificationService::getReminderCounts));
     }
 }
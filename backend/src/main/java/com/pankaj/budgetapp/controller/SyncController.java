@@ -1,11 +1,18 @@
 package com.pankaj.budgetapp.controller;
 
+import com.pankaj.budgetapp.entity.ChangeLogEntry;
 import com.pankaj.budgetapp.entity.Transaction;
 import com.pankaj.budgetapp.entity.UserSettings;
+import com.pankaj.budgetapp.event.AssetEvent;
+import com.pankaj.budgetapp.event.SettingsEvent;
+import com.pankaj.budgetapp.event.TransactionEvent;
 import com.pankaj.budgetapp.repository.TransactionRepository;
 import com.pankaj.budgetapp.repository.UserSettingsRepository;
 import com.pankaj.budgetapp.repository.AssetRepository;
 import com.pankaj.budgetapp.entity.Asset;
+import com.pankaj.budgetapp.service.ChangeLogService;
+import com.pankaj.budgetapp.service.UlidGenerator;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -19,47 +26,111 @@ import java.util.*;
 @CrossOrigin(origins = "*")
 public class SyncController {
 
+    // Above this many changed rows a push announces a bulk import instead of one event per row
+    private static final int PER_ROW_EVENT_LIMIT = 200;
+
     private final TransactionRepository transactionRepository;
     private final UserSettingsRepository userSettingsRepository;
     private final AssetRepository assetRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ChangeLogService changeLogService;
 
     public SyncController(TransactionRepository transactionRepository,
                          UserSettingsRepository userSettingsRepository,
-                         AssetRepository assetRepository) {
+                         AssetRepository assetRepository,
+                         ApplicationEventPublisher eventPublisher,
+                         ChangeLogService changeLogService) {
         this.transactionRepository = transactionRepository;
         this.userSettingsRepository = userSettingsRepository;
         this.assetRepository = assetRepository;
+        this.eventPublisher = eventPublisher;
+        this.changeLogService = changeLogService;
     }
 
     /**
-     * Get all data from backend to sync to frontend
+     * Get data from backend to sync to frontend. Without since, everything; with since (the
+     * cursor returned by the previous pull), only rows changed after it plus tombstones for
+     * deleted ones. Collections listed in "full" were sent whole; "resync" is true when the
+     * client's cursor could not be served as a delta and it got everything instead.
      */
     @GetMapping("/pull")
-    public ResponseEntity<Map<String, Object>> pullAllData() {
+    public ResponseEntity<Map<String, Object>> pullAllData(@RequestParam(required = false) Long since) {
         Map<String, Object> data = new HashMap<>();
+        // A cursor from before a change that never reached the log needs everything
+        boolean resync = since != null && changeLogService.requiresResync(since);
+        // Read before any data so changes committed meanwhile are picked up by the next pull
+        long cursor = changeLogService.getCursor();
 
-        // Get all transactions
-        data.put("transactions", transactionRepository.findAllByOrderByDateDesc());
+        // A cursor from another database (or a wiped log) cannot be trusted for deltas either
+        if (since == null || since < 0 || since > cursor || resync) {
+            data.put("transactions", transactionRepository.findAllByOrderByDateDesc());
+            data.put("assets", assetRepository.findAll());
+            data.put("settings", allSettings());
+            data.put("deleted", Map.of());
+            data.put("full", List.of("transactions", "assets", "settings"));
+            data.put("resync", since != null);
+        } else {
+            ChangeLogService.Delta delta = changeLogService.changesSince(since);
+            cursor = delta.getCursor();
+            List<String> full = new ArrayList<>();
+            Map<String, Object> deleted = new HashMap<>();
 
-        // Get all assets
-        data.put("assets", assetRepository.findAll());
+            if (delta.isReset(ChangeLogEntry.EntityType.TRANSACTION)) {
+                data.put("transactions", transactionRepository.findAllByOrderByDateDesc());
+                full.add("transactions");
+            } else {
+                data.put("transactions", transactionRepository.findAllById(delta.getUpserted(ChangeLogEntry.EntityType.TRANSACTION)));
+                deleted.put("transactions", delta.getDeleted(ChangeLogEntry.EntityType.TRANSACTION));
+            }
 
-        // Get all settings (budgets, salary, etc.)
-        Map<String, String> settings = new HashMap<>();
-        userSettingsRepository.findAll().forEach(s -> settings.put(s.getSettingKey(), s.getSettingValue()));
-        data.put("settings", settings);
+            if (delta.isReset(ChangeLogEntry.EntityType.ASSET)) {
+                data.put("assets", assetRepository.findAll());
+                full.add("assets");
+            } else {
+                data.put("assets", assetRepository.findAllById(toAssetIds(delta.getUpserted(ChangeLogEntry.EntityType.ASSET))));
+                deleted.put("assets", toAssetIds(delta.getDeleted(ChangeLogEntry.EntityType.ASSET)));
+            }
+
+            if (delta.isReset(ChangeLogEntry.EntityType.SETTING)) {
+                data.put("settings", allSettings());
+                full.add("settings");
+            } else {
+                Map<String, String> settings = new HashMap<>();
+                userSettingsRepository.findAllById(delta.getUpserted(ChangeLogEntry.EntityType.SETTING))
+                        .forEach(s -> settings.put(s.getSettingKey(), s.getSettingValue()));
+                data.put("settings", settings);
+                deleted.put("settings", delta.getDeleted(ChangeLogEntry.EntityType.SETTING));
+            }
+
+            data.put("deleted", deleted);
+            data.put("full", full);
+            data.put("resync", false);
+        }
 
+        data.put("since", since);
+        data.put("cursor", cursor);
         data.put("syncedAt", LocalDateTime.now().toString());
 
         return ResponseEntity.ok(data);
     }
 
     /**
-     * Push all localStorage data from frontend to backend
+     * Push all localStorage data from frontend to backend. Rows identical to the stored ones are
+     * skipped, so an unchanged row neither writes nor shows up in other clients' deltas. When the
+     * payload carries the client's sync cursor as "since", rows deleted on the server after that
+     * cursor are not recreated: the client simply has not pulled the deletion yet.
      */
     @PostMapping("/push")
     public ResponseEntity<Map<String, Object>> pushAllData(@RequestBody Map<String, Object> payload) {
         Map<String, Object> result = new HashMap<>();
+        Long since = payload.get("since") != null ? Long.valueOf(payload.get("since").toString()) : null;
+        Set<String> deletedTransactions = since != null
+                ? changeLogService.deletedSince(ChangeLogEntry.EntityType.TRANSACTION, since) : Set.of();
+        Set<String> deletedAssets = since != null
+                ? changeLogService.deletedSince(ChangeLogEntry.EntityType.ASSET, since) : Set.of();
+        List<TransactionEvent> transactionEvents = new ArrayList<>();
+        List<AssetEvent> assetEvents = new ArrayList<>();
+        List<String> settingsChanged = new ArrayList<>();
         int transactionsSaved = 0;
         int assetsSaved = 0;
         int settingsSaved = 0;
@@ -68,10 +139,17 @@ public class SyncController {
         if (payload.get("transactions") != null) {
             @SuppressWarnings("unchecked")
             List<Map<String, Object>> transactions = (List<Map<String, Object>>) payload.get("transactions");
+            Map<String, Transaction> stored = storedTransactions(transactions);
             for (Map<String, Object> tx : transactions) {
                 try {
                     Transaction transaction = mapToTransaction(tx);
-                    transactionRepository.save(transaction);
+                    Transaction existing = stored.get(transaction.getId());
+                    if (deletedTransactions.contains(transaction.getId()) || sameTransaction(existing, transaction)) {
+                        continue;
+                    }
+                    Transaction saved = transactionRepository.save(transaction);
+                    transactionEvents.add(new TransactionEvent(existing != null
+                            ? TransactionEvent.Kind.UPDATED : TransactionEvent.Kind.CREATED, saved));
                     transactionsSaved++;
                 } catch (Exception e) {
                     System.err.println("Failed to save transaction: " + e.getMessage());
@@ -87,8 +165,10 @@ public class SyncController {
                 try {
                     Transaction transaction = mapToTransaction(exp);
                     // Check if already exists
-                    if (!transactionRepository.existsById(transaction.getId())) {
-                        transactionRepository.save(transaction);
+                    if (!deletedTransactions.contains(transaction.getId())
+                            && !transactionRepository.existsById(transaction.getId())) {
+                        Transaction saved = transactionRepository.save(transaction);
+                        transactionEvents.add(new TransactionEvent(TransactionEvent.Kind.CREATED, saved));
                         transactionsSaved++;
                     }
                 } catch (Exception e) {
@@ -104,7 +184,14 @@ public class SyncController {
             for (Map<String, Object> assetData : assets) {
                 try {
                     Asset asset = mapToAsset(assetData);
-                    assetRepository.save(asset);
+                    Asset existing = asset.getId() != null ? assetRepository.findById(asset.getId()).orElse(null) : null;
+                    if ((asset.getId() != null && deletedAssets.contains(asset.getId().toString()))
+                            || sameAsset(existing, asset)) {
+                        continue;
+                    }
+                    Asset saved = assetRepository.save(asset);
+                    assetEvents.add(new AssetEvent(existing != null
+                            ? AssetEvent.Kind.UPDATED : AssetEvent.Kind.CREATED, saved));
                     assetsSaved++;
                 } catch (Exception e) {
                     System.err.println("Failed to save asset: " + e.getMessage());
@@ -121,8 +208,14 @@ public class SyncController {
                     String value = payload.get(key) instanceof String
                         ? (String) payload.get(key)
                         : new com.fasterxml.jackson.databind.ObjectMapper().writeValueAsString(payload.get(key));
+                    boolean unchanged = userSettingsRepository.findById(key)
+                            .map(s -> value.equals(s.getSettingValue())).orElse(false);
+                    if (unchanged) {
+                        continue;
+                    }
                     UserSettings setting = new UserSettings(key, value);
                     userSettingsRepository.save(setting);
+                    settingsChanged.add(key);
                     settingsSaved++;
                 } catch (Exception e) {
                     System.err.println("Failed to save setting " + key + ": " + e.getMessage());
@@ -130,6 +223,20 @@ public class SyncController {
             }
         }
 
+        // Rows were saved straight through the repositories; a few are announced one by one so
+        // the change log records them individually, a large push makes read models reload once
+        if (transactionEvents.size() > PER_ROW_EVENT_LIMIT) {
+            eventPublisher.publishEvent(TransactionEvent.bulkImported());
+        } else {
+            transactionEvents.forEach(eventPublisher::publishEvent);
+        }
+        if (assetEvents.size() > PER_ROW_EVENT_LIMIT) {
+            eventPublisher.publishEvent(AssetEvent.bulkImported());
+        } else {
+            assetEvents.forEach(eventPublisher::publishEvent);
+        }
+        settingsChanged.forEach(key -> eventPublisher.publishEvent(new SettingsEvent(key)));
+
         result.put("success", true);
         result.put("transactionsSaved", transactionsSaved);
         result.put("assetsSaved", assetsSaved);
@@ -140,20 +247,80 @@ public class SyncController {
     }
 
     /**
-     * Full sync - merge frontend and backend data
+     * Full sync - merge frontend and backend data. The pull half honours since like /pull.
      */
     @PostMapping("/full")
-    public ResponseEntity<Map<String, Object>> fullSync(@RequestBody Map<String, Object> payload) {
+    public ResponseEntity<Map<String, Object>> fullSync(@RequestBody Map<String, Object> payload,
+                                                        @RequestParam(required = false) Long since) {
+        if (since != null && payload.get("since") == null) {
+            payload.put("since", since);
+        }
         // First push frontend data to backend
         pushAllData(payload);
 
-        // Then pull all backend data
-        return pullAllData();
+        // Then pull what changed since the client's cursor (everything if it has none)
+        return pullAllData(since);
+    }
+
+    private Map<String, String> allSettings() {
+        Map<String, String> settings = new HashMap<>();
+        userSettingsRepository.findAll().forEach(s -> settings.put(s.getSettingKey(), s.getSettingValue()));
+        return settings;
+    }
+
+    private Map<String, Transaction> storedTransactions(List<Map<String, Object>> transactions) {
+        List<String> ids = new ArrayList<>();
+        for (Map<String, Object> tx : transactions) {
+            if (tx.get("id") != null) {
+                ids.add(tx.get("id").toString());
+            }
+        }
+        Map<String, Transaction> stored = new HashMap<>();
+        transactionRepository.findAllById(ids).forEach(t -> stored.put(t.getId(), t));
+        return stored;
+    }
+
+    private static List<Long> toAssetIds(List<String> ids) {
+        List<Long> out = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            try {
+                out.add(Long.valueOf(id));
+            } catch (NumberFormatException e) {
+                // Not an asset row id (e.g. a reset marker)
+            }
+        }
+        return out;
+    }
+
+    // Compares the fields a push can set
+    private static boolean sameTransaction(Transaction stored, Transaction pushed) {
+        return stored != null
+                && sameAmount(stored.getAmount(), pushed.getAmount())
+                && Objects.equals(stored.getCategory(), pushed.getCategory())
+                && Objects.equals(stored.getDate(), pushed.getDate())
+                && Objects.equals(stored.getDescription(), pushed.getDescription())
+                && Objects.equals(stored.getCurrency(), pushed.getCurrency())
+                && stored.getType() == pushed.getType()
+                && Objects.equals(stored.getRecurringId(), pushed.getRecurringId());
+    }
+
+    private static boolean sameAsset(Asset stored, Asset pushed) {
+        return stored != null
+                && Objects.equals(stored.getName(), pushed.getName())
+                && stored.getType() == pushed.getType()
+                && Objects.equals(stored.getDescription(), pushed.getDescription())
+                && Objects.equals(stored.getStorageLocation(), pushed.getStorageLocation())
+                && sameAmount(stored.getPurchasePrice(), pushed.getPurchasePrice())
+                && sameAmount(stored.getCurrentMarketPrice(), pushed.getCurrentMarketPrice());
+    }
+
+    private static boolean sameAmount(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
     }
 
     private Transaction mapToTransaction(Map<String, Object> data) {
         Transaction tx = new Transaction();
-        tx.setId(data.get("id") != null ? data.get("id").toString() : String.valueOf(System.currentTimeMillis()));
+        tx.setId(data.get("id") != null ? data.get("id").toString() : UlidGenerator.next());
 
         if (data.get("amount") != null) {
             tx.setAmount(new BigDecimal(data.get("amount").toString()));
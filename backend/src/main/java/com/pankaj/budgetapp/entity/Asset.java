@@ -5,11 +5,17 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "assets")
+// Name/location/description searches use leading-wildcard LIKE and cannot use a B-tree index
+@Table(name = "assets", indexes = {
+        @Index(name = "idx_assets_type", columnList = "type"),
+        @Index(name = "idx_assets_last_verified", columnList = "last_verified_date")
+})
 public class Asset {
 
+    // Pooled sequence so inserts can be batched; aligned with existing rows by IdSequenceAligner
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "asset_seq")
+    @SequenceGenerator(name = "asset_seq", sequenceName = "assets_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -6,11 +6,19 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "budget_items")
+// Indexes follow BudgetItemRepository: type + date range/keyset, date range/keyset, category, recurring
+@Table(name = "budget_items", indexes = {
+        @Index(name = "idx_budget_items_type_date", columnList = "transaction_type, transaction_date, id"),
+        @Index(name = "idx_budget_items_date", columnList = "transaction_date, id"),
+        @Index(name = "idx_budget_items_category", columnList = "category"),
+        @Index(name = "idx_budget_items_recurring", columnList = "recurring")
+})
 public class BudgetItem {
 
+    // Pooled sequence so inserts can be batched; aligned with existing rows by IdSequenceAligner
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "budget_item_seq")
+    @SequenceGenerator(name = "budget_item_seq", sequenceName = "budget_items_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -27,6 +35,10 @@ public class BudgetItem {
     @Column(nullable = false, precision = 19, scale = 2)
     private BigDecimal amount;
 
+    // ISO 4217 code; rows created before this column existed are treated as USD
+    @Column(length = 3)
+    private String currency;
+
     private LocalDate transactionDate;
 
     @Column(nullable = false)
@@ -80,6 +92,7 @@ public class BudgetItem {
     public BudgetItem() {
         this.createdAt = LocalDateTime.now();
         this.transactionDate = LocalDate.now();
+        this.currency = "USD";
     }
 
     // Getters and Setters
@@ -123,6 +136,14 @@ public class BudgetItem {
         this.amount = amount;
     }
 
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
     public LocalDate getTransactionDate() {
         return transactionDate;
     }
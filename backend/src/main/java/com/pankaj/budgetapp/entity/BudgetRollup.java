@@ -0,0 +1,100 @@
+package com.pankaj.budgetapp.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+/**
+ * Running sum and count of budget items per (year, month, type, category, currency).
+ * Maintained by BudgetRollupService on every budget item write; items without a date
+ * are kept in the year 0 / month 0 bucket so overall totals still include them.
+ */
+@Entity
+@Table(name = "budget_rollups",
+       uniqueConstraints = @UniqueConstraint(name = "uk_budget_rollup_bucket",
+               columnNames = {"period_year", "period_month", "transaction_type", "category", "currency"}),
+       indexes = @Index(name = "idx_budget_rollups_type", columnList = "transaction_type, category"))
+public class BudgetRollup {
+
+    // Pooled sequence so inserts can be batched; aligned with existing rows by IdSequenceAligner
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "budget_rollup_seq")
+    @SequenceGenerator(name = "budget_rollup_seq", sequenceName = "budget_rollups_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "period_year", nullable = false)
+    private int periodYear;
+
+    @Column(name = "period_month", nullable = false)
+    private int periodMonth;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_type", nullable = false)
+    private BudgetItem.TransactionType transactionType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BudgetItem.BudgetCategory category;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal total;
+
+    @Column(nullable = false)
+    private long itemCount;
+
+    public BudgetRollup() {
+    }
+
+    public BudgetRollup(int periodYear, int periodMonth, BudgetItem.TransactionType transactionType,
+                        BudgetItem.BudgetCategory category, String currency, BigDecimal total, long itemCount) {
+        this.periodYear = periodYear;
+        this.periodMonth = periodMonth;
+        this.transactionType = transactionType;
+        this.category = category;
+        this.currency = currency;
+        this.total = total;
+        this.itemCount = itemCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public int getPeriodYear() {
+        return periodYear;
+    }
+
+    public int getPeriodMonth() {
+        return periodMonth;
+    }
+
+    public BudgetItem.TransactionType getTransactionType() {
+        return transactionType;
+    }
+
+    public BudgetItem.BudgetCategory getCategory() {
+        return category;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+
+    public long getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(long itemCount) {
+        this.itemCount = itemCount;
+    }
+}
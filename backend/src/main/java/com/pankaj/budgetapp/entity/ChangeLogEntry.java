@@ -0,0 +1,77 @@
+package com.pankaj.budgetapp.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One committed change to a synced row, numbered from change_log_head in commit order.
+ * ChangeLogService keeps only the latest entry per (entity type, entity id), so the table holds
+ * one row per synced entity ever written; deletions stay as tombstones. An entity id of "*"
+ * with operation RESET means the whole collection was rewritten in bulk.
+ */
+@Entity
+@Table(name = "change_log",
+       indexes = @Index(name = "idx_change_log_entity", columnList = "entity_type, entity_id"))
+public class ChangeLogEntry {
+
+    public enum EntityType {
+        TRANSACTION,
+        ASSET,
+        SETTING
+    }
+
+    public enum Operation {
+        UPSERT,
+        DELETE,
+        RESET
+    }
+
+    // Taken from change_log_head by ChangeLogService, never generated
+    @Id
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 16)
+    private EntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private String entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private Operation operation;
+
+    @Column(nullable = false)
+    private LocalDateTime changedAt;
+
+    public ChangeLogEntry() {
+    }
+
+    public ChangeLogEntry(Long seq, EntityType entityType, String entityId, Operation operation) {
+        this.seq = seq;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.operation = operation;
+        this.changedAt = LocalDateTime.now();
+    }
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public EntityType getEntityType() {
+        return entityType;
+    }
+
+    public String getEntityId() {
+        return entityId;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+}
@@ -0,0 +1,53 @@
+package com.pankaj.budgetapp.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * The single row that numbers the change log. Appends increment seq inside the writing
+ * transaction, so the row lock orders them by commit and a rolled-back write leaves no gap.
+ * Cursors below resyncFloor may predate changes that never reached the log (an append that
+ * failed after its write committed, or a crash in between); those clients get a full resync.
+ */
+@Entity
+@Table(name = "change_log_head")
+public class ChangeLogHead {
+
+    public static final long ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private long seq;
+
+    @Column(name = "resync_floor", nullable = false)
+    private long resyncFloor;
+
+    // Cleared while the application runs, so a crash is noticed on the next start
+    @Column(name = "clean_shutdown", nullable = false)
+    private boolean cleanShutdown;
+
+    public ChangeLogHead() {
+    }
+
+    public ChangeLogHead(long seq) {
+        this.id = ID;
+        this.seq = seq;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public long getResyncFloor() {
+        return resyncFloor;
+    }
+
+    public boolean isCleanShutdown() {
+        return cleanShutdown;
+    }
+}
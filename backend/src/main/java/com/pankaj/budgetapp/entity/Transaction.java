@@ -6,7 +6,13 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+// Indexes follow TransactionRepository: date range/keyset, type, category, recurring lookups by month
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_date", columnList = "date, id"),
+        @Index(name = "idx_transactions_type_date", columnList = "type, date"),
+        @Index(name = "idx_transactions_category", columnList = "category"),
+        @Index(name = "idx_transactions_recurring_date", columnList = "recurring_id, date")
+})
 public class Transaction {
 
     @Id
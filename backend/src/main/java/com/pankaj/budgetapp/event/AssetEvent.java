@@ -0,0 +1,39 @@
+package com.pankaj.budgetapp.event;
+
+import com.pankaj.budgetapp.entity.Asset;
+
+/**
+ * Published by AssetService (and bulk importers) whenever assets change.
+ * Listeners that maintain read models should use @TransactionalEventListener.
+ */
+public class AssetEvent {
+
+    public enum Kind {
+        CREATED,
+        UPDATED,
+        DELETED,
+        // Many assets were written at once; read models should reload
+        BULK_IMPORTED
+    }
+
+    private final Kind kind;
+    private final Asset asset;
+
+    public AssetEvent(Kind kind, Asset asset) {
+        this.kind = kind;
+        this.asset = asset;
+    }
+
+    public static AssetEvent bulkImported() {
+        return new AssetEvent(Kind.BULK_IMPORTED, null);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    // The asset as written (or as it was before deletion); null for BULK_IMPORTED
+    public Asset getAsset() {
+        return asset;
+    }
+}
@@ -0,0 +1,51 @@
+package com.pankaj.budgetapp.event;
+
+import com.pankaj.budgetapp.entity.BudgetItem;
+
+/**
+ * Published by BudgetService (and bulk importers) whenever budget items change.
+ * Listeners that maintain read models should use @TransactionalEventListener so they
+ * only see committed changes.
+ */
+public class BudgetItemEvent {
+
+    public enum Kind {
+        CREATED,
+        UPDATED,
+        DELETED,
+        // Many items were written outside BudgetService; read models should reload
+        BULK_IMPORTED
+    }
+
+    private final Kind kind;
+    private final BudgetItem item;
+    private final BudgetItem previous;
+
+    public BudgetItemEvent(Kind kind, BudgetItem item) {
+        this(kind, item, null);
+    }
+
+    public BudgetItemEvent(Kind kind, BudgetItem item, BudgetItem previous) {
+        this.kind = kind;
+        this.item = item;
+        this.previous = previous;
+    }
+
+    public static BudgetItemEvent bulkImported() {
+        return new BudgetItemEvent(Kind.BULK_IMPORTED, null);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    // The item as written (or as it was before deletion); null for BULK_IMPORTED
+    public BudgetItem getItem() {
+        return item;
+    }
+
+    // Detached copy of the item before an UPDATED change; null otherwise
+    public BudgetItem getPrevious() {
+        return previous;
+    }
+}
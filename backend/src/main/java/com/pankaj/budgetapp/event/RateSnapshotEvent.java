@@ -0,0 +1,19 @@
+package com.pankaj.budgetapp.event;
+
+import com.pankaj.budgetapp.service.RateSnapshot;
+
+/**
+ * Published by CurrencyService after a refresh replaces the live rate snapshot.
+ */
+public class RateSnapshotEvent {
+
+    private final RateSnapshot snapshot;
+
+    public RateSnapshotEvent(RateSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public RateSnapshot getSnapshot() {
+        return snapshot;
+    }
+}
@@ -0,0 +1,19 @@
+package com.pankaj.budgetapp.event;
+
+/**
+ * Published whenever rows in the user_settings table are written (sync push, recurring
+ * materialization watermark). Listeners that maintain read models should use @TransactionalEventListener.
+ */
+public class SettingsEvent {
+
+    private final String key;
+
+    public SettingsEvent(String key) {
+        this.key = key;
+    }
+
+    // The setting that changed; null when several were written at once
+    public String getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,39 @@
+package com.pankaj.budgetapp.event;
+
+import com.pankaj.budgetapp.entity.Transaction;
+
+/**
+ * Published whenever rows in the transactions table change (expenses API, sync, recurring
+ * materialization). Listeners that maintain read models should use @TransactionalEventListener.
+ */
+public class TransactionEvent {
+
+    public enum Kind {
+        CREATED,
+        UPDATED,
+        DELETED,
+        // Many transactions were written at once; read models should reload
+        BULK_IMPORTED
+    }
+
+    private final Kind kind;
+    private final Transaction transaction;
+
+    public TransactionEvent(Kind kind, Transaction transaction) {
+        this.kind = kind;
+        this.transaction = transaction;
+    }
+
+    public static TransactionEvent bulkImported() {
+        return new TransactionEvent(Kind.BULK_IMPORTED, null);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    // The transaction as written (or as it was before deletion); null for BULK_IMPORTED
+    public Transaction getTransaction() {
+        return transaction;
+    }
+}
@@ -29,4 +29,18 @@ public interface AssetRepository extends JpaRepository<Asset, Long> {
     @Query("SELECT COALESCE(SUM(CASE WHEN a.quantity IS NOT NULL AND a.quantity > 0 " +
            "THEN a.currentMarketPrice * a.quantity ELSE a.currentMarketPrice END), 0) FROM Asset a")
     java.math.BigDecimal calculateTotalValue();
+
+    // Count and value per type in one pass; the value expression matches calculateTotalValue
+    @Query("SELECT a.type, COUNT(a), COALESCE(SUM(CASE WHEN a.quantity IS NOT NULL AND a.quantity > 0 " +
+           "THEN a.currentMarketPrice * a.quantity ELSE a.currentMarketPrice END), 0) FROM Asset a GROUP BY a.type")
+    List<Object[]> summarizeByType();
+
+    // Stale assets split by how long ago they were verified, as a single row: total, critical, warning
+    @Query("SELECT COUNT(a), " +
+           "COALESCE(SUM(CASE WHEN a.lastVerifiedDate <= :criticalCutoff THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN a.lastVerifiedDate > :criticalCutoff AND a.lastVerifiedDate <= :warningCutoff " +
+           "THEN 1 ELSE 0 END), 0) FROM Asset a WHERE a.lastVerifiedDate < :staleCutoff")
+    List<Object[]> countStale(@Param("staleCutoff") LocalDateTime staleCutoff,
+                              @Param("warningCutoff") LocalDateTime warningCutoff,
+                              @Param("criticalCutoff") LocalDateTime criticalCutoff);
 }
@@ -1,14 +1,20 @@
 package com.pankaj.budgetapp.repository;
 
 import com.pankaj.budgetapp.entity.BudgetItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface BudgetItemRepository extends JpaRepository<BudgetItem, Long> {
@@ -44,4 +50,40 @@ public interface BudgetItemRepository extends JpaRepository<BudgetItem, Long> {
     @Query("SELECT b.category, SUM(b.amount) FROM BudgetItem b " +
            "WHERE b.transactionType = :type GROUP BY b.category")
     List<Object[]> sumByCategory(@Param("type") BudgetItem.TransactionType type);
+
+    // Source rows for rebuilding budget_rollups
+    @Query("SELECT YEAR(b.transactionDate), MONTH(b.transactionDate), b.transactionType, b.category, " +
+           "b.currency, SUM(b.amount), COUNT(b) FROM BudgetItem b " +
+           "GROUP BY YEAR(b.transactionDate), MONTH(b.transactionDate), b.transactionType, b.category, b.currency")
+    List<Object[]> sumByRollupBucket();
+
+    // Source rows for the per-day prefix-sum indexes
+    @Query("SELECT b.transactionDate, b.transactionType, b.category, SUM(b.amount) FROM BudgetItem b " +
+           "WHERE b.transactionDate IS NOT NULL GROUP BY b.transactionDate, b.transactionType, b.category")
+    List<Object[]> sumByDayTypeAndCategory();
+
+    // Keyset pages ordered by (transactionDate DESC, id DESC); undated items come last
+    @Query("SELECT b FROM BudgetItem b WHERE b.transactionType IN :types AND " +
+           "b.transactionDate <= :date AND (b.transactionDate < :date OR b.id < :id) " +
+           "ORDER BY b.transactionDate DESC, b.id DESC")
+    List<BudgetItem> findDatedPageAfter(@Param("types") Collection<BudgetItem.TransactionType> types,
+                                        @Param("date") LocalDate date,
+                                        @Param("id") Long id,
+                                        Pageable pageable);
+
+    @Query("SELECT b FROM BudgetItem b WHERE b.transactionType IN :types AND b.transactionDate IS NULL " +
+           "AND (:id IS NULL OR b.id < :id) ORDER BY b.id DESC")
+    List<BudgetItem> findUndatedPageAfter(@Param("types") Collection<BudgetItem.TransactionType> types,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
+
+    // Keyset pages in id order, for full loads that must not rescan skipped rows
+    @Query("SELECT b FROM BudgetItem b WHERE b.id > :id ORDER BY b.id")
+    List<BudgetItem> findPageAfterId(@Param("id") Long id, Pageable pageable);
+
+    // Forward-only cursor for exports; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT b FROM BudgetItem b WHERE b.transactionType IN :types " +
+           "ORDER BY b.transactionDate DESC NULLS LAST, b.id DESC")
+    Stream<BudgetItem> streamByTypes(@Param("types") Collection<BudgetItem.TransactionType> types);
 }
@@ -0,0 +1,53 @@
+package com.pankaj.budgetapp.repository;
+
+import com.pankaj.budgetapp.entity.BudgetItem;
+import com.pankaj.budgetapp.entity.BudgetRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface BudgetRollupRepository extends JpaRepository<BudgetRollup, Long> {
+
+    @Modifying
+    @Query("UPDATE BudgetRollup r SET r.total = r.total + :amount, r.itemCount = r.itemCount + :count " +
+           "WHERE r.periodYear = :year AND r.periodMonth = :month AND r.transactionType = :type " +
+           "AND r.category = :category AND r.currency = :currency")
+    int applyDelta(@Param("year") int year,
+                   @Param("month") int month,
+                   @Param("type") BudgetItem.TransactionType type,
+                   @Param("category") BudgetItem.BudgetCategory category,
+                   @Param("currency") String currency,
+                   @Param("amount") BigDecimal amount,
+                   @Param("count") long count);
+
+    @Query("SELECT COALESCE(SUM(r.total), 0) FROM BudgetRollup r WHERE r.transactionType = :type")
+    BigDecimal sumByType(@Param("type") BudgetItem.TransactionType type);
+
+    @Query("SELECT COALESCE(SUM(r.total), 0) FROM BudgetRollup r WHERE r.transactionType = :type " +
+           "AND r.periodYear = :year AND r.periodMonth = :month")
+    BigDecimal sumByTypeForMonth(@Param("type") BudgetItem.TransactionType type,
+                                 @Param("year") int year,
+                                 @Param("month") int month);
+
+    @Query("SELECT r.category, SUM(r.total) FROM BudgetRollup r " +
+           "WHERE r.transactionType = :type GROUP BY r.category")
+    List<Object[]> sumByCategory(@Param("type") BudgetItem.TransactionType type);
+
+    @Query("SELECT r.transactionType, r.currency, SUM(r.total) FROM BudgetRollup r " +
+           "GROUP BY r.transactionType, r.currency")
+    List<Object[]> sumByTypeAndCurrency();
+
+    @Query("SELECT r.transactionType, r.currency, SUM(r.total) FROM BudgetRollup r " +
+           "WHERE r.periodYear = :year AND r.periodMonth = :month GROUP BY r.transactionType, r.currency")
+    List<Object[]> sumByTypeAndCurrencyForMonth(@Param("year") int year, @Param("month") int month);
+
+    @Query("SELECT r.category, r.currency, SUM(r.total) FROM BudgetRollup r " +
+           "WHERE r.transactionType = :type GROUP BY r.category, r.currency")
+    List<Object[]> sumByCategoryAndCurrency(@Param("type") BudgetItem.TransactionType type);
+}
@@ -0,0 +1,33 @@
+package com.pankaj.budgetapp.repository;
+
+import com.pankaj.budgetapp.entity.ChangeLogHead;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ChangeLogHeadRepository extends JpaRepository<ChangeLogHead, Long> {
+
+    // Takes the row lock until the calling transaction ends
+    @Modifying
+    @Query("UPDATE ChangeLogHead h SET h.seq = h.seq + 1 WHERE h.id = " + ChangeLogHead.ID)
+    int increment();
+
+    // Consumes one sequence number as the new floor, so a client resynced from here is current
+    @Modifying
+    @Query("UPDATE ChangeLogHead h SET h.seq = h.seq + 1, h.resyncFloor = h.seq + 1 WHERE h.id = " + ChangeLogHead.ID)
+    int raiseFloor();
+
+    @Modifying
+    @Query("UPDATE ChangeLogHead h SET h.cleanShutdown = :clean WHERE h.id = " + ChangeLogHead.ID)
+    int setCleanShutdown(@Param("clean") boolean clean);
+
+    // Scalar reads go to the database, never to a cached entity
+    @Query("SELECT h.seq FROM ChangeLogHead h WHERE h.id = " + ChangeLogHead.ID)
+    Long findSeq();
+
+    @Query("SELECT h.resyncFloor FROM ChangeLogHead h WHERE h.id = " + ChangeLogHead.ID)
+    Long findResyncFloor();
+}
@@ -0,0 +1,38 @@
+package com.pankaj.budgetapp.repository;
+
+import com.pankaj.budgetapp.entity.ChangeLogEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+
+    @Query("SELECT COALESCE(MAX(c.seq), 0) FROM ChangeLogEntry c")
+    long findMaxSeq();
+
+    List<ChangeLogEntry> findBySeqGreaterThanAndSeqLessThanEqualOrderBySeq(Long since, Long upTo);
+
+    @Query("SELECT c.entityId FROM ChangeLogEntry c " +
+           "WHERE c.seq > :since AND c.entityType = :type AND c.operation = :operation")
+    List<String> findIdsSince(@Param("since") long since,
+                              @Param("type") ChangeLogEntry.EntityType type,
+                              @Param("operation") ChangeLogEntry.Operation operation);
+
+    // Older entries for the same entity are superseded by the one just appended
+    @Modifying
+    @Query("DELETE FROM ChangeLogEntry c WHERE c.entityType = :type AND c.entityId = :id AND c.seq < :seq")
+    int deleteSuperseded(@Param("type") ChangeLogEntry.EntityType type,
+                         @Param("id") String id,
+                         @Param("seq") long seq);
+
+    @Modifying
+    @Query("DELETE FROM ChangeLogEntry c WHERE c.entityType = :type AND c.operation = :operation AND c.seq < :seq")
+    int deleteOlderOfTypeAndOperation(@Param("type") ChangeLogEntry.EntityType type,
+                                      @Param("operation") ChangeLogEntry.Operation operation,
+                                      @Param("seq") long seq);
+}
@@ -1,12 +1,20 @@
 package com.pankaj.budgetapp.repository;
 
 import com.pankaj.budgetapp.entity.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, String> {
@@ -17,8 +25,30 @@ public interface TransactionRepository extends JpaRepository<Transaction, String
 
     List<Transaction> findByType(Transaction.TransactionType type);
 
-    @Query("SELECT t FROM Transaction t WHERE YEAR(t.date) = ?1 AND MONTH(t.date) = ?2")
-    List<Transaction> findByYearAndMonth(int year, int month);
+    // Date range instead of YEAR()/MONTH() so idx_transactions_date can be used
+    default List<Transaction> findByYearAndMonth(int year, int month) {
+        YearMonth period = YearMonth.of(year, month);
+        return findByDateBetween(period.atDay(1), period.atEndOfMonth());
+    }
 
     List<Transaction> findAllByOrderByDateDesc();
+
+    List<Transaction> findByRecurringIdIsNotNullAndDateBetween(LocalDate start, LocalDate end);
+
+    // Which of these ids are taken, without loading the rows
+    @Query("SELECT t.id FROM Transaction t WHERE t.id IN :ids")
+    List<String> findExistingIds(@Param("ids") Collection<String> ids);
+
+    // Keyset pages ordered by (date DESC, id DESC); undated rows come last
+    @Query("SELECT t FROM Transaction t WHERE t.date <= :date AND (t.date < :date OR t.id < :id) " +
+           "ORDER BY t.date DESC, t.id DESC")
+    List<Transaction> findDatedPageAfter(@Param("date") LocalDate date, @Param("id") String id, Pageable pageable);
+
+    @Query("SELECT t FROM Transaction t WHERE t.date IS NULL AND (:id IS NULL OR t.id < :id) ORDER BY t.id DESC")
+    List<Transaction> findUndatedPageAfter(@Param("id") String id, Pageable pageable);
+
+    // Forward-only cursor for exports; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT t FROM Transaction t ORDER BY t.date DESC NULLS LAST, t.id DESC")
+    Stream<Transaction> streamAll();
 }
@@ -0,0 +1,374 @@
+package com.pankaj.budgetapp.service;
+
+import com.pankaj.budgetapp.entity.Asset;
+import com.pankaj.budgetapp.event.AssetEvent;
+import com.pankaj.budgetapp.repository.AssetRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over asset name, storage location and description.
+ * Each field is normalized (lowercase, runs of non-alphanumerics collapsed to one space) and
+ * split into trigrams of "  text "; every trigram has a posting list of int entries
+ * (doc * FIELD_COUNT + field) in ascending order. A query of three or more characters is
+ * answered exactly by intersecting the postings of its own trigrams and checking the surviving
+ * fields with contains(), so results match the old LIKE '%q%' search. Queries of four or more
+ * characters also pick up near misses (typos) whose padded trigrams overlap enough.
+ * Built at startup and kept current from committed AssetEvents; searches never touch the database.
+ */
+@Service
+public class AssetSearchIndex {
+
+    public static final int NAME = 0;
+    public static final int LOCATION = 1;
+    public static final int DESCRIPTION = 2;
+    public static final int ALL_FIELDS = (1 << NAME) | (1 << LOCATION) | (1 << DESCRIPTION);
+
+    private static final int FIELD_COUNT = 3;
+    // Name matches outrank location matches, which outrank description matches
+    private static final double[] FIELD_WEIGHTS = {3.0, 2.0, 1.0};
+    // Share of the query's trigrams a field must contain to count as a near miss
+    private static final double FUZZY_THRESHOLD = 0.45;
+    private static final int FUZZY_MIN_QUERY_LENGTH = 4;
+    private static final int MAX_FUZZY_RESULTS = 50;
+
+    private final AssetRepository assetRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> docById = new HashMap<>();
+    private final List<Asset> assets = new ArrayList<>();
+    private final List<String[]> texts = new ArrayList<>();
+    private int deletedDocs;
+    private volatile boolean loaded;
+
+    // Growable sorted int array
+    private static final class Postings {
+        private int[] entries = new int[4];
+        private int size;
+
+        void add(int entry) {
+            if (size > 0 && entries[size - 1] == entry) {
+                return;
+            }
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+            entries[size++] = entry;
+        }
+    }
+
+    @Autowired
+    public AssetSearchIndex(AssetRepository assetRepository) {
+        this.assetRepository = assetRepository;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Assets whose fields (bitmask of 1 << NAME / LOCATION / DESCRIPTION) contain the query,
+     * best first, followed by up to 50 near misses when the query is long enough.
+     */
+    public List<Asset> search(String query, int fields) {
+        String q = normalize(query);
+        lock.readLock().lock();
+        try {
+            if (q.isEmpty()) {
+                // Like LIKE '%%', a blank query matches everything
+                List<Asset> all = new ArrayList<>(docById.size());
+                for (Asset asset : assets) {
+                    if (asset != null) {
+                        all.add(asset);
+                    }
+                }
+                return all;
+            }
+            double[] scores = new double[assets.size()];
+            List<Integer> exact = exactMatches(q, fields, scores);
+            List<Asset> results = new ArrayList<>(exact.size());
+            exact.sort((a, b) -> Double.compare(scores[b], scores[a]));
+            for (int doc : exact) {
+                results.add(assets.get(doc));
+            }
+            if (q.length() >= FUZZY_MIN_QUERY_LENGTH) {
+                for (int doc : fuzzyMatches(q, fields, scores)) {
+                    results.add(assets.get(doc));
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getSize() {
+        lock.readLock().lock();
+        try {
+            return docById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Asset> all;
+        // Read under the write lock so an event committed meanwhile is applied after the rebuild, not lost
+        lock.writeLock().lock();
+        try {
+            all = assetRepository.findAll();
+            clear();
+            for (Asset asset : all) {
+                add(asset);
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("Asset search index loaded: " + all.size() + " assets, " + postings.size() + " trigrams");
+    }
+
+    @Order(DataVersions.READ_MODEL_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetEvent(AssetEvent event) {
+        if (event.getKind() == AssetEvent.Kind.BULK_IMPORTED) {
+            load();
+            return;
+        }
+        Asset asset = event.getAsset();
+        if (asset == null || asset.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            remove(asset.getId());
+            if (event.getKind() != AssetEvent.Kind.DELETED) {
+                add(asset);
+            }
+            if (deletedDocs > 64 && deletedDocs > assets.size() / 4) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Docs whose selected fields contain q; scores[doc] gets the best field's score
+    private List<Integer> exactMatches(String q, int fields, double[] scores) {
+        List<Integer> matches = new ArrayList<>();
+        if (q.length() < 3) {
+            // Too short for a trigram; the texts are in memory, so check them directly
+            for (int doc = 0; doc < assets.size(); doc++) {
+                scoreExact(doc, q, fields, scores, matches);
+            }
+            return matches;
+        }
+        long[] grams = trigrams(q);
+        Postings[] lists = new Postings[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            lists[i] = postings.get(grams[i]);
+            if (lists[i] == null) {
+                return matches;
+            }
+        }
+        // Walk the shortest list and probe the others
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+        int lastDoc = -1;
+        for (int i = 0; i < lists[0].size; i++) {
+            int entry = lists[0].entries[i];
+            int doc = entry / FIELD_COUNT;
+            if (doc == lastDoc || (fields & (1 << (entry % FIELD_COUNT))) == 0 || !inAll(lists, entry)) {
+                continue;
+            }
+            lastDoc = doc;
+            scoreExact(doc, q, fields, scores, matches);
+        }
+        return matches;
+    }
+
+    private static boolean inAll(Postings[] lists, int entry) {
+        for (int i = 1; i < lists.length; i++) {
+            if (Arrays.binarySearch(lists[i].entries, 0, lists[i].size, entry) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void scoreExact(int doc, String q, int fields, double[] scores, List<Integer> matches) {
+        String[] docTexts = texts.get(doc);
+        if (docTexts == null) {
+            return;
+        }
+        double best = 0;
+        int matched = 0;
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            String text = docTexts[field];
+            if ((fields & (1 << field)) == 0 || text.isEmpty()) {
+                continue;
+            }
+            int at = text.indexOf(q);
+            if (at < 0) {
+                continue;
+            }
+            matched++;
+            double score = FIELD_WEIGHTS[field];
+            if (text.length() == q.length()) {
+                score *= 3;
+            } else if (at == 0 || text.charAt(at - 1) == ' ') {
+                // Matches at the start of a word read as more relevant than inside one
+                score *= 2;
+            }
+            // Shorter fields are more about the query
+            score += (double) q.length() / text.length();
+            best = Math.max(best, score);
+        }
+        if (matched > 0) {
+            scores[doc] = best + 0.1 * (matched - 1);
+            matches.add(doc);
+        }
+    }
+
+    // Docs not matched exactly whose best field shares enough trigrams with q; a single leading
+    // space lets the query's first word line up with any word in the field, not just the first
+    private List<Integer> fuzzyMatches(String q, int fields, double[] scores) {
+        long[] grams = trigrams(" " + q + " ");
+        int[] shared = new int[assets.size() * FIELD_COUNT];
+        for (long gram : grams) {
+            Postings list = postings.get(gram);
+            if (list == null) {
+                continue;
+            }
+            for (int i = 0; i < list.size; i++) {
+                shared[list.entries[i]]++;
+            }
+        }
+        double[] fuzzy = new double[assets.size()];
+        List<Integer> matches = new ArrayList<>();
+        for (int doc = 0; doc < assets.size(); doc++) {
+            if (scores[doc] > 0 || texts.get(doc) == null) {
+                continue;
+            }
+            double best = 0;
+            for (int field = 0; field < FIELD_COUNT; field++) {
+                if ((fields & (1 << field)) == 0) {
+                    continue;
+                }
+                double similarity = (double) shared[doc * FIELD_COUNT + field] / grams.length;
+                if (similarity >= FUZZY_THRESHOLD) {
+                    best = Math.max(best, similarity * FIELD_WEIGHTS[field]);
+                }
+            }
+            if (best > 0) {
+                fuzzy[doc] = best;
+                matches.add(doc);
+            }
+        }
+        matches.sort((a, b) -> Double.compare(fuzzy[b], fuzzy[a]));
+        return matches.size() > MAX_FUZZY_RESULTS ? matches.subList(0, MAX_FUZZY_RESULTS) : matches;
+    }
+
+    private void add(Asset asset) {
+        if (asset.getId() == null) {
+            return;
+        }
+        int doc = assets.size();
+        String[] docTexts = {
+                normalize(asset.getName()),
+                normalize(asset.getStorageLocation()),
+                normalize(asset.getDescription())
+        };
+        assets.add(asset);
+        texts.add(docTexts);
+        docById.put(asset.getId(), doc);
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            if (docTexts[field].isEmpty()) {
+                continue;
+            }
+            // Docs are only appended, so every posting list stays sorted
+            for (long gram : trigrams("  " + docTexts[field] + " ")) {
+                postings.computeIfAbsent(gram, k -> new Postings()).add(doc * FIELD_COUNT + field);
+            }
+        }
+    }
+
+    // Tombstones the doc; its postings are dropped at the next compaction
+    private void remove(Long id) {
+        Integer doc = docById.remove(id);
+        if (doc != null) {
+            assets.set(doc, null);
+            texts.set(doc, null);
+            deletedDocs++;
+        }
+    }
+
+    private void compact() {
+        List<Asset> live = new ArrayList<>(docById.size());
+        for (Asset asset : assets) {
+            if (asset != null) {
+                live.add(asset);
+            }
+        }
+        clear();
+        for (Asset asset : live) {
+            add(asset);
+        }
+    }
+
+    private void clear() {
+        postings.clear();
+        docById.clear();
+        assets.clear();
+        texts.clear();
+        deletedDocs = 0;
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+                space = false;
+            } else if (!space) {
+                sb.append(' ');
+                space = true;
+            }
+        }
+        int end = sb.length();
+        return end > 0 && sb.charAt(end - 1) == ' ' ? sb.substring(0, end - 1) : sb.toString();
+    }
+
+    // Distinct trigrams of s, each packed as three 16-bit chars
+    private static long[] trigrams(String s) {
+        Set<Long> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= s.length(); i++) {
+            grams.add(((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2));
+        }
+        long[] out = new long[grams.size()];
+        int i = 0;
+        for (long gram : grams) {
+            out[i++] = gram;
+        }
+        return out;
+    }
+}
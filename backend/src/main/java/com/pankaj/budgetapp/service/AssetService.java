@@ -1,8 +1,10 @@
 package com.pankaj.budgetapp.service;
 
 import com.pankaj.budgetapp.entity.Asset;
+import com.pankaj.budgetapp.event.AssetEvent;
 import com.pankaj.budgetapp.repository.AssetRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,10 +18,17 @@ import java.util.Optional;
 public class AssetService {
 
     private final AssetRepository assetRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AssetSearchIndex searchIndex;
+    private final StorageLocationTree locationTree;
 
     @Autowired
-    public AssetService(AssetRepository assetRepository) {
+    public AssetService(AssetRepository assetRepository, ApplicationEventPublisher eventPublisher,
+                        AssetSearchIndex searchIndex, StorageLocationTree locationTree) {
         this.assetRepository = assetRepository;
+        this.eventPublisher = eventPublisher;
+        this.searchIndex = searchIndex;
+        this.locationTree = locationTree;
     }
 
     public List<Asset> getAllAssets() {
@@ -33,7 +42,7 @@ public class AssetService {
     public Asset createAsset(Asset asset) {
         asset.setCreatedAt(LocalDateTime.now());
         asset.setLastVerifiedDate(LocalDateTime.now());
-        return assetRepository.save(asset);
+        return publish(AssetEvent.Kind.CREATED, assetRepository.save(asset));
     }
 
     public Asset updateAsset(Long id, Asset assetDetails) {
@@ -50,25 +59,44 @@ public class AssetService {
                     asset.setQuantity(assetDetails.getQuantity());
                     asset.setUnit(assetDetails.getUnit());
                     asset.setUpdatedAt(LocalDateTime.now());
-                    return assetRepository.save(asset);
+                    return publish(AssetEvent.Kind.UPDATED, assetRepository.save(asset));
                 })
                 .orElseThrow(() -> new RuntimeException("Asset not found with id: " + id));
     }
 
     public void deleteAsset(Long id) {
-        assetRepository.deleteById(id);
+        assetRepository.findById(id).ifPresent(asset -> {
+            assetRepository.delete(asset);
+            publish(AssetEvent.Kind.DELETED, asset);
+        });
     }
 
     public List<Asset> findByType(Asset.AssetType type) {
         return assetRepository.findByType(type);
     }
 
+    // Ranked matches from the trigram index; the LIKE queries only serve requests before it has loaded
+    @Transactional(readOnly = true)
     public List<Asset> searchAssets(String query) {
-        return assetRepository.searchAssets(query);
+        if (!searchIndex.isLoaded()) {
+            return assetRepository.searchAssets(query);
+        }
+        return searchIndex.search(query, AssetSearchIndex.ALL_FIELDS);
     }
 
+    @Transactional(readOnly = true)
     public List<Asset> findByLocation(String location) {
-        return assetRepository.findByStorageLocationContainingIgnoreCase(location);
+        if (!searchIndex.isLoaded()) {
+            return assetRepository.findByStorageLocationContainingIgnoreCase(location);
+        }
+        return searchIndex.search(location, 1 << AssetSearchIndex.LOCATION);
+    }
+
+    // Assets at the location path or anywhere below it, ids taken from the location tree
+    @Transactional(readOnly = true)
+    public List<Asset> findInLocationSubtree(String path) {
+        List<Long> ids = locationTree.getAssetIds(path);
+        return ids.isEmpty() ? List.of() : assetRepository.findAllById(ids);
     }
 
     // Verify location - updates lastVerifiedDate
@@ -76,7 +104,7 @@ public class AssetService {
         return assetRepository.findById(id)
                 .map(asset -> {
                     asset.setLastVerifiedDate(LocalDateTime.now());
-                    return assetRepository.save(asset);
+                    return publish(AssetEvent.Kind.UPDATED, assetRepository.save(asset));
                 })
                 .orElseThrow(() -> new RuntimeException("Asset not found with id: " + id));
     }
@@ -87,7 +115,7 @@ public class AssetService {
                 .map(asset -> {
                     asset.setCurrentMarketPrice(newPrice);
                     asset.setLastVerifiedDate(LocalDateTime.now());
-                    return assetRepository.save(asset);
+                    return publish(AssetEvent.Kind.UPDATED, assetRepository.save(asset));
                 })
                 .orElseThrow(() -> new RuntimeException("Asset not found with id: " + id));
     }
@@ -98,6 +126,28 @@ public class AssetService {
         return assetRepository.findStaleAssets(cutoffDate);
     }
 
+    // Per type: {AssetType, count, value}
+    public List<Object[]> summarizeByType() {
+        return assetRepository.summarizeByType();
+    }
+
+    // {stale, critical, warning} counts for the given cutoffs in one query
+    public long[] countStaleAssets(LocalDateTime warningCutoff, LocalDateTime criticalCutoff) {
+        LocalDateTime staleCutoff = LocalDateTime.now().minusDays(30);
+        List<Object[]> rows = assetRepository.countStale(staleCutoff, warningCutoff, criticalCutoff);
+        Object[] row = rows.isEmpty() ? new Object[0] : rows.get(0);
+        long[] counts = new long[3];
+        for (int i = 0; i < counts.length && i < row.length; i++) {
+            counts[i] = row[i] != null ? ((Number) row[i]).longValue() : 0;
+        }
+        return counts;
+    }
+
+    private Asset publish(AssetEvent.Kind kind, Asset asset) {
+        eventPublisher.publishEvent(new AssetEvent(kind, asset));
+        return asset;
+    }
+
     // Calculate total net worth from all assets
     public BigDecimal calculateTotalNetWorth() {
         BigDecimal total = assetRepository.calculateTotalValue();
@@ -0,0 +1,194 @@
+package com.pankaj.budgetapp.service;
+
+import com.pankaj.budgetapp.entity.BudgetItem;
+import com.pankaj.budgetapp.entity.BudgetRollup;
+import com.pankaj.budgetapp.repository.BudgetItemRepository;
+import com.pankaj.budgetapp.repository.BudgetRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps budget_rollups in step with budget_items. Every write to a budget item applies
+ * a delta to its bucket inside the same transaction, so summary queries read
+ * months x categories rows instead of scanning the ledger.
+ */
+@Service
+@Transactional
+public class BudgetRollupService {
+
+    private final BudgetRollupRepository rollupRepository;
+    private final BudgetItemRepository budgetItemRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public BudgetRollupService(BudgetRollupRepository rollupRepository, BudgetItemRepository budgetItemRepository,
+                               JdbcTemplate jdbcTemplate) {
+        this.rollupRepository = rollupRepository;
+        this.budgetItemRepository = budgetItemRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void add(BudgetItem item) {
+        apply(item, item.getAmount(), 1);
+    }
+
+    public void remove(BudgetItem item) {
+        apply(item, item.getAmount() != null ? item.getAmount().negate() : null, -1);
+    }
+
+    /**
+     * Recomputes every bucket from budget_items. Use after bulk imports or to repair drift.
+     * Returns the number of buckets written.
+     */
+    public int rebuild() {
+        Map<Bucket, BudgetRollup> buckets = new LinkedHashMap<>();
+        for (Object[] row : budgetItemRepository.sumByRollupBucket()) {
+            int year = row[0] != null ? ((Number) row[0]).intValue() : 0;
+            int month = row[1] != null ? ((Number) row[1]).intValue() : 0;
+            BudgetItem.TransactionType type = (BudgetItem.TransactionType) row[2];
+            BudgetItem.BudgetCategory category = (BudgetItem.BudgetCategory) row[3];
+            String currency = normalizeCurrency((String) row[4]);
+            BigDecimal total = (BigDecimal) row[5];
+            long count = ((Number) row[6]).longValue();
+            // Rows differing only in currency case or NULL currency share one bucket
+            buckets.merge(new Bucket(year, month, type, category, currency),
+                    new BudgetRollup(year, month, type, category, currency, total, count),
+                    (a, b) -> {
+                        a.setTotal(a.getTotal().add(b.getTotal()));
+                        a.setItemCount(a.getItemCount() + b.getItemCount());
+                        return a;
+                    });
+        }
+        rollupRepository.deleteAllInBatch();
+        rollupRepository.saveAll(buckets.values());
+        return buckets.size();
+    }
+
+    // First start after upgrading: populate the rollups from existing items
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (rollupRepository.count() == 0 && budgetItemRepository.count() > 0) {
+            int buckets = rebuild();
+            System.out.println("Rebuilt budget rollups: " + buckets + " buckets");
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal getTotal(BudgetItem.TransactionType type) {
+        return rollupRepository.sumByType(type);
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalForMonth(BudgetItem.TransactionType type, int year, int month) {
+        return rollupRepository.sumByTypeForMonth(type, year, month);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Object[]> sumByCategory(BudgetItem.TransactionType type) {
+        return rollupRepository.sumByCategory(type);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Object[]> sumByTypeAndCurrency() {
+        return rollupRepository.sumByTypeAndCurrency();
+    }
+
+    @Transactional(readOnly = true)
+    public List<Object[]> sumByTypeAndCurrencyForMonth(int year, int month) {
+        return rollupRepository.sumByTypeAndCurrencyForMonth(year, month);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Object[]> sumByCategoryAndCurrency(BudgetItem.TransactionType type) {
+        return rollupRepository.sumByCategoryAndCurrency(type);
+    }
+
+    private void apply(BudgetItem item, BigDecimal amount, long count) {
+        if (amount == null || item.getTransactionType() == null || item.getCategory() == null) {
+            return;
+        }
+        LocalDate date = item.getTransactionDate();
+        int year = date != null ? date.getYear() : 0;
+        int month = date != null ? date.getMonthValue() : 0;
+        String currency = normalizeCurrency(item.getCurrency());
+        int updated = rollupRepository.applyDelta(year, month, item.getTransactionType(), item.getCategory(),
+                currency, amount, count);
+        if (updated == 0 && !insertBucket(year, month, item.getTransactionType(), item.getCategory(),
+                currency, amount, count)) {
+            // Another writer created the bucket after our update missed it; it has committed by now
+            rollupRepository.applyDelta(year, month, item.getTransactionType(), item.getCategory(),
+                    currency, amount, count);
+        }
+    }
+
+    /**
+     * Inserts the bucket in the caller's transaction and returns false if uk_budget_rollup_bucket
+     * says another writer got there first. Plain JDBC on purpose: a failed repository call would
+     * mark the caller's transaction rollback-only, while H2 rolls back just the failed statement.
+     * Ids come from the entity's pooled-lo sequence; one NEXT VALUE claims a whole block, so the
+     * value itself is free.
+     */
+    private boolean insertBucket(int year, int month, BudgetItem.TransactionType type,
+                                 BudgetItem.BudgetCategory category, String currency, BigDecimal amount, long count) {
+        try {
+            jdbcTemplate.update("INSERT INTO budget_rollups (id, period_year, period_month, transaction_type, "
+                            + "category, currency, total, item_count) "
+                            + "VALUES (NEXT VALUE FOR budget_rollups_seq, ?, ?, ?, ?, ?, ?, ?)",
+                    year, month, type.name(), category.name(), currency, amount, count);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private static String normalizeCurrency(String currency) {
+        return currency == null || currency.isBlank() ? CurrencyTotals.DEFAULT_CURRENCY : currency.toUpperCase();
+    }
+
+    private static final class Bucket {
+        private final int year;
+        private final int month;
+        private final BudgetItem.TransactionType type;
+        private final BudgetItem.BudgetCategory category;
+        private final String currency;
+
+        Bucket(int year, int month, BudgetItem.TransactionType type, BudgetItem.BudgetCategory category,
+               String currency) {
+            this.year = year;
+            this.month = month;
+            this.type = type;
+            this.category = category;
+            this.currency = currency;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Bucket)) {
+                return false;
+            }
+            Bucket other = (Bucket) o;
+            return year == other.year && month == other.month && type == other.type
+                    && category == other.category && currency.equals(other.currency);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(year, month, type, category, currency);
+        }
+    }
+}
@@ -1,34 +1,75 @@
 package com.pankaj.budgetapp.service;
 
 import com.pankaj.budgetapp.entity.BudgetItem;
+import com.pankaj.budgetapp.event.BudgetItemEvent;
 import com.pankaj.budgetapp.repository.BudgetItemRepository;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class BudgetService {
 
     private final BudgetItemRepository budgetItemRepository;
+    private final BudgetRollupService rollupService;
+    private final CurrencyService currencyService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
 
     @Autowired
-    public BudgetService(BudgetItemRepository budgetItemRepository) {
+    public BudgetService(BudgetItemRepository budgetItemRepository,
+                         BudgetRollupService rollupService,
+                         CurrencyService currencyService,
+                         ApplicationEventPublisher eventPublisher,
+                         EntityManager entityManager) {
         this.budgetItemRepository = budgetItemRepository;
+        this.rollupService = rollupService;
+        this.currencyService = currencyService;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
     }
 
     public List<BudgetItem> getAllBudgetItems() {
         return budgetItemRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public LedgerPage<BudgetItem> getBudgetItemPage(Collection<BudgetItem.TransactionType> types,
+                                                    String cursor, int limit) {
+        return KeysetCursor.page(cursor, limit,
+                (after, page) -> budgetItemRepository.findDatedPageAfter(types, after.getDate(),
+                        after.getId() != null ? Long.valueOf(after.getId()) : Long.MAX_VALUE, page),
+                (after, page) -> budgetItemRepository.findUndatedPageAfter(types,
+                        after.getId() != null ? Long.valueOf(after.getId()) : null, page),
+                BudgetItem::getTransactionDate, BudgetItem::getId);
+    }
+
+    // Streams items in ledger order; each one is detached after use so memory stays flat
+    @Transactional(readOnly = true)
+    public void forEachBudgetItem(Collection<BudgetItem.TransactionType> types, Consumer<? super BudgetItem> action) {
+        try (Stream<BudgetItem> items = budgetItemRepository.streamByTypes(types)) {
+            items.forEach(item -> {
+                action.accept(item);
+                entityManager.detach(item);
+            });
+        }
+    }
+
     public Optional<BudgetItem> getBudgetItemById(Long id) {
         return budgetItemRepository.findById(id);
     }
@@ -38,28 +79,51 @@ public class BudgetService {
         if (item.getTransactionDate() == null) {
             item.setTransactionDate(LocalDate.now());
         }
-        return budgetItemRepository.save(item);
+        BudgetItem saved = budgetItemRepository.save(item);
+        rollupService.add(saved);
+        eventPublisher.publishEvent(new BudgetItemEvent(BudgetItemEvent.Kind.CREATED, saved));
+        return saved;
     }
 
     public BudgetItem updateBudgetItem(Long id, BudgetItem itemDetails) {
         return budgetItemRepository.findById(id)
                 .map(item -> {
+                    // Move the item's amount out of its old bucket before any field changes
+                    rollupService.remove(item);
+                    BudgetItem previous = copyOf(item);
                     item.setName(itemDetails.getName());
                     item.setCategory(itemDetails.getCategory());
                     item.setTransactionType(itemDetails.getTransactionType());
                     item.setAmount(itemDetails.getAmount());
+                    if (itemDetails.getCurrency() != null) {
+                        item.setCurrency(itemDetails.getCurrency());
+                    }
                     item.setTransactionDate(itemDetails.getTransactionDate());
                     item.setNotes(itemDetails.getNotes());
                     item.setRecurring(itemDetails.isRecurring());
                     item.setRecurrenceFrequency(itemDetails.getRecurrenceFrequency());
                     item.setUpdatedAt(LocalDateTime.now());
-                    return budgetItemRepository.save(item);
+                    BudgetItem saved = budgetItemRepository.save(item);
+                    rollupService.add(saved);
+                    eventPublisher.publishEvent(new BudgetItemEvent(BudgetItemEvent.Kind.UPDATED, saved, previous));
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("BudgetItem not found with id: " + id));
     }
 
     public void deleteBudgetItem(Long id) {
-        budgetItemRepository.deleteById(id);
+        budgetItemRepository.findById(id).ifPresent(item -> {
+            rollupService.remove(item);
+            budgetItemRepository.delete(item);
+            eventPublisher.publishEvent(new BudgetItemEvent(BudgetItemEvent.Kind.DELETED, item));
+        });
+    }
+
+    // Drift repair: recompute all rollup buckets from the ledger
+    public int rebuildRollups() {
+        int buckets = rollupService.rebuild();
+        eventPublisher.publishEvent(BudgetItemEvent.bulkImported());
+        return buckets;
     }
 
     public List<BudgetItem> getIncomeItems() {
@@ -71,17 +135,16 @@ public class BudgetService {
     }
 
     public BigDecimal getTotalIncome() {
-        return budgetItemRepository.calculateTotalIncome();
+        return rollupService.getTotal(BudgetItem.TransactionType.INCOME);
     }
 
     public BigDecimal getTotalExpenses() {
-        return budgetItemRepository.calculateTotalExpenses();
+        return rollupService.getTotal(BudgetItem.TransactionType.EXPENSE);
     }
 
+    // Same single grouped rollup read as the summary
     public BigDecimal getBalance() {
-        BigDecimal income = getTotalIncome();
-        BigDecimal expenses = getTotalExpenses();
-        return income.subtract(expenses);
+        return getSummary().get("balance");
     }
 
     public List<BudgetItem> getItemsForMonth(int year, int month) {
@@ -91,29 +154,100 @@ public class BudgetService {
     }
 
     public Map<String, BigDecimal> getMonthlyBreakdown(int year, int month) {
-        LocalDate start = LocalDate.of(year, month, 1);
-        LocalDate end = start.plusMonths(1).minusDays(1);
+        return getMonthlyBreakdown(year, month, null);
+    }
+
+    public Map<String, BigDecimal> getCategoryBreakdown(BudgetItem.TransactionType type) {
+        List<Object[]> results = rollupService.sumByCategory(type);
+        Map<String, BigDecimal> breakdown = new HashMap<>();
+        for (Object[] row : results) {
+            breakdown.put(((BudgetItem.BudgetCategory) row[0]).name(), (BigDecimal) row[1]);
+        }
+        return breakdown;
+    }
+
+    // Income, expenses and balance from one grouped query; amounts are summed as stored
+    public Map<String, BigDecimal> getSummary() {
+        return getSummary(null);
+    }
+
+    // Totals converted to a reporting currency: one grouped query, one conversion per currency.
+    // A null currency sums amounts as stored.
+    public Map<String, BigDecimal> getSummary(String currency) {
+        RateSnapshot snapshot = currency != null ? currencyService.currentSnapshot() : null;
+        Map<BudgetItem.TransactionType, CurrencyTotals> totals =
+                groupByType(rollupService.sumByTypeAndCurrency());
+        BigDecimal income = total(totals.get(BudgetItem.TransactionType.INCOME), currency, snapshot);
+        BigDecimal expenses = total(totals.get(BudgetItem.TransactionType.EXPENSE), currency, snapshot);
 
-        BigDecimal income = budgetItemRepository.calculateIncomeForPeriod(start, end);
-        BigDecimal expenses = budgetItemRepository.calculateExpensesForPeriod(start, end);
+        Map<String, BigDecimal> summary = new HashMap<>();
+        summary.put("totalIncome", income);
+        summary.put("totalExpenses", expenses);
+        summary.put("balance", income.subtract(expenses));
+        return summary;
+    }
+
+    public Map<String, BigDecimal> getMonthlyBreakdown(int year, int month, String currency) {
+        RateSnapshot snapshot = currency != null ? currencyService.currentSnapshot() : null;
+        Map<BudgetItem.TransactionType, CurrencyTotals> totals =
+                groupByType(rollupService.sumByTypeAndCurrencyForMonth(year, month));
+        BigDecimal income = total(totals.get(BudgetItem.TransactionType.INCOME), currency, snapshot);
+        BigDecimal expenses = total(totals.get(BudgetItem.TransactionType.EXPENSE), currency, snapshot);
 
         Map<String, BigDecimal> breakdown = new HashMap<>();
         breakdown.put("income", income);
         breakdown.put("expenses", expenses);
         breakdown.put("balance", income.subtract(expenses));
-
         return breakdown;
     }
 
-    public Map<String, BigDecimal> getCategoryBreakdown(BudgetItem.TransactionType type) {
-        List<Object[]> results = budgetItemRepository.sumByCategory(type);
-        Map<String, BigDecimal> breakdown = new HashMap<>();
-        for (Object[] row : results) {
-            breakdown.put(((BudgetItem.BudgetCategory) row[0]).name(), (BigDecimal) row[1]);
+    public Map<String, BigDecimal> getCategoryBreakdown(BudgetItem.TransactionType type, String currency) {
+        RateSnapshot snapshot = currencyService.currentSnapshot();
+        Map<String, CurrencyTotals> byCategory = new HashMap<>();
+        for (Object[] row : rollupService.sumByCategoryAndCurrency(type)) {
+            String category = ((BudgetItem.BudgetCategory) row[0]).name();
+            byCategory.computeIfAbsent(category, k -> new CurrencyTotals()).add((String) row[1], (BigDecimal) row[2]);
         }
+        Map<String, BigDecimal> breakdown = new HashMap<>();
+        byCategory.forEach((category, totals) -> breakdown.put(category, totals.in(currency, snapshot)));
         return breakdown;
     }
 
+    private static BudgetItem copyOf(BudgetItem item) {
+        BudgetItem copy = new BudgetItem();
+        copy.setId(item.getId());
+        copy.setName(item.getName());
+        copy.setCategory(item.getCategory());
+        copy.setTransactionType(item.getTransactionType());
+        copy.setAmount(item.getAmount());
+        copy.setCurrency(item.getCurrency());
+        copy.setTransactionDate(item.getTransactionDate());
+        copy.setCreatedAt(item.getCreatedAt());
+        copy.setUpdatedAt(item.getUpdatedAt());
+        copy.setNotes(item.getNotes());
+        copy.setRecurring(item.isRecurring());
+        copy.setRecurrenceFrequency(item.getRecurrenceFrequency());
+        return copy;
+    }
+
+    private static BigDecimal total(CurrencyTotals totals, String currency, RateSnapshot snapshot) {
+        if (currency != null) {
+            return totals.in(currency, snapshot);
+        }
+        return totals.getByCurrency().values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private Map<BudgetItem.TransactionType, CurrencyTotals> groupByType(List<Object[]> rows) {
+        Map<BudgetItem.TransactionType, CurrencyTotals> totals = new EnumMap<>(BudgetItem.TransactionType.class);
+        for (BudgetItem.TransactionType type : BudgetItem.TransactionType.values()) {
+            totals.put(type, new CurrencyTotals());
+        }
+        for (Object[] row : rows) {
+            totals.get((BudgetItem.TransactionType) row[0]).add((String) row[1], (BigDecimal) row[2]);
+        }
+        return totals;
+    }
+
     public List<BudgetItem> getRecurringItems() {
         return budgetItemRepository.findByRecurringTrue();
     }
@@ -0,0 +1,279 @@
+package com.pankaj.budgetapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pankaj.budgetapp.entity.BudgetItem;
+import com.pankaj.budgetapp.entity.Transaction;
+import com.pankaj.budgetapp.event.BudgetItemEvent;
+import com.pankaj.budgetapp.event.TransactionEvent;
+import com.pankaj.budgetapp.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk inserts of transactions and budget items from a JSON array or NDJSON body.
+ * Rows are parsed and validated one at a time as the body streams in, and valid rows are
+ * persisted in chunks of {@code bulk.chunk-size}, each in its own transaction and flushed as
+ * JDBC batches. A bad row is reported and skipped; a chunk that fails to commit is reported
+ * row by row and the rest of the body is still processed. Read models reload once at the end.
+ */
+@Service
+public class BulkIngestService {
+
+    // The response lists at most this many row errors; the counts are always complete
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final TypeReference<Map<String, Object>> ROW_TYPE = new TypeReference<>() {};
+
+    private final TransactionRepository transactionRepository;
+    private final BudgetRollupService rollupService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    public static class RowError {
+        private final int row;
+        private final String error;
+
+        RowError(int row, String error) {
+            this.row = row;
+            this.error = error;
+        }
+
+        // Zero-based position of the row in the request body
+        public int getRow() { return row; }
+        public String getError() { return error; }
+    }
+
+    public static class Result {
+        private int received;
+        private int inserted;
+        private int failed;
+        private int chunks;
+        private long elapsedMs;
+        private String fatalError;
+        private boolean errorsTruncated;
+        private final List<RowError> errors = new ArrayList<>();
+
+        public int getReceived() { return received; }
+        public int getInserted() { return inserted; }
+        public int getFailed() { return failed; }
+        public int getChunks() { return chunks; }
+        public long getElapsedMs() { return elapsedMs; }
+
+        public long getRowsPerSecond() {
+            return elapsedMs > 0 ? inserted * 1000L / elapsedMs : inserted;
+        }
+
+        // Set when the body itself is malformed; rows before that point were still processed
+        public String getFatalError() { return fatalError; }
+        public boolean isErrorsTruncated() { return errorsTruncated; }
+        public List<RowError> getErrors() { return errors; }
+
+        void fail(int row, String error) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(row, error));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+    }
+
+    // A validated entity with its position in the body
+    private static class Row<T> {
+        private final int index;
+        private final T entity;
+
+        Row(int index, T entity) {
+            this.index = index;
+            this.entity = entity;
+        }
+    }
+
+    private interface ChunkWriter<T> {
+        // Persists the chunk inside a transaction; returns the number of rows inserted
+        int write(List<Row<T>> chunk, Result result);
+    }
+
+    @Autowired
+    public BulkIngestService(TransactionRepository transactionRepository,
+                             BudgetRollupService rollupService,
+                             EntityManager entityManager,
+                             TransactionTemplate transactionTemplate,
+                             ObjectMapper objectMapper,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${bulk.chunk-size:1000}") int chunkSize) {
+        this.transactionRepository = transactionRepository;
+        this.rollupService = rollupService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    public Result ingestTransactions(InputStream body) throws IOException {
+        // Ids must be unique across the whole request, not just within a chunk
+        Set<String> seenIds = new HashSet<>();
+        Result result = ingest(body, payload -> {
+            Transaction tx = TransactionService.fromPayload(payload);
+            if (tx.getAmount() == null) {
+                throw new IllegalArgumentException("amount is required");
+            }
+            if (tx.getCategory() == null || tx.getCategory().isBlank()) {
+                throw new IllegalArgumentException("category is required");
+            }
+            if (tx.getId() == null) {
+                tx.setId(UlidGenerator.next());
+            } else if (!seenIds.add(tx.getId())) {
+                throw new IllegalArgumentException("duplicate id in request: " + tx.getId());
+            }
+            return tx;
+        }, this::writeTransactions);
+        if (result.inserted > 0) {
+            eventPublisher.publishEvent(TransactionEvent.bulkImported());
+        }
+        return result;
+    }
+
+    public Result ingestBudgetItems(InputStream body) throws IOException {
+        Result result = ingest(body, payload -> {
+            BudgetItem item = objectMapper.convertValue(payload, BudgetItem.class);
+            if (item.getName() == null || item.getName().isBlank()) {
+                throw new IllegalArgumentException("name is required");
+            }
+            if (item.getCategory() == null) {
+                throw new IllegalArgumentException("category is required");
+            }
+            if (item.getTransactionType() == null) {
+                throw new IllegalArgumentException("transactionType is required");
+            }
+            if (item.getAmount() == null) {
+                throw new IllegalArgumentException("amount is required");
+            }
+            item.setId(null);
+            item.setCreatedAt(LocalDateTime.now());
+            if (item.getTransactionDate() == null) {
+                item.setTransactionDate(LocalDate.now());
+            }
+            return item;
+        }, this::writeBudgetItems);
+        // Inserted items bypass BudgetService, so refresh the rollups in one pass
+        if (result.inserted > 0) {
+            rollupService.rebuild();
+            eventPublisher.publishEvent(BudgetItemEvent.bulkImported());
+        }
+        return result;
+    }
+
+    private <T> Result ingest(InputStream body, Function<Map<String, Object>, T> validate,
+                              ChunkWriter<T> writer) throws IOException {
+        long start = System.nanoTime();
+        Result result = new Result();
+        List<Row<T>> chunk = new ArrayList<>(chunkSize);
+        // A top-level array is unwrapped; NDJSON is read as a sequence of root values
+        try (MappingIterator<Map<String, Object>> rows = objectMapper.readerFor(ROW_TYPE).readValues(body)) {
+            while (true) {
+                int index = result.received;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    Map<String, Object> payload = rows.nextValue();
+                    result.received++;
+                    chunk.add(new Row<>(index, validate.apply(payload)));
+                } catch (JsonMappingException e) {
+                    // The row is well-formed JSON but not an object; the iterator skips past it
+                    result.received++;
+                    result.fail(index, e.getOriginalMessage());
+                } catch (JsonProcessingException e) {
+                    result.fatalError = "Malformed input after row " + index + ": " + e.getOriginalMessage();
+                    break;
+                } catch (RuntimeException e) {
+                    result.fail(index, e.getMessage());
+                }
+                if (chunk.size() >= chunkSize) {
+                    flushChunk(chunk, writer, result);
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            flushChunk(chunk, writer, result);
+        }
+        result.elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        return result;
+    }
+
+    private <T> void flushChunk(List<Row<T>> chunk, ChunkWriter<T> writer, Result result) {
+        result.chunks++;
+        try {
+            Integer inserted = transactionTemplate.execute(status -> writer.write(chunk, result));
+            result.inserted += inserted != null ? inserted : 0;
+        } catch (RuntimeException e) {
+            // The whole chunk rolled back; rows already reported as duplicates stay counted once
+            String message = "chunk rolled back: " + rootMessage(e);
+            for (Row<T> row : chunk) {
+                if (row.entity != null) {
+                    result.fail(row.index, message);
+                }
+            }
+        } finally {
+            chunk.clear();
+        }
+    }
+
+    private int writeTransactions(List<Row<Transaction>> chunk, Result result) {
+        Set<String> existing = new HashSet<>(transactionRepository.findExistingIds(
+                chunk.stream().map(row -> row.entity.getId()).collect(Collectors.toList())));
+        int inserted = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            Row<Transaction> row = chunk.get(i);
+            if (existing.contains(row.entity.getId())) {
+                result.fail(row.index, "id already exists: " + row.entity.getId());
+                chunk.set(i, new Row<>(row.index, null));
+                continue;
+            }
+            entityManager.persist(row.entity);
+            inserted++;
+        }
+        entityManager.flush();
+        return inserted;
+    }
+
+    private int writeBudgetItems(List<Row<BudgetItem>> chunk, Result result) {
+        for (Row<BudgetItem> row : chunk) {
+            entityManager.persist(row.entity);
+        }
+        entityManager.flush();
+        return chunk.size();
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,235 @@
+package com.pankaj.budgetapp.service;
+
+import com.pankaj.budgetapp.entity.ChangeLogEntry;
+import com.pankaj.budgetapp.entity.ChangeLogHead;
+import com.pankaj.budgetapp.event.AssetEvent;
+import com.pankaj.budgetapp.event.SettingsEvent;
+import com.pankaj.budgetapp.event.TransactionEvent;
+import com.pankaj.budgetapp.repository.ChangeLogHeadRepository;
+import com.pankaj.budgetapp.repository.ChangeLogRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Change log behind delta sync. Every write to a synced table (transactions, assets, settings)
+ * is appended with the next sequence number; deletes are kept as tombstones and bulk rewrites as
+ * a RESET of the whole collection. Appends run before commit, in the writer's own transaction:
+ * the sequence comes from the change_log_head row, whose lock is held until that transaction
+ * ends, so an entry commits or rolls back with its change and sequence order is commit order.
+ * A reader that has seen sequence N has seen every change up to N.
+ *
+ * Writers that publish outside a transaction have already committed when the entry is appended.
+ * If that append fails, or the process dies first, the change is not in the log; the resync
+ * floor is then raised and pulls from older cursors get everything.
+ */
+@Service
+public class ChangeLogService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeLogService.class);
+
+    public static final String ALL = "*";
+
+    private final ChangeLogRepository changeLogRepository;
+    private final ChangeLogHeadRepository headRepository;
+    // Joins the writer's transaction, or starts one for writers that published outside any
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate requiresNew;
+    // A change committed without its entry and the floor has not been raised for it yet
+    private volatile boolean resyncPending;
+
+    /** What changed after a cursor, as entity ids per collection. */
+    public static class Delta {
+        private final long since;
+        private final long cursor;
+        private final Set<ChangeLogEntry.EntityType> resets = EnumSet.noneOf(ChangeLogEntry.EntityType.class);
+        private final Map<ChangeLogEntry.EntityType, List<String>> upserted = new EnumMap<>(ChangeLogEntry.EntityType.class);
+        private final Map<ChangeLogEntry.EntityType, List<String>> deleted = new EnumMap<>(ChangeLogEntry.EntityType.class);
+
+        Delta(long since, long cursor) {
+            this.since = since;
+            this.cursor = cursor;
+            for (ChangeLogEntry.EntityType type : ChangeLogEntry.EntityType.values()) {
+                upserted.put(type, new ArrayList<>());
+                deleted.put(type, new ArrayList<>());
+            }
+        }
+
+        public long getSince() { return since; }
+        // Pass as since on the next pull
+        public long getCursor() { return cursor; }
+        // The collection was rewritten in bulk; send all of it
+        public boolean isReset(ChangeLogEntry.EntityType type) { return resets.contains(type); }
+        public List<String> getUpserted(ChangeLogEntry.EntityType type) { return upserted.get(type); }
+        public List<String> getDeleted(ChangeLogEntry.EntityType type) { return deleted.get(type); }
+    }
+
+    @Autowired
+    public ChangeLogService(ChangeLogRepository changeLogRepository, ChangeLogHeadRepository headRepository,
+                            PlatformTransactionManager transactionManager) {
+        this.changeLogRepository = changeLogRepository;
+        this.headRepository = headRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate.executeWithoutResult(status -> {
+            ChangeLogHead head = headRepository.findById(ChangeLogHead.ID).orElse(null);
+            if (head == null) {
+                head = headRepository.save(new ChangeLogHead(changeLogRepository.findMaxSeq()));
+            }
+            // New head, or the last run did not stop cleanly: appends made after a commit may be lost
+            if (!head.isCleanShutdown()) {
+                headRepository.raiseFloor();
+            }
+            headRepository.setCleanShutdown(false);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (resyncPending) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> headRepository.setCleanShutdown(true));
+        } catch (RuntimeException e) {
+            log.warn("Could not mark the change log as cleanly shut down", e);
+        }
+    }
+
+    // Highest committed sequence number
+    public long getCursor() {
+        Long seq = headRepository.findSeq();
+        return seq != null ? seq : 0L;
+    }
+
+    /**
+     * True if a client at {@code since} may have missed a change that never reached the log and
+     * must replace its data with a full pull. Check before reading the cursor for that pull.
+     */
+    public boolean requiresResync(long since) {
+        if (resyncPending) {
+            raiseFloor();
+        }
+        if (resyncPending) {
+            return true;
+        }
+        Long floor = headRepository.findResyncFloor();
+        return floor != null && since < floor;
+    }
+
+    // Changes in (since, cursor]; the cursor is read first so later commits wait for the next pull
+    public Delta changesSince(long since) {
+        long cursor = getCursor();
+        Delta delta = new Delta(since, cursor);
+        for (ChangeLogEntry entry : changeLogRepository.findBySeqGreaterThanAndSeqLessThanEqualOrderBySeq(since, cursor)) {
+            switch (entry.getOperation()) {
+                case RESET -> delta.resets.add(entry.getEntityType());
+                case DELETE -> delta.deleted.get(entry.getEntityType()).add(entry.getEntityId());
+                default -> delta.upserted.get(entry.getEntityType()).add(entry.getEntityId());
+            }
+        }
+        return delta;
+    }
+
+    // Ids deleted after since; a client at that cursor has not seen those deletions yet
+    public Set<String> deletedSince(ChangeLogEntry.EntityType type, long since) {
+        return Set.copyOf(changeLogRepository.findIdsSince(since, type, ChangeLogEntry.Operation.DELETE));
+    }
+
+    @Order(DataVersions.READ_MODEL_ORDER)
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onTransactionEvent(TransactionEvent event) {
+        if (event.getKind() == TransactionEvent.Kind.BULK_IMPORTED) {
+            record(ChangeLogEntry.EntityType.TRANSACTION, ALL, ChangeLogEntry.Operation.RESET);
+        } else if (event.getTransaction() != null && event.getTransaction().getId() != null) {
+            record(ChangeLogEntry.EntityType.TRANSACTION, event.getTransaction().getId(),
+                    event.getKind() == TransactionEvent.Kind.DELETED
+                            ? ChangeLogEntry.Operation.DELETE : ChangeLogEntry.Operation.UPSERT);
+        }
+    }
+
+    @Order(DataVersions.READ_MODEL_ORDER)
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onAssetEvent(AssetEvent event) {
+        if (event.getKind() == AssetEvent.Kind.BULK_IMPORTED) {
+            record(ChangeLogEntry.EntityType.ASSET, ALL, ChangeLogEntry.Operation.RESET);
+        } else if (event.getAsset() != null && event.getAsset().getId() != null) {
+            record(ChangeLogEntry.EntityType.ASSET, event.getAsset().getId().toString(),
+                    event.getKind() == AssetEvent.Kind.DELETED
+                            ? ChangeLogEntry.Operation.DELETE : ChangeLogEntry.Operation.UPSERT);
+        }
+    }
+
+    @Order(DataVersions.READ_MODEL_ORDER)
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onSettingsEvent(SettingsEvent event) {
+        if (event.getKey() == null) {
+            record(ChangeLogEntry.EntityType.SETTING, ALL, ChangeLogEntry.Operation.RESET);
+        } else {
+            record(ChangeLogEntry.EntityType.SETTING, event.getKey(), ChangeLogEntry.Operation.UPSERT);
+        }
+    }
+
+    private void record(ChangeLogEntry.EntityType type, String id, ChangeLogEntry.Operation operation) {
+        // Inside the writer's transaction a failed append rolls the change back with it
+        boolean inWriterTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        try {
+            transactionTemplate.executeWithoutResult(status -> append(type, id, operation));
+        } catch (RuntimeException e) {
+            if (inWriterTransaction) {
+                throw e;
+            }
+            log.error("Failed to record {} of {} {}; clients will resync", operation, type, id, e);
+            resyncPending = true;
+            raiseFloor();
+        }
+    }
+
+    private void append(ChangeLogEntry.EntityType type, String id, ChangeLogEntry.Operation operation) {
+        if (headRepository.increment() == 0) {
+            throw new IllegalStateException("change_log_head row is missing");
+        }
+        long seq = headRepository.findSeq();
+        changeLogRepository.save(new ChangeLogEntry(seq, type, id, operation));
+        if (operation == ChangeLogEntry.Operation.RESET) {
+            // Anyone behind a reset gets the whole collection, so older upserts are moot.
+            // Tombstones stay: pushes from stale clients must not resurrect deleted rows.
+            changeLogRepository.deleteOlderOfTypeAndOperation(type, ChangeLogEntry.Operation.UPSERT, seq);
+            changeLogRepository.deleteSuperseded(type, ALL, seq);
+        } else {
+            changeLogRepository.deleteSuperseded(type, id, seq);
+        }
+    }
+
+    // Own transaction: the failed append may have been the caller's
+    private void raiseFloor() {
+        try {
+            requiresNew.executeWithoutResult(status -> headRepository.raiseFloor());
+            resyncPending = false;
+        } catch (RuntimeException e) {
+            log.error("Failed to raise the change log resync floor", e);
+        }
+    }
+}
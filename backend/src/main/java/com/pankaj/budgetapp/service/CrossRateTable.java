@@ -0,0 +1,156 @@
+package com.pankaj.budgetapp.service;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Dense cross-rate matrix built once per rate refresh.
+ * Currency codes are interned to small ints; {@code matrix[from * n + to]} is the amount of
+ * {@code to} bought by one unit of {@code from}, so any base and any pair is a single array read.
+ */
+public final class CrossRateTable {
+
+    public static final int UNKNOWN = -1;
+
+    private final String[] codes;
+    private final Map<String, Integer> index;
+    private final double[] matrix;
+    private final Map<String, Double>[] rows;
+
+    @SuppressWarnings("unchecked")
+    public CrossRateTable(Map<String, Double> rates) {
+        int n = rates.size();
+        String[] interned = new String[n];
+        this.index = new HashMap<>(n * 2);
+        double[] baseRates = new double[n];
+        int i = 0;
+        for (Map.Entry<String, Double> e : rates.entrySet()) {
+            String code = e.getKey().toUpperCase();
+            Double v = e.getValue();
+            if (index.containsKey(code) || v == null || v <= 0) {
+                continue;
+            }
+            interned[i] = code;
+            baseRates[i] = v;
+            index.put(code, i);
+            i++;
+        }
+        n = i;
+        this.codes = Arrays.copyOf(interned, n);
+
+        this.matrix = new double[n * n];
+        for (int from = 0; from < n; from++) {
+            int row = from * n;
+            for (int to = 0; to < n; to++) {
+                matrix[row + to] = baseRates[to] / baseRates[from];
+            }
+        }
+
+        this.rows = new Map[n];
+        for (int from = 0; from < n; from++) {
+            rows[from] = new RowView(from);
+        }
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    public String code(int idx) {
+        return codes[idx];
+    }
+
+    // Index of a currency code, or UNKNOWN. Only upper-cases when the exact lookup misses.
+    public int indexOf(String code) {
+        if (code == null) {
+            return UNKNOWN;
+        }
+        Integer idx = index.get(code);
+        if (idx == null) {
+            idx = index.get(code.toUpperCase());
+        }
+        return idx == null ? UNKNOWN : idx;
+    }
+
+    public double rate(int from, int to) {
+        return matrix[from * size() + to];
+    }
+
+    public double convert(int from, int to, double amount) {
+        return amount * matrix[from * size() + to];
+    }
+
+    /**
+     * All rates relative to {@code base} as a read-only view over one matrix row,
+     * or an empty map if the base is unknown.
+     */
+    public Map<String, Double> row(String base) {
+        int idx = indexOf(base);
+        return idx == UNKNOWN ? Collections.emptyMap() : rows[idx];
+    }
+
+    private final class RowView extends AbstractMap<String, Double> {
+        private final int from;
+
+        RowView(int from) {
+            this.from = from;
+        }
+
+        @Override
+        public int size() {
+            return codes.length;
+        }
+
+        @Override
+        public Double get(Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            int to = indexOf((String) key);
+            return to == UNKNOWN ? null : rate(from, to);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && indexOf((String) key) != UNKNOWN;
+        }
+
+        @Override
+        public Set<Map.Entry<String, Double>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return RowView.this.size();
+                }
+
+                @Override
+                public Iterator<Map.Entry<String, Double>> iterator() {
+                    return new Iterator<>() {
+                        private int to = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return to < RowView.this.size();
+                        }
+
+                        @Override
+                        public Map.Entry<String, Double> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            int current = to++;
+                            return new SimpleImmutableEntry<>(codes[current], rate(from, current));
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
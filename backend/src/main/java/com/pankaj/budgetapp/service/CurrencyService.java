@@ -1,31 +1,82 @@
 package com.pankaj.budgetapp.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pankaj.budgetapp.event.RateSnapshotEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import jakarta.annotation.PostConstruct;
-import java.util.Collections;
-import java.util.HashMap;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDate;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class CurrencyService {
 
-    private final RestTemplate rest = new RestTemplate();
-    private final ObjectMapper mapper = new ObjectMapper();
+    // Rates are always fetched against this base and rebased locally for other currencies
+    private static final String BASE = "USD";
+    // Older snapshots are still served, but trigger a background refresh
+    private static final long STALE_AFTER_MS = 30 * 1000;
+    // Minimum gap between request-triggered refresh attempts, so a dead provider is not hammered
+    private static final long RETRY_AFTER_MS = 10 * 1000;
 
-    private Map<String, String> symbols = Collections.synchronizedMap(new HashMap<>());
-    private Map<String, Double> latestRates = Collections.synchronizedMap(new HashMap<>());
-    private String base = "USD";
-    private long lastFetched = 0L;
+    private final RateProviderChain providerChain;
+    private final HistoricalRateStore historicalRateStore;
+    private final RateSnapshotStore snapshotStore;
+    private final ApplicationEventPublisher eventPublisher;
 
+    private final AtomicReference<RateSnapshot> snapshot = new AtomicReference<>(RateSnapshot.EMPTY);
+    // Single-flight: at most one refresh runs at a time, concurrent callers share its future
+    private final AtomicReference<CompletableFuture<RateSnapshot>> inFlight = new AtomicReference<>();
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "fx-rate-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile Map<String, String> symbols = Map.of();
+    private volatile long lastAttemptAt = 0L;
+
+    public CurrencyService(RateProviderChain providerChain,
+                           HistoricalRateStore historicalRateStore,
+                           RateSnapshotStore snapshotStore,
+                           ApplicationEventPublisher eventPublisher) {
+        this.providerChain = providerChain;
+        this.historicalRateStore = historicalRateStore;
+        this.snapshotStore = snapshotStore;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Start from the last persisted snapshot; the remote refresh waits for warmUp()
     @PostConstruct
     public void init() {
-        fetchSymbols();
-        fetchLatestRates(base);
+        long start = System.nanoTime();
+        RateSnapshotStore.Stored stored = snapshotStore.load();
+        if (stored != null) {
+            snapshot.set(stored.getSnapshot());
+            symbols = stored.getSymbols();
+            System.out.printf("Loaded FX snapshot (%d rates, %d symbols) in %d ms%n",
+                    stored.getSnapshot().getTable().size(), stored.getSymbols().size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    // Remote warm-up runs in the background once the app is ready to serve
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        refreshExecutor.execute(this::fetchSymbols);
+        refreshAsync();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
     }
 
     // refresh symbols once a day
@@ -34,100 +85,122 @@ public class CurrencyService {
         fetchSymbols();
     }
 
-    // every 60 seconds for interactive fresh rates
-    @Scheduled(fixedRate = 60 * 1000)
+    // every 60 seconds for interactive fresh rates (the first fetch is done by warmUp)
+    @Scheduled(fixedRate = 60 * 1000, initialDelay = 60 * 1000)
     public void scheduledFetchRates() {
-        fetchLatestRates(base);
+        refreshAsync();
     }
 
     public Map<String, String> getSymbols() {
         return symbols;
     }
 
+    /**
+     * Current rate snapshot. Never blocks on the network: a stale snapshot is returned as-is
+     * and a background refresh is started (stale-while-revalidate).
+     */
+    public RateSnapshot currentSnapshot() {
+        RateSnapshot current = snapshot.get();
+        long age = current.ageMillis();
+        boolean stale = age < 0 || age > STALE_AFTER_MS;
+        if (stale && System.currentTimeMillis() - lastAttemptAt > RETRY_AFTER_MS) {
+            refreshAsync();
+        }
+        return current;
+    }
+
     public Map<String, Double> getLatestRates(String baseCurrency) {
-        if (!baseCurrency.equalsIgnoreCase(base) || (System.currentTimeMillis() - lastFetched) > 30 * 1000) {
-            fetchLatestRates(baseCurrency);
+        return rebase(currentSnapshot(), baseCurrency);
+    }
+
+    // Unknown bases fall back to the snapshot's own base, as before
+    public Map<String, Double> rebase(RateSnapshot snap, String baseCurrency) {
+        Map<String, Double> rates = snap.getRates(baseCurrency);
+        return rates.isEmpty() ? snap.getRates() : rates;
+    }
+
+    public double convert(String from, String to, double amount) {
+        return currentSnapshot().convert(from, to, amount);
+    }
+
+    /**
+     * Converts at the rates recorded for {@code date} in the local history store.
+     * Falls back to the current snapshot when that date has no history. Never touches the network.
+     */
+    public double convert(String from, String to, double amount, LocalDate date) {
+        return convert(currentSnapshot(), from, to, amount, date);
+    }
+
+    // As above, but falls back to the given snapshot so a caller's results share one set of rates
+    public double convert(RateSnapshot fallback, String from, String to, double amount, LocalDate date) {
+        if (date != null) {
+            double fromRate = historicalRateStore.rate(date, from);
+            double toRate = historicalRateStore.rate(date, to);
+            if (fromRate > 0 && toRate > 0) {
+                return amount / fromRate * toRate;
+            }
         }
-        if (!baseCurrency.equalsIgnoreCase(base)) {
-            Double baseRate = latestRates.get(baseCurrency.toUpperCase());
-            if (baseRate == null || baseRate == 0) {
-                return latestRates;
+        return fallback.convert(from, to, amount);
+    }
+
+    /**
+     * Starts a background refresh unless one is already running, in which case the
+     * running refresh is shared. The returned future completes with the published snapshot.
+     */
+    public CompletableFuture<RateSnapshot> refreshAsync() {
+        while (true) {
+            CompletableFuture<RateSnapshot> running = inFlight.get();
+            if (running != null) {
+                return running;
             }
-            Map<String, Double> adjusted = new HashMap<>();
-            for (Map.Entry<String, Double> e : latestRates.entrySet()) {
-                adjusted.put(e.getKey(), e.getValue() / baseRate);
+            CompletableFuture<RateSnapshot> next = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, next)) {
+                try {
+                    refreshExecutor.execute(() -> runRefresh(next));
+                } catch (RuntimeException ex) {
+                    inFlight.set(null);
+                    next.completeExceptionally(ex);
+                }
+                return next;
             }
-            return adjusted;
         }
-        return latestRates;
     }
 
-    public double convert(String from, String to, double amount) {
-        from = from.toUpperCase();
-        to = to.toUpperCase();
-        fetchLatestRates(base);
-        Double fromRate = latestRates.get(from);
-        Double toRate = latestRates.get(to);
-        if (fromRate == null || toRate == null) {
-            throw new IllegalArgumentException("Unknown currency code");
+    private void runRefresh(CompletableFuture<RateSnapshot> future) {
+        lastAttemptAt = System.currentTimeMillis();
+        try {
+            Map<String, Double> rates = fetchLatestRates(BASE);
+            if (rates != null) {
+                RateSnapshot fresh = new RateSnapshot(BASE, rates, System.currentTimeMillis());
+                snapshot.set(fresh);
+                historicalRateStore.record(LocalDate.now(), rates, true);
+                snapshotStore.save(fresh, symbols);
+                eventPublisher.publishEvent(new RateSnapshotEvent(fresh));
+            }
+            inFlight.set(null);
+            future.complete(snapshot.get());
+        } catch (Throwable t) {
+            inFlight.set(null);
+            future.completeExceptionally(t);
         }
-        return amount / fromRate * toRate;
     }
 
     private void fetchSymbols() {
         try {
-            String url = "https://api.exchangerate.host/symbols";
-            String resp = rest.getForObject(url, String.class);
-            JsonNode root = mapper.readTree(resp);
-            JsonNode symbolsNode = root.path("symbols");
-            Map<String, String> map = new HashMap<>();
-            symbolsNode.fieldNames().forEachRemaining(code -> {
-                JsonNode node = symbolsNode.path(code);
-                String desc = node.path("description").asText();
-                map.put(code, desc);
-            });
-            this.symbols = map;
+            this.symbols = providerChain.fetchSymbols();
+            snapshotStore.save(snapshot.get(), symbols);
         } catch (Exception ex) {
             System.err.println("Failed to fetch symbols: " + ex.getMessage());
         }
     }
 
-    private void fetchLatestRates(String baseCurrency) {
+    // Returns the fetched rates, or null if every provider failed
+    private Map<String, Double> fetchLatestRates(String baseCurrency) {
         try {
-            // Use exchangerate.host as primary (free, no API key required)
-            String url = "https://api.exchangerate.host/latest?base=" + baseCurrency.toUpperCase();
-            String resp = rest.getForObject(url, String.class);
-            JsonNode root = mapper.readTree(resp);
-            JsonNode ratesNode = root.path("rates");
-            Map<String, Double> map = new HashMap<>();
-            ratesNode.fieldNames().forEachRemaining(code -> {
-                double v = ratesNode.path(code).asDouble();
-                map.put(code, v);
-            });
-            this.latestRates = map;
-            this.base = baseCurrency.toUpperCase();
-            this.lastFetched = System.currentTimeMillis();
+            return providerChain.fetchLatestRates(baseCurrency);
         } catch (Exception ex) {
-            System.err.println("Failed to fetch rates from exchangerate.host: " + ex.getMessage());
-            // Fallback: try frankfurter.app (also free, no API key)
-            try {
-                String url = "https://api.frankfurter.app/latest?from=" + baseCurrency.toUpperCase();
-                String resp = rest.getForObject(url, String.class);
-                JsonNode root = mapper.readTree(resp);
-                JsonNode ratesNode = root.path("rates");
-                Map<String, Double> map = new HashMap<>();
-                ratesNode.fieldNames().forEachRemaining(code -> {
-                    double v = ratesNode.path(code).asDouble();
-                    map.put(code, v);
-                });
-                // Frankfurter does not include the base currency itself, so add it as 1.0
-                map.put(baseCurrency.toUpperCase(), 1.0);
-                this.latestRates = map;
-                this.base = baseCurrency.toUpperCase();
-                this.lastFetched = System.currentTimeMillis();
-            } catch (Exception ex2) {
-                System.err.println("Failed to fetch rates from frankfurter.app: " + ex2.getMessage());
-            }
+            System.err.println("Failed to fetch rates: " + ex.getMessage());
+            return null;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package com.pankaj.budgetapp.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sums kept per currency and converted to a reporting currency at the end,
+ * so a total costs one conversion per currency rather than one per row.
+ */
+public class CurrencyTotals {
+
+    public static final String DEFAULT_CURRENCY = "USD";
+
+    private final Map<String, BigDecimal> byCurrency = new HashMap<>();
+
+    public void add(String currency, BigDecimal amount) {
+        if (amount == null) {
+            return;
+        }
+        String code = currency == null || currency.isBlank() ? DEFAULT_CURRENCY : currency.toUpperCase();
+        byCurrency.merge(code, amount, BigDecimal::add);
+    }
+
+    public Map<String, BigDecimal> getByCurrency() {
+        return byCurrency;
+    }
+
+    /**
+     * Total in {@code target} using the given snapshot. Amounts already in the target
+     * currency are added exactly; the rest are converted and rounded to 2 decimals.
+     */
+    public BigDecimal in(String target, RateSnapshot snapshot) {
+        String code = target.toUpperCase();
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map.Entry<String, BigDecimal> e : byCurrency.entrySet()) {
+            if (e.getKey().equals(code)) {
+                total = total.add(e.getValue());
+            } else {
+                double converted = snapshot.convert(e.getKey(), code, e.getValue().doubleValue());
+                total = total.add(BigDecimal.valueOf(converted));
+            }
+        }
+        return total.setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,161 @@
+package com.pankaj.budgetapp.service;
+
+import com.pankaj.budgetapp.entity.Asset;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Builds the dashboard summary from four independent sections (assets, reminders, budget
+ * totals, current month), each one grouped query, run concurrently on a small pool.
+ */
+@Service
+public class DashboardService {
+
+    private static final int POOL_SIZE = 4;
+    // Stale-asset counts follow the clock and converted totals follow FX rates
+    private static final long MAX_AGE_MS = 60_000;
+
+    private final AssetService assetService;
+    private final BudgetService budgetService;
+    private final NotificationService notificationService;
+    private final ReadModelCache readModelCache;
+    private final AtomicInteger threadCount = new AtomicInteger();
+    private final ExecutorService executor = Executors.newFixedThreadPool(POOL_SIZE, r -> {
+        Thread t = new Thread(r, "dashboard-" + threadCount.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Autowired
+    public DashboardService(AssetService assetService,
+                            BudgetService budgetService,
+                            NotificationService notificationService,
+                            ReadModelCache readModelCache) {
+        this.assetService = assetService;
+        this.budgetService = budgetService;
+        this.notificationService = notificationService;
+        this.readModelCache = readModelCache;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The dashboard payload, optionally converted to {@code currency}. Served from the read model
+     * cache until budget items or assets change. With {@code debug}, the payload is rebuilt and a
+     * "timings" map holds each section's duration in ms and the total wall time.
+     * Throws IllegalArgumentException / IllegalStateException from currency conversion.
+     */
+    public Map<String, Object> getSummary(String currency, boolean debug) {
+        if (debug) {
+            return build(currency, true);
+        }
+        String key = "dashboard:" + (currency != null ? currency.toUpperCase() : "");
+        return readModelCache.get(key, EnumSet.of(DataVersions.Source.BUDGET_ITEMS, DataVersions.Source.ASSETS),
+                MAX_AGE_MS, () -> Collections.unmodifiableMap(build(currency, false)));
+    }
+
+    private Map<String, Object> build(String currency, boolean debug) {
+        long start = System.nanoTime();
+        Map<String, Long> timings = new LinkedHashMap<>();
+        LocalDate now = LocalDate.now();
+
+        CompletableFuture<Map<String, Object>> assets = section("assets", timings, this::assetSection);
+        CompletableFuture<Map<String, Object>> reminders = section("reminders", timings, this::reminderSection);
+        CompletableFuture<Map<String, Object>> totals = section("budget", timings,
+                () -> new HashMap<>(budgetService.getSummary(currency)));
+        CompletableFuture<Map<String, Object>> month = section("month", timings,
+                () -> monthSection(budgetService.getMonthlyBreakdown(now.getYear(), now.getMonthValue(), currency)));
+
+        Map<String, Object> summary = new HashMap<>();
+        try {
+            summary.putAll(assets.join());
+            summary.putAll(reminders.join());
+            summary.putAll(totals.join());
+            summary.putAll(month.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        if (currency != null) {
+            summary.put("currency", currency.toUpperCase());
+        }
+        if (debug) {
+            timings.put("total", (System.nanoTime() - start) / 1_000_000);
+            summary.put("timings", timings);
+        }
+        return summary;
+    }
+
+    private Map<String, Object> assetSection() {
+        Map<String, Long> assetsByType = new HashMap<>();
+        long totalAssets = 0;
+        BigDecimal netWorth = BigDecimal.ZERO;
+        for (Object[] row : assetService.summarizeByType()) {
+            long count = ((Number) row[1]).longValue();
+            if (count > 0) {
+                assetsByType.put(((Asset.AssetType) row[0]).name(), count);
+            }
+            totalAssets += count;
+            netWorth = netWorth.add((BigDecimal) row[2]);
+        }
+        Map<String, Object> section = new HashMap<>();
+        section.put("netWorth", netWorth);
+        section.put("assetsByType", assetsByType);
+        section.put("totalAssets", totalAssets);
+        return section;
+    }
+
+    // Every stale asset produces exactly one reminder, so both counts come from one query
+    private Map<String, Object> reminderSection() {
+        Map<String, Integer> counts = notificationService.getReminderCounts();
+        Map<String, Object> section = new HashMap<>();
+        section.put("staleAssetsCount", counts.get("total"));
+        section.put("reminderCount", counts.get("total"));
+        section.put("criticalReminders", counts.get("critical"));
+        return section;
+    }
+
+    private static Map<String, Object> monthSection(Map<String, BigDecimal> breakdown) {
+        Map<String, Object> section = new HashMap<>();
+        section.put("monthlyIncome", breakdown.get("income"));
+        section.put("monthlyExpenses", breakdown.get("expenses"));
+        section.put("monthlyBalance", breakdown.get("balance"));
+        return section;
+    }
+
+    private CompletableFuture<Map<String, Object>> section(String name, Map<String, Long> timings,
+                                                           Supplier<Map<String, Object>> work) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                return work.get();
+            } finally {
+                long ms = (System.nanoTime() - start) / 1_000_000;
+                synchronized (timings) {
+                    timings.put(name, ms);
+                }
+            }
+        }, executor);
+    }
+}
@@ -0,0 +1,148 @@
+package com.pankaj.budgetapp.service;
+
+import com.pankaj.budgetapp.event.AssetEvent;
+import com.pankaj.budgetapp.event.BudgetItemEvent;
+import com.pankaj.budgetapp.event.RateSnapshotEvent;
+import com.pankaj.budgetapp.event.SettingsEvent;
+import com.pankaj.budgetapp.event.TransactionEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory data version per source table, bumped by committed domain events.
+ * Versions restart at zero with the process, so tags built from them carry a boot id
+ * that keeps them from colliding with tags handed out before a restart.
+ *
+ * Each event bumps two counters. The current version moves before all other listeners run,
+ * so anything reacting to the same event (ReadModelCache lookups) sees the new version. The
+ * published version, which HTTP ETags are built from, moves only after the in-memory read
+ * models (listeners ordered at {@link #READ_MODEL_ORDER}) have applied the event; a tag never
+ * names data those read models do not serve yet. Unordered listeners run after both.
+ */
+@Service
+public class DataVersions {
+
+    public enum Source {
+        BUDGET_ITEMS,
+        ASSETS,
+        TRANSACTIONS,
+        SETTINGS,
+        // The live FX snapshot; not a table, but converted amounts depend on it
+        FX
+    }
+
+    /** Order for listeners that keep in-memory read models behind ETag'd endpoints current. */
+    public static final int READ_MODEL_ORDER = Ordered.LOWEST_PRECEDENCE - 200;
+    private static final int PUBLISH_ORDER = Ordered.LOWEST_PRECEDENCE - 100;
+
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLongArray versions = new AtomicLongArray(Source.values().length);
+    private final AtomicLongArray published = new AtomicLongArray(Source.values().length);
+
+    public long get(Source source) {
+        return versions.get(source.ordinal());
+    }
+
+    public long[] snapshot() {
+        long[] copy = new long[versions.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = versions.get(i);
+        }
+        return copy;
+    }
+
+    // Compact, restart-safe tag over the given sources, e.g. "lx3k9a2-4.0.12"
+    public String tag(Set<Source> sources) {
+        return tag(sources, versions);
+    }
+
+    // As tag(), from the published versions; use for anything handed to clients
+    public String publishedTag(Set<Source> sources) {
+        return tag(sources, published);
+    }
+
+    private String tag(Set<Source> sources, AtomicLongArray counters) {
+        StringBuilder sb = new StringBuilder(bootId).append('-');
+        boolean first = true;
+        for (Source source : Source.values()) {
+            if (sources.contains(source)) {
+                if (!first) {
+                    sb.append('.');
+                }
+                sb.append(counters.get(source.ordinal()));
+                first = false;
+            }
+        }
+        return sb.toString();
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBudgetItemEvent(BudgetItemEvent event) {
+        bump(Source.BUDGET_ITEMS);
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetEvent(AssetEvent event) {
+        bump(Source.ASSETS);
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionEvent(TransactionEvent event) {
+        bump(Source.TRANSACTIONS);
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSettingsEvent(SettingsEvent event) {
+        bump(Source.SETTINGS);
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener
+    public void onRateSnapshotEvent(RateSnapshotEvent event) {
+        bump(Source.FX);
+    }
+
+    @Order(PUBLISH_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publishBudgetItemEvent(BudgetItemEvent event) {
+        published.incrementAndGet(Source.BUDGET_ITEMS.ordinal());
+    }
+
+    @Order(PUBLISH_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publishAssetEvent(AssetEvent event) {
+        published.incrementAndGet(Source.ASSETS.ordinal());
+    }
+
+    @Order(PUBLISH_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publishTransactionEvent(TransactionEvent event) {
+        published.incrementAndGet(Source.TRANSACTIONS.ordinal());
+    }
+
+    @Order(PUBLISH_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publishSettingsEvent(SettingsEvent event) {
+        published.incrementAndGet(Source.SETTINGS.ordinal());
+    }
+
+    @Order(PUBLISH_ORDER)
+    @EventListener
+    public void publishRateSnapshotEvent(RateSnapshotEvent event) {
+        published.incrementAndGet(Source.FX.ordinal());
+    }
+
+    private void bump(Source source) {
+        versions.incrementAndGet(source.ordinal());
+    }
+}
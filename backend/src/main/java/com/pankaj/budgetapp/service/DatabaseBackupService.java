@@ -4,9 +4,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.pankaj.budgetapp.entity.Asset;
 import com.pankaj.budgetapp.entity.BudgetItem;
+import com.pankaj.budgetapp.event.AssetEvent;
+import com.pankaj.budgetapp.event.BudgetItemEvent;
 import com.pankaj.budgetapp.repository.AssetRepository;
 import com.pankaj.budgetapp.repository.BudgetItemRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,14 +30,21 @@ public class DatabaseBackupService {
 
     private final AssetRepository assetRepository;
     private final BudgetItemRepository budgetItemRepository;
+    private final BudgetRollupService budgetRollupService;
+    private final ApplicationEventPublisher eventPublisher;
     private final ObjectMapper objectMapper;
 
     private static final String BACKUP_DIRECTORY = System.getProperty("user.home") + "/budgetapp/backups/";
 
     @Autowired
-    public DatabaseBackupService(AssetRepository assetRepository, BudgetItemRepository budgetItemRepository) {
+    public DatabaseBackupService(AssetRepository assetRepository,
+                                 BudgetItemRepository budgetItemRepository,
+                                 BudgetRollupService budgetRollupService,
+                                 ApplicationEventPublisher eventPublisher) {
         this.assetRepository = assetRepository;
         this.budgetItemRepository = budgetItemRepository;
+        this.budgetRollupService = budgetRollupService;
+        this.eventPublisher = eventPublisher;
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
     }
@@ -97,6 +107,16 @@ public class DatabaseBackupService {
             }
         }
 
+        if (assetsImported > 0) {
+            eventPublisher.publishEvent(AssetEvent.bulkImported());
+        }
+
+        // Imported items bypass BudgetService, so refresh the rollups in one pass
+        if (budgetItemsImported > 0) {
+            budgetRollupService.rebuild();
+            eventPublisher.publishEvent(BudgetItemEvent.bulkImported());
+        }
+
         return new ImportResult(assetsImported, budgetItemsImported);
     }
 
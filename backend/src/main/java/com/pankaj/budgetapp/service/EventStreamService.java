@@ -0,0 +1,300 @@
+package com.pankaj.budgetapp.service;
+
+import com.pankaj.budgetapp.entity.BudgetItem;
+import com.pankaj.budgetapp.entity.Transaction;
+import com.pankaj.budgetapp.event.AssetEvent;
+import com.pankaj.budgetapp.event.BudgetItemEvent;
+import com.pankaj.budgetapp.event.RateSnapshotEvent;
+import com.pankaj.budgetapp.event.TransactionEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-sent event stream of committed changes. Each event has a sequence id; the last
+ * REPLAY_SIZE events are kept so a reconnecting client resumes from Last-Event-ID. If the
+ * id is too old (or a subscriber falls SUBSCRIBER_BUFFER events behind) it gets a "reset"
+ * event and should refetch. Writes to clients happen on a small dispatch pool, never on the
+ * thread that committed the change; totals are computed on their own thread so the database
+ * queries behind them never hold up delivery.
+ *
+ * Event types: transaction, budget-item, asset, totals, reminders, fx, reset.
+ */
+@Service
+public class EventStreamService {
+
+    private static final int REPLAY_SIZE = 1024;
+    private static final int SUBSCRIBER_BUFFER = 256;
+    private static final int MAX_SUBSCRIBERS = 64;
+    // EventSource reconnects on its own, with Last-Event-ID
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000;
+
+    private final DashboardService dashboardService;
+    private final Deque<StreamEvent> replay = new ArrayDeque<>(REPLAY_SIZE);
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean totalsPending = new AtomicBoolean();
+    private final AtomicInteger threadCount = new AtomicInteger();
+    private final ExecutorService dispatcher = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "sse-dispatch-" + threadCount.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+    // Single thread, so totals are computed one at a time and lastTotals/lastReminders stay ordered
+    private final ExecutorService totalsExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "sse-totals");
+        t.setDaemon(true);
+        return t;
+    });
+    private long sequence;
+    private volatile Map<String, Object> lastTotals;
+    private volatile Map<String, Object> lastReminders;
+
+    private static class StreamEvent {
+        private final long id;
+        private final String type;
+        private final Object data;
+
+        StreamEvent(long id, String type, Object data) {
+            this.id = id;
+            this.type = type;
+            this.data = data;
+        }
+    }
+
+    private class Subscriber {
+        private final SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        private final BlockingQueue<StreamEvent> queue = new ArrayBlockingQueue<>(SUBSCRIBER_BUFFER);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        void offer(StreamEvent event) {
+            if (!queue.offer(event)) {
+                // Too far behind: drop the backlog and tell the client to refetch
+                queue.clear();
+                queue.offer(new StreamEvent(event.id, "reset", Map.of("reason", "overflow")));
+            }
+            schedule();
+        }
+
+        void schedule() {
+            if (!closed && draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        void drain() {
+            try {
+                StreamEvent event;
+                while (!closed && (event = queue.poll()) != null) {
+                    SseEmitter.SseEventBuilder builder = SseEmitter.event().name(event.type).data(event.data);
+                    if (event.id > 0) {
+                        builder.id(Long.toString(event.id));
+                    }
+                    emitter.send(builder);
+                }
+            } catch (IOException | IllegalStateException ex) {
+                close();
+            } finally {
+                draining.set(false);
+            }
+            if (!closed && !queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        void heartbeat() {
+            dispatcher.execute(() -> {
+                try {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } catch (IOException | IllegalStateException ex) {
+                    close();
+                }
+            });
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+    }
+
+    @Autowired
+    public EventStreamService(DashboardService dashboardService) {
+        this.dashboardService = dashboardService;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(s -> s.emitter.complete());
+        dispatcher.shutdownNow();
+        totalsExecutor.shutdownNow();
+    }
+
+    /**
+     * Opens a stream. With {@code lastEventId}, events after it are replayed first, or a
+     * "reset" event is sent if they are no longer buffered.
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        if (subscribers.size() >= MAX_SUBSCRIBERS) {
+            throw new IllegalStateException("Too many event stream subscribers");
+        }
+        Subscriber subscriber = new Subscriber();
+        subscriber.emitter.onCompletion(subscriber::close);
+        subscriber.emitter.onTimeout(subscriber::close);
+        subscriber.emitter.onError(ex -> subscriber.close());
+        // Registering and replaying under the publish lock means nothing is missed or sent twice
+        synchronized (replay) {
+            if (lastEventId != null && lastEventId != sequence) {
+                StreamEvent oldest = replay.peekFirst();
+                // Ahead of us means the id came from before a restart
+                if (lastEventId > sequence || oldest == null || oldest.id > lastEventId + 1) {
+                    subscriber.offer(new StreamEvent(0, "reset", Map.of("reason", "expired")));
+                } else {
+                    for (StreamEvent event : replay) {
+                        if (event.id > lastEventId) {
+                            subscriber.offer(event);
+                        }
+                    }
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        return subscriber.emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public void publish(String type, Object data) {
+        synchronized (replay) {
+            StreamEvent event = new StreamEvent(++sequence, type, data);
+            if (replay.size() == REPLAY_SIZE) {
+                replay.removeFirst();
+            }
+            replay.addLast(event);
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    // Keeps idle connections open through proxies and picks up clock-driven reminder changes
+    @Scheduled(fixedRate = 15000)
+    public void heartbeat() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        subscribers.forEach(Subscriber::heartbeat);
+        scheduleTotals();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionEvent(TransactionEvent event) {
+        Transaction tx = event.getTransaction();
+        if (tx == null) {
+            publish("transaction", Map.of("op", event.getKind().name()));
+            return;
+        }
+        Map<String, Object> delta = new LinkedHashMap<>();
+        delta.put("op", event.getKind().name());
+        delta.put("id", tx.getId());
+        if (event.getKind() != TransactionEvent.Kind.DELETED) {
+            delta.put("date", tx.getDate());
+            delta.put("amount", tx.getAmount());
+            delta.put("currency", tx.getCurrency());
+            delta.put("category", tx.getCategory());
+            delta.put("type", tx.getType());
+        }
+        publish("transaction", delta);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBudgetItemEvent(BudgetItemEvent event) {
+        BudgetItem item = event.getItem();
+        Map<String, Object> delta = new LinkedHashMap<>();
+        delta.put("op", event.getKind().name());
+        if (item != null) {
+            delta.put("id", item.getId());
+            if (event.getKind() != BudgetItemEvent.Kind.DELETED) {
+                delta.put("date", item.getTransactionDate());
+                delta.put("amount", item.getAmount());
+                delta.put("currency", item.getCurrency());
+                delta.put("category", item.getCategory());
+                delta.put("type", item.getTransactionType());
+            }
+        }
+        publish("budget-item", delta);
+        scheduleTotals();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetEvent(AssetEvent event) {
+        Map<String, Object> delta = new LinkedHashMap<>();
+        delta.put("op", event.getKind().name());
+        if (event.getAsset() != null) {
+            delta.put("id", event.getAsset().getId());
+        }
+        publish("asset", delta);
+        scheduleTotals();
+    }
+
+    @EventListener
+    public void onRateSnapshotEvent(RateSnapshotEvent event) {
+        publish("fx", Map.of("base", event.getSnapshot().getBase(), "fetchedAt", event.getSnapshot().getFetchedAt()));
+    }
+
+    // Recomputes totals and reminder counts on the totals thread and publishes only what changed;
+    // publish() just queues the payload, the dispatch pool does the writes
+    private void scheduleTotals() {
+        if (subscribers.isEmpty() || !totalsPending.compareAndSet(false, true)) {
+            return;
+        }
+        totalsExecutor.execute(() -> {
+            totalsPending.set(false);
+            try {
+                Map<String, Object> summary = dashboardService.getSummary(null, false);
+                Map<String, Object> totals = pick(summary, "totalIncome", "totalExpenses", "balance",
+                        "monthlyIncome", "monthlyExpenses", "monthlyBalance", "netWorth");
+                if (!Objects.equals(totals, lastTotals)) {
+                    lastTotals = totals;
+                    publish("totals", totals);
+                }
+                Map<String, Object> reminders = pick(summary, "reminderCount", "criticalReminders", "staleAssetsCount");
+                if (!Objects.equals(reminders, lastReminders)) {
+                    lastReminders = reminders;
+                    publish("reminders", reminders);
+                }
+            } catch (RuntimeException ex) {
+                System.err.println("Failed to compute event stream totals: " + ex.getMessage());
+            }
+        });
+    }
+
+    private static Map<String, Object> pick(Map<String, Object> source, String... keys) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (String key : keys) {
+            result.put(key, source.get(key));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,38 @@
+package com.pankaj.budgetapp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// exchangerate.host (free, no API key required)
+@Component
+public class ExchangeRateHostProvider extends HttpRateProvider {
+
+    public ExchangeRateHostProvider(@Value("${fx.exchangerate-host.connect-timeout-ms:2000}") int connectTimeoutMs,
+                                    @Value("${fx.exchangerate-host.read-timeout-ms:4000}") int readTimeoutMs) {
+        super(connectTimeoutMs, readTimeoutMs);
+    }
+
+    @Override
+    public String getName() {
+        return "exchangerate-host";
+    }
+
+    @Override
+    public Map<String, Double> fetchLatestRates(String baseCurrency) throws Exception {
+        JsonNode root = getJson("https://api.exchangerate.host/latest?base=" + baseCurrency.toUpperCase());
+        return parseRates(root.path("rates"));
+    }
+
+    @Override
+    public Map<String, String> fetchSymbols() throws Exception {
+        JsonNode symbolsNode = getJson("https://api.exchangerate.host/symbols").path("symbols");
+        Map<String, String> map = new HashMap<>();
+        symbolsNode.fieldNames().forEachRemaining(code ->
+                map.put(code, symbolsNode.path(code).path("description").asText()));
+        return map;
+    }
+}
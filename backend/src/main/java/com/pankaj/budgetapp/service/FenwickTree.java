@@ -0,0 +1,63 @@
+package com.pankaj.budgetapp.service;
+
+/**
+ * Binary indexed tree over a fixed number of slots: point add and prefix/range sum in O(log n).
+ */
+public class FenwickTree {
+
+    private final long[] tree;
+
+    public FenwickTree(int size) {
+        this.tree = new long[size + 1];
+    }
+
+    // Builds the tree from point values in O(n)
+    public static FenwickTree fromValues(long[] values) {
+        FenwickTree t = new FenwickTree(values.length);
+        for (int i = 1; i <= values.length; i++) {
+            t.tree[i] += values[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= values.length) {
+                t.tree[parent] += t.tree[i];
+            }
+        }
+        return t;
+    }
+
+    public int size() {
+        return tree.length - 1;
+    }
+
+    public void add(int index, long delta) {
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    // Sum of slots [0, index]
+    public long prefix(int index) {
+        long sum = 0;
+        for (int i = Math.min(index + 1, tree.length - 1); i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    // Sum of slots [from, to], clamped to the tree bounds
+    public long range(int from, int to) {
+        from = Math.max(from, 0);
+        to = Math.min(to, size() - 1);
+        if (from > to) {
+            return 0;
+        }
+        return prefix(to) - (from > 0 ? prefix(from - 1) : 0);
+    }
+
+    public long[] toValues() {
+        long[] values = new long[size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = range(i, i);
+        }
+        return values;
+    }
+}
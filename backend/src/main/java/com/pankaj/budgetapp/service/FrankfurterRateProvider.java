@@ -0,0 +1,40 @@
+package com.pankaj.budgetapp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// frankfurter.app (ECB rates, free, no API key)
+@Component
+public class FrankfurterRateProvider extends HttpRateProvider {
+
+    public FrankfurterRateProvider(@Value("${fx.frankfurter.connect-timeout-ms:2000}") int connectTimeoutMs,
+                                   @Value("${fx.frankfurter.read-timeout-ms:4000}") int readTimeoutMs) {
+        super(connectTimeoutMs, readTimeoutMs);
+    }
+
+    @Override
+    public String getName() {
+        return "frankfurter";
+    }
+
+    @Override
+    public Map<String, Double> fetchLatestRates(String baseCurrency) throws Exception {
+        JsonNode root = getJson("https://api.frankfurter.app/latest?from=" + baseCurrency.toUpperCase());
+        Map<String, Double> map = parseRates(root.path("rates"));
+        // Frankfurter does not include the base currency itself, so add it as 1.0
+        map.put(baseCurrency.toUpperCase(), 1.0);
+        return map;
+    }
+
+    @Override
+    public Map<String, String> fetchSymbols() throws Exception {
+        JsonNode root = getJson("https://api.frankfurter.app/currencies");
+        Map<String, String> map = new HashMap<>();
+        root.fieldNames().forEachRemaining(code -> map.put(code, root.path(code).asText()));
+        return map;
+    }
+}
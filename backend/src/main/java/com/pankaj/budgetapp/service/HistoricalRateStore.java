@@ -0,0 +1,394 @@
+package com.pankaj.budgetapp.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local store of daily USD-based exchange rates, kept in one memory-mapped file.
+ *
+ * Layout: a fixed header (magic, version, first epoch-day, day count, currency table, slots
+ * per row) followed by one row per day with a double slot per currency. The position of any
+ * (date, currency) rate is computed directly, so lookups never scan. A rate of 0 means "not
+ * recorded". The file starts at the first day actually recorded and rows are only as wide as
+ * the currencies seen so far (rounded up to SLOT_STEP). Later days extend the file; an earlier
+ * day or more currencies than the rows hold rewrite it once into a wider or longer layout.
+ * Existing cells are only filled, never rewritten, except for today's row which follows the
+ * live refresh.
+ */
+@Service
+public class HistoricalRateStore {
+
+    private static final int MAGIC = 0x46584831; // "FXH1"
+    private static final int VERSION = 2;
+    private static final int MAX_CURRENCIES = 256;
+    private static final int CODE_BYTES = 4;
+    private static final int HEADER_BYTES = 2048;
+    private static final int SLOT_STEP = 16;
+    // Spare days mapped past the last recorded one so daily appends rarely remap
+    private static final int GROW_DAYS = 31;
+    // Weekends and holidays have no rates, so fall back to the closest earlier day within this window
+    private static final int MAX_LOOKBACK_DAYS = 7;
+
+    private static final int OFF_MAGIC = 0;
+    private static final int OFF_VERSION = 4;
+    private static final int OFF_FIRST_DAY = 8;
+    private static final int OFF_DAY_COUNT = 12;
+    private static final int OFF_CURRENCY_COUNT = 16;
+    private static final int OFF_SLOTS = 20;
+    private static final int OFF_CODES = 24;
+
+    @Value("${fx.history-file:${user.home}/budgetapp/data/fx_history.bin}")
+    private String historyFile;
+
+    private Path path;
+    private FileChannel channel;
+    // Replaced as a whole so lock-free readers always see a consistent mapping and geometry
+    private volatile Layout layout;
+    private volatile Map<String, Integer> currencyIndex = Map.of();
+    private final List<String> codes = new ArrayList<>();
+
+    private static final class Layout {
+        private final MappedByteBuffer buffer;
+        private final long firstEpochDay;
+        private final int slots;
+        private final int capacityDays;
+        private final int dayCount;
+
+        Layout(MappedByteBuffer buffer, long firstEpochDay, int slots, int capacityDays, int dayCount) {
+            this.buffer = buffer;
+            this.firstEpochDay = firstEpochDay;
+            this.slots = slots;
+            this.capacityDays = capacityDays;
+            this.dayCount = dayCount;
+        }
+
+        Layout withDayCount(int count) {
+            return new Layout(buffer, firstEpochDay, slots, capacityDays, count);
+        }
+
+        int offset(long day, int currencyIdx) {
+            return (int) (HEADER_BYTES + (day * slots + currencyIdx) * Double.BYTES);
+        }
+
+        long lastEpochDay() {
+            return firstEpochDay + dayCount - 1;
+        }
+    }
+
+    @PostConstruct
+    public synchronized void open() {
+        try {
+            path = Paths.get(historyFile).toAbsolutePath().normalize();
+            Files.createDirectories(path.getParent());
+            if (Files.exists(path) && !isCurrentFormat(path)) {
+                // The history is a cache of provider data; an unknown layout is rebuilt by refreshes and imports
+                System.out.println("Rate history file has an unknown format, starting a new one: " + path);
+                Files.delete(path);
+            }
+            boolean fresh = !Files.exists(path);
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            if (fresh) {
+                layout = new Layout(map(0), 0, 0, 0, 0);
+                writeHeader(layout);
+                return;
+            }
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int slots = buf.getInt(OFF_SLOTS);
+            codes.addAll(readCurrencyTable(buf));
+            currencyIndex = indexOf(codes);
+            int capacity = slots == 0 ? 0 : (int) ((channel.size() - HEADER_BYTES) / ((long) slots * Double.BYTES));
+            layout = new Layout(buf, buf.getInt(OFF_FIRST_DAY), slots, capacity, buf.getInt(OFF_DAY_COUNT));
+        } catch (IOException ex) {
+            System.err.println("Historical rate store disabled: " + ex.getMessage());
+            close();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        try {
+            if (layout != null) {
+                layout.buffer.force();
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException ex) {
+            System.err.println("Failed to close rate history file: " + ex.getMessage());
+        }
+        layout = null;
+        channel = null;
+    }
+
+    public boolean isAvailable() {
+        return layout != null;
+    }
+
+    /**
+     * USD-based rate for a currency on a date, falling back to the closest earlier recorded
+     * day within a week. Returns 0 when nothing is recorded.
+     */
+    public double rate(LocalDate date, String currency) {
+        Layout l = layout;
+        Integer idx = currencyIndex.get(currency);
+        if (idx == null) {
+            idx = currencyIndex.get(currency.toUpperCase());
+        }
+        // The index may already name a currency the (older) layout has no slot for
+        if (l == null || idx == null || idx >= l.slots) {
+            return 0;
+        }
+        long day = date.toEpochDay() - l.firstEpochDay;
+        if (day >= l.dayCount) {
+            day = l.dayCount - 1;
+        }
+        for (int back = 0; back <= MAX_LOOKBACK_DAYS && day - back >= 0; back++) {
+            double v = l.buffer.getDouble(l.offset(day - back, idx));
+            if (v > 0) {
+                return v;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Records USD-based rates for one day. Cells that already hold a rate are kept unless
+     * {@code overwrite} is set (used for today's row while the live snapshot keeps moving).
+     * Returns the number of cells written.
+     */
+    public synchronized int record(LocalDate date, Map<String, Double> rates, boolean overwrite) {
+        return recordAll(Map.of(date, rates), overwrite);
+    }
+
+    /**
+     * Bulk backfill: date -> (currency -> USD-based rate). Existing cells are never replaced.
+     * The layout is widened or extended once for the whole batch.
+     */
+    public synchronized int importHistory(Map<LocalDate, Map<String, Double>> history) {
+        int written = recordAll(history, false);
+        if (layout != null) {
+            layout.buffer.force();
+        }
+        return written;
+    }
+
+    public LocalDate getLastDate() {
+        Layout l = layout;
+        return l == null || l.dayCount == 0 ? null : LocalDate.ofEpochDay(l.lastEpochDay());
+    }
+
+    private int recordAll(Map<LocalDate, Map<String, Double>> byDate, boolean overwrite) {
+        if (layout == null) {
+            return 0;
+        }
+        long minDay = Long.MAX_VALUE;
+        long maxDay = Long.MIN_VALUE;
+        for (Map.Entry<LocalDate, Map<String, Double>> e : byDate.entrySet()) {
+            boolean any = false;
+            for (Map.Entry<String, Double> rate : e.getValue().entrySet()) {
+                if (rate.getValue() != null && rate.getValue() > 0 && internCurrency(rate.getKey()) >= 0) {
+                    any = true;
+                }
+            }
+            if (any) {
+                minDay = Math.min(minDay, e.getKey().toEpochDay());
+                maxDay = Math.max(maxDay, e.getKey().toEpochDay());
+            }
+        }
+        if (minDay == Long.MAX_VALUE) {
+            return 0;
+        }
+        try {
+            ensureLayout(minDay, maxDay);
+        } catch (IOException | IllegalStateException ex) {
+            System.err.println("Failed to grow rate history file: " + ex.getMessage());
+            return 0;
+        }
+        Layout l = layout;
+        int written = 0;
+        long lastDay = l.dayCount == 0 ? Long.MIN_VALUE : l.lastEpochDay();
+        for (Map.Entry<LocalDate, Map<String, Double>> e : byDate.entrySet()) {
+            long day = e.getKey().toEpochDay() - l.firstEpochDay;
+            for (Map.Entry<String, Double> rate : e.getValue().entrySet()) {
+                Double v = rate.getValue();
+                Integer idx = v != null && v > 0 ? currencyIndex.get(rate.getKey().toUpperCase()) : null;
+                if (idx == null) {
+                    continue;
+                }
+                int offset = l.offset(day, idx);
+                if (overwrite || l.buffer.getDouble(offset) <= 0) {
+                    l.buffer.putDouble(offset, v);
+                    written++;
+                }
+            }
+        }
+        writeCurrencyTable(l.buffer);
+        if (maxDay > lastDay) {
+            int count = (int) (maxDay - l.firstEpochDay + 1);
+            l.buffer.putInt(OFF_DAY_COUNT, count);
+            layout = l.withDayCount(count);
+        }
+        return written;
+    }
+
+    // Makes [minDay, maxDay] addressable with a slot for every interned currency
+    private void ensureLayout(long minDay, long maxDay) throws IOException {
+        Layout l = layout;
+        boolean empty = l.dayCount == 0;
+        long first = empty ? minDay : Math.min(l.firstEpochDay, minDay);
+        long last = empty ? maxDay : Math.max(l.lastEpochDay(), maxDay);
+        int slots = codes.size() <= l.slots ? l.slots : roundUp(codes.size());
+        int days = (int) (last - first + 1);
+        if ((long) days * slots * Double.BYTES > Integer.MAX_VALUE - HEADER_BYTES - (long) GROW_DAYS * slots * Double.BYTES) {
+            // A single mapping is limited to 2 GB
+            throw new IllegalStateException("rate history would exceed 2 GB");
+        }
+        if (first == l.firstEpochDay && slots == l.slots) {
+            if (days > l.capacityDays) {
+                l.buffer.force();
+                int capacity = days + GROW_DAYS;
+                layout = new Layout(map((long) capacity * slots * Double.BYTES), first, slots, capacity, l.dayCount);
+            }
+            return;
+        }
+        if (empty) {
+            int capacity = days + GROW_DAYS;
+            layout = new Layout(map((long) capacity * slots * Double.BYTES), first, slots, capacity, 0);
+            writeHeader(layout);
+            return;
+        }
+        rewrite(first, slots, days);
+    }
+
+    /**
+     * Copies every recorded cell into a new file starting at firstDay with the given row width,
+     * then swaps it in atomically. Old mappings stay valid for readers that still hold them.
+     */
+    private void rewrite(long firstDay, int slots, int days) throws IOException {
+        Layout old = layout;
+        long shift = old.firstEpochDay - firstDay;
+        int dayCount = old.dayCount == 0 ? 0 : (int) (old.lastEpochDay() - firstDay + 1);
+        int capacity = Math.max(days, dayCount) + GROW_DAYS;
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buf = out.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_BYTES + (long) capacity * slots * Double.BYTES);
+            Layout next = new Layout(buf, firstDay, slots, capacity, dayCount);
+            int copySlots = Math.min(old.slots, codes.size());
+            for (int d = 0; d < old.dayCount; d++) {
+                for (int c = 0; c < copySlots; c++) {
+                    double v = old.buffer.getDouble(old.offset(d, c));
+                    if (v > 0) {
+                        buf.putDouble(next.offset(d + shift, c), v);
+                    }
+                }
+            }
+            writeHeader(next);
+            buf.force();
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel.close();
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        layout = new Layout(channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()),
+                firstDay, slots, capacity, dayCount);
+    }
+
+    private static boolean isCurrentFormat(Path file) throws IOException {
+        if (Files.size(file) < HEADER_BYTES) {
+            return false;
+        }
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer header = in.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            return header.getInt(OFF_MAGIC) == MAGIC && header.getInt(OFF_VERSION) == VERSION;
+        }
+    }
+
+    private MappedByteBuffer map(long rowBytes) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + rowBytes);
+    }
+
+    private static int roundUp(int count) {
+        return (count + SLOT_STEP - 1) / SLOT_STEP * SLOT_STEP;
+    }
+
+    // Adds the code to the in-memory table; it reaches the file header with the next write
+    private int internCurrency(String code) {
+        String upper = code.toUpperCase();
+        Integer idx = currencyIndex.get(upper);
+        if (idx != null) {
+            return idx;
+        }
+        byte[] bytes = upper.getBytes(StandardCharsets.US_ASCII);
+        if (bytes.length == 0 || bytes.length > CODE_BYTES || codes.size() >= MAX_CURRENCIES) {
+            return -1;
+        }
+        codes.add(upper);
+        // Copy-on-write so lock-free readers always see a complete index
+        currencyIndex = indexOf(codes);
+        return codes.size() - 1;
+    }
+
+    private void writeHeader(Layout l) {
+        l.buffer.putInt(OFF_MAGIC, MAGIC);
+        l.buffer.putInt(OFF_VERSION, VERSION);
+        l.buffer.putInt(OFF_FIRST_DAY, (int) l.firstEpochDay);
+        l.buffer.putInt(OFF_DAY_COUNT, l.dayCount);
+        l.buffer.putInt(OFF_SLOTS, l.slots);
+        writeCurrencyTable(l.buffer);
+    }
+
+    private void writeCurrencyTable(MappedByteBuffer buf) {
+        for (int i = 0; i < codes.size(); i++) {
+            byte[] bytes = codes.get(i).getBytes(StandardCharsets.US_ASCII);
+            int offset = OFF_CODES + i * CODE_BYTES;
+            for (int b = 0; b < CODE_BYTES; b++) {
+                buf.put(offset + b, b < bytes.length ? bytes[b] : 0);
+            }
+        }
+        buf.putInt(OFF_CURRENCY_COUNT, codes.size());
+    }
+
+    private static List<String> readCurrencyTable(MappedByteBuffer buf) {
+        int count = buf.getInt(OFF_CURRENCY_COUNT);
+        List<String> table = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] bytes = new byte[CODE_BYTES];
+            int len = 0;
+            for (int b = 0; b < CODE_BYTES; b++) {
+                bytes[b] = buf.get(OFF_CODES + i * CODE_BYTES + b);
+                if (bytes[b] != 0) {
+                    len = b + 1;
+                }
+            }
+            table.add(new String(bytes, 0, len, StandardCharsets.US_ASCII));
+        }
+        return table;
+    }
+
+    private static Map<String, Integer> indexOf(List<String> table) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < table.size(); i++) {
+            index.put(table.get(i), i);
+        }
+        return index;
+    }
+}
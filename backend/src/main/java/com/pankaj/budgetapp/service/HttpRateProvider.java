@@ -0,0 +1,40 @@
+package com.pankaj.budgetapp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Base for JSON-over-HTTP providers. Each provider gets its own RestTemplate so
+ * connect/read timeouts can be tuned per provider.
+ */
+public abstract class HttpRateProvider implements RateProvider {
+
+    protected final RestTemplate rest;
+    protected final ObjectMapper mapper = new ObjectMapper();
+
+    protected HttpRateProvider(int connectTimeoutMs, int readTimeoutMs) {
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(connectTimeoutMs);
+        factory.setReadTimeout(readTimeoutMs);
+        this.rest = new RestTemplate(factory);
+    }
+
+    protected JsonNode getJson(String url) throws Exception {
+        String resp = rest.getForObject(url, String.class);
+        return mapper.readTree(resp);
+    }
+
+    protected Map<String, Double> parseRates(JsonNode ratesNode) {
+        Map<String, Double> map = new HashMap<>();
+        ratesNode.fieldNames().forEachRemaining(code -> map.put(code, ratesNode.path(code).asDouble()));
+        if (map.isEmpty()) {
+            throw new IllegalStateException(getName() + " returned no rates");
+        }
+        return map;
+    }
+}
@@ -0,0 +1,62 @@
+package com.pankaj.budgetapp.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Moves each id sequence past the highest id already in its table. Databases created before the
+ * numeric ids switched from IDENTITY columns to pooled sequences get fresh sequences starting at 1,
+ * which would collide with existing rows. Runs once the schema is up to date and before anything
+ * inserts (startup writers wait for ApplicationReadyEvent). Ids are allocated pooled-lo, so a
+ * sequence value is the first id of its block.
+ */
+@Service
+public class IdSequenceAligner {
+
+    private static final Map<String, String> SEQUENCES = new LinkedHashMap<>();
+
+    static {
+        SEQUENCES.put("budget_items", "budget_items_seq");
+        SEQUENCES.put("assets", "assets_seq");
+        SEQUENCES.put("budget_rollups", "budget_rollups_seq");
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // The factory is injected only so that schema creation/update has run first
+    @Autowired
+    public IdSequenceAligner(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void align() {
+        SEQUENCES.forEach((table, sequence) -> {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            long next = nextValue(sequence);
+            if (maxId != null && next <= maxId) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + 1));
+                System.out.println("Aligned " + sequence + " to start after " + table + " id " + maxId);
+            }
+        });
+    }
+
+    // The value the sequence hands out next, or 0 if it cannot be read
+    private long nextValue(String sequence) {
+        try {
+            Long value = jdbcTemplate.queryForObject(
+                    "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?",
+                    Long.class, sequence.toUpperCase());
+            return value != null ? value : 0L;
+        } catch (DataAccessException e) {
+            return 0L;
+        }
+    }
+}
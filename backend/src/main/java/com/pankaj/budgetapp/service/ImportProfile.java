@@ -0,0 +1,69 @@
+package com.pankaj.budgetapp.service;
+
+/**
+ * How to read one bank's statement export. Column fields name a CSV header (case-insensitive)
+ * or hold a zero-based column index when the file has no header. OFX files carry their own
+ * structure and signed amounts, so only the default category and currency apply to them.
+ */
+public class ImportProfile {
+
+    private String delimiter = ",";
+    private boolean hasHeader = true;
+    private String dateColumn = "date";
+    private String amountColumn = "amount";
+    // Banks that export debits and credits in separate columns; used when amountColumn is blank
+    private String debitColumn;
+    private String creditColumn;
+    private String descriptionColumn = "description";
+    private String categoryColumn;
+    private String currencyColumn;
+    private String dateFormat = "yyyy-MM-dd";
+    // "1.234,56" style amounts
+    private boolean decimalComma;
+    // Negative amounts are money going out; set to false for card statements that list charges as positive
+    private boolean negativeIsExpense = true;
+    private String defaultCategory = "Imported";
+    private String currency = "USD";
+
+    public String getDelimiter() { return delimiter; }
+    public void setDelimiter(String delimiter) { this.delimiter = delimiter; }
+
+    public boolean isHasHeader() { return hasHeader; }
+    public void setHasHeader(boolean hasHeader) { this.hasHeader = hasHeader; }
+
+    public String getDateColumn() { return dateColumn; }
+    public void setDateColumn(String dateColumn) { this.dateColumn = dateColumn; }
+
+    public String getAmountColumn() { return amountColumn; }
+    public void setAmountColumn(String amountColumn) { this.amountColumn = amountColumn; }
+
+    public String getDebitColumn() { return debitColumn; }
+    public void setDebitColumn(String debitColumn) { this.debitColumn = debitColumn; }
+
+    public String getCreditColumn() { return creditColumn; }
+    public void setCreditColumn(String creditColumn) { this.creditColumn = creditColumn; }
+
+    public String getDescriptionColumn() { return descriptionColumn; }
+    public void setDescriptionColumn(String descriptionColumn) { this.descriptionColumn = descriptionColumn; }
+
+    public String getCategoryColumn() { return categoryColumn; }
+    public void setCategoryColumn(String categoryColumn) { this.categoryColumn = categoryColumn; }
+
+    public String getCurrencyColumn() { return currencyColumn; }
+    public void setCurrencyColumn(String currencyColumn) { this.currencyColumn = currencyColumn; }
+
+    public String getDateFormat() { return dateFormat; }
+    public void setDateFormat(String dateFormat) { this.dateFormat = dateFormat; }
+
+    public boolean isDecimalComma() { return decimalComma; }
+    public void setDecimalComma(boolean decimalComma) { this.decimalComma = decimalComma; }
+
+    public boolean isNegativeIsExpense() { return negativeIsExpense; }
+    public void setNegativeIsExpense(boolean negativeIsExpense) { this.negativeIsExpense = negativeIsExpense; }
+
+    public String getDefaultCategory() { return defaultCategory; }
+    public void setDefaultCategory(String defaultCategory) { this.defaultCategory = defaultCategory; }
+
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
+}
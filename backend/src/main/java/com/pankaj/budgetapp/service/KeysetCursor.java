@@ -0,0 +1,98 @@
+package com.pankaj.budgetapp.service;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Opaque position in a ledger ordered by (date DESC, id DESC), with undated rows last.
+ * Pages continue strictly after the position, so inserts and deletes never shift or
+ * repeat rows the way offset paging does, and every page is an index range scan.
+ */
+public class KeysetCursor {
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 500;
+    // Sorts after every real date, so the first page uses the same query as the rest
+    public static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    private final LocalDate date;
+    private final String id;
+
+    private KeysetCursor(LocalDate date, String id) {
+        this.date = date;
+        this.id = id;
+    }
+
+    // Null once the cursor has moved on to undated rows
+    public LocalDate getDate() {
+        return date;
+    }
+
+    // Null at the start of a section
+    public String getId() {
+        return id;
+    }
+
+    public static String encode(LocalDate date, Object id) {
+        String raw = (date != null ? date.toString() : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            if (sep < 0 || sep == raw.length() - 1) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            LocalDate date = sep == 0 ? null : LocalDate.parse(raw.substring(0, sep));
+            return new KeysetCursor(date, raw.substring(sep + 1));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid cursor", ex);
+        }
+    }
+
+    public static int clampLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * One page after {@code cursor} (null for the first page). {@code dated} returns rows with a
+     * date strictly after the given position; {@code undated} returns undated rows after the
+     * given id (null id means from the start). Both get a Pageable sized for one extra row,
+     * which is how the next cursor is detected without a count query.
+     */
+    public static <T> LedgerPage<T> page(String cursor, int limit,
+                                         BiFunction<KeysetCursor, Pageable, List<T>> dated,
+                                         BiFunction<KeysetCursor, Pageable, List<T>> undated,
+                                         Function<T, LocalDate> dateOf,
+                                         Function<T, Object> idOf) {
+        KeysetCursor after = cursor != null && !cursor.isBlank() ? decode(cursor) : new KeysetCursor(MAX_DATE, null);
+        List<T> items = new ArrayList<>(limit + 1);
+        if (after.getDate() != null) {
+            items.addAll(dated.apply(after, PageRequest.of(0, limit + 1)));
+        }
+        if (items.size() <= limit) {
+            KeysetCursor undatedAfter = after.getDate() != null ? new KeysetCursor(null, null) : after;
+            items.addAll(undated.apply(undatedAfter, PageRequest.of(0, limit + 1 - items.size())));
+        }
+        if (items.size() <= limit) {
+            return new LedgerPage<>(items, null);
+        }
+        List<T> page = new ArrayList<>(items.subList(0, limit));
+        T last = page.get(limit - 1);
+        return new LedgerPage<>(page, encode(dateOf.apply(last), idOf.apply(last)));
+    }
+}
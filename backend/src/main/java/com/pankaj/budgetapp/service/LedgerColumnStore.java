@@ -0,0 +1,279 @@
+package com.pankaj.budgetapp.service;
+
+import com.pankaj.budgetapp.entity.BudgetItem;
+import com.pankaj.budgetapp.event.BudgetItemEvent;
+import com.pankaj.budgetapp.repository.BudgetItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory columnar copy of budget_items for analytics.
+ * Each item is one row across primitive columns: amount in minor units (cents),
+ * epoch-day, and category/type ordinals. Aggregates are plain loops over these arrays,
+ * optionally split into segments summed in parallel, and never touch the database.
+ * Built at startup and kept current from committed BudgetItemEvents.
+ */
+@Service
+public class LedgerColumnStore {
+
+    // Items without a transaction date are only included in unbounded queries
+    public static final int NO_DATE = Integer.MIN_VALUE;
+    private static final byte DELETED = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int LOAD_PAGE_SIZE = 5000;
+    // Below this many rows a single-threaded loop is faster than forking
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    private static final int CATEGORY_COUNT = BudgetItem.BudgetCategory.values().length;
+    private static final int TYPE_COUNT = BudgetItem.TransactionType.values().length;
+
+    private final BudgetItemRepository budgetItemRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] amounts = new long[INITIAL_CAPACITY];
+    private int[] days = new int[INITIAL_CAPACITY];
+    private byte[] categories = new byte[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private int size;
+    private int deletedRows;
+    private final Map<Long, Integer> rowById = new HashMap<>();
+
+    @Autowired
+    public LedgerColumnStore(BudgetItemRepository budgetItemRepository) {
+        this.budgetItemRepository = budgetItemRepository;
+    }
+
+    /**
+     * Sums and counts per category for one transaction type over [fromDay, toDay] (epoch days,
+     * inclusive). Returns {sums, counts} indexed by BudgetCategory ordinal.
+     */
+    public long[][] sumByCategory(BudgetItem.TransactionType type, int fromDay, int toDay) {
+        lock.readLock().lock();
+        try {
+            byte typeOrdinal = (byte) type.ordinal();
+            int segments = segmentCount();
+            if (segments == 1) {
+                long[][] result = new long[2][CATEGORY_COUNT];
+                sumByCategorySegment(typeOrdinal, fromDay, toDay, 0, size, result);
+                return result;
+            }
+            int segmentSize = (size + segments - 1) / segments;
+            long[][][] partials = IntStream.range(0, segments).parallel()
+                    .mapToObj(seg -> {
+                        long[][] partial = new long[2][CATEGORY_COUNT];
+                        sumByCategorySegment(typeOrdinal, fromDay, toDay, seg * segmentSize,
+                                Math.min(size, (seg + 1) * segmentSize), partial);
+                        return partial;
+                    })
+                    .toArray(long[][][]::new);
+            long[][] result = new long[2][CATEGORY_COUNT];
+            for (long[][] partial : partials) {
+                merge(result, partial);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Sum in minor units per transaction type over [fromDay, toDay], indexed by TransactionType ordinal
+    public long[] sumByType(int fromDay, int toDay) {
+        lock.readLock().lock();
+        try {
+            long[] sums = new long[TYPE_COUNT];
+            for (int i = 0; i < size; i++) {
+                byte t = types[i];
+                int d = days[i];
+                if (t != DELETED && d >= fromDay && d <= toDay) {
+                    sums[t] += amounts[i];
+                }
+            }
+            return sums;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Convenience for callers that want the category breakdown as decimal amounts
+    public Map<String, BigDecimal> spentByCategory(BudgetItem.TransactionType type, LocalDate from, LocalDate to) {
+        long[][] result = sumByCategory(type, toDay(from, NO_DATE), toDay(to, Integer.MAX_VALUE));
+        Map<String, BigDecimal> breakdown = new HashMap<>();
+        BudgetItem.BudgetCategory[] values = BudgetItem.BudgetCategory.values();
+        for (int c = 0; c < CATEGORY_COUNT; c++) {
+            if (result[1][c] > 0) {
+                breakdown.put(values[c].name(), BigDecimal.valueOf(result[0][c], 2));
+            }
+        }
+        return breakdown;
+    }
+
+    public int getRowCount() {
+        lock.readLock().lock();
+        try {
+            return size - deletedRows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            clear();
+            // Keyset paging: each page seeks past the last id instead of skipping an offset
+            long lastId = Long.MIN_VALUE;
+            List<BudgetItem> batch;
+            do {
+                batch = budgetItemRepository.findPageAfterId(lastId, PageRequest.of(0, LOAD_PAGE_SIZE));
+                for (BudgetItem item : batch) {
+                    upsert(item);
+                }
+                if (!batch.isEmpty()) {
+                    lastId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == LOAD_PAGE_SIZE);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("Ledger column store loaded: " + getRowCount() + " items");
+    }
+
+    @Order(DataVersions.READ_MODEL_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBudgetItemEvent(BudgetItemEvent event) {
+        if (event.getKind() == BudgetItemEvent.Kind.BULK_IMPORTED) {
+            load();
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (event.getKind() == BudgetItemEvent.Kind.DELETED) {
+                delete(event.getItem().getId());
+            } else {
+                upsert(event.getItem());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void sumByCategorySegment(byte typeOrdinal, int fromDay, int toDay, int start, int end,
+                                      long[][] out) {
+        long[] sums = out[0];
+        long[] counts = out[1];
+        for (int i = start; i < end; i++) {
+            int d = days[i];
+            if (types[i] == typeOrdinal && d >= fromDay && d <= toDay) {
+                sums[categories[i]] += amounts[i];
+                counts[categories[i]]++;
+            }
+        }
+    }
+
+    private static long[][] merge(long[][] a, long[][] b) {
+        for (int c = 0; c < CATEGORY_COUNT; c++) {
+            a[0][c] += b[0][c];
+            a[1][c] += b[1][c];
+        }
+        return a;
+    }
+
+    private int segmentCount() {
+        if (size < PARALLEL_THRESHOLD) {
+            return 1;
+        }
+        return Math.min(Runtime.getRuntime().availableProcessors(), size / (PARALLEL_THRESHOLD / 2));
+    }
+
+    private void upsert(BudgetItem item) {
+        if (item.getId() == null || item.getTransactionType() == null || item.getCategory() == null) {
+            return;
+        }
+        Integer row = rowById.get(item.getId());
+        if (row == null) {
+            ensureCapacity(size + 1);
+            row = size++;
+            rowById.put(item.getId(), row);
+        }
+        ids[row] = item.getId();
+        amounts[row] = toMinorUnits(item.getAmount());
+        days[row] = toDay(item.getTransactionDate(), NO_DATE);
+        categories[row] = (byte) item.getCategory().ordinal();
+        types[row] = (byte) item.getTransactionType().ordinal();
+    }
+
+    private void delete(Long id) {
+        Integer row = id != null ? rowById.remove(id) : null;
+        if (row == null) {
+            return;
+        }
+        types[row] = DELETED;
+        amounts[row] = 0;
+        deletedRows++;
+        if (deletedRows > INITIAL_CAPACITY && deletedRows > size / 4) {
+            compact();
+        }
+    }
+
+    // Drops tombstoned rows so scans stay proportional to live items
+    private void compact() {
+        int write = 0;
+        rowById.clear();
+        for (int read = 0; read < size; read++) {
+            if (types[read] == DELETED) {
+                continue;
+            }
+            ids[write] = ids[read];
+            amounts[write] = amounts[read];
+            days[write] = days[read];
+            categories[write] = categories[read];
+            types[write] = types[read];
+            rowById.put(ids[write], write);
+            write++;
+        }
+        size = write;
+        deletedRows = 0;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(needed, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        days = Arrays.copyOf(days, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        types = Arrays.copyOf(types, capacity);
+    }
+
+    private void clear() {
+        size = 0;
+        deletedRows = 0;
+        rowById.clear();
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    public static int toDay(LocalDate date, int ifNull) {
+        return date == null ? ifNull : (int) date.toEpochDay();
+    }
+}
@@ -0,0 +1,18 @@
+package com.pankaj.budgetapp.service;
+
+import java.util.List;
+
+// One keyset page; nextCursor is null on the last page
+public class LedgerPage<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public LedgerPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+}
@@ -0,0 +1,292 @@
+package com.pankaj.budgetapp.service;
+
+import com.pankaj.budgetapp.entity.BudgetItem;
+import com.pankaj.budgetapp.event.BudgetItemEvent;
+import com.pankaj.budgetapp.repository.BudgetItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-day prefix-sum indexes over budget items, one Fenwick tree per (type, category)
+ * plus one per type, with a slot per epoch-day. Any [from, to] total is two prefix
+ * lookups, so a time series costs O(buckets x series x log days) regardless of how many
+ * items fall in the range. Built at startup and kept current from committed BudgetItemEvents.
+ * Undated items are not indexed.
+ */
+@Service
+public class LedgerPrefixIndex {
+
+    public enum Granularity { DAY, WEEK, MONTH, YEAR }
+
+    public enum GroupBy { CATEGORY, TYPE }
+
+    // Dates outside this window are ignored so a typo cannot size the trees to millennia
+    private static final int MIN_DAY = (int) LocalDate.of(1900, 1, 1).toEpochDay();
+    private static final int MAX_DAY = (int) LocalDate.of(2199, 12, 31).toEpochDay();
+    private static final int SLACK_DAYS = 366;
+    private static final int MAX_BUCKETS = 10000;
+    private static final int CATEGORY_COUNT = BudgetItem.BudgetCategory.values().length;
+    private static final int TYPE_COUNT = BudgetItem.TransactionType.values().length;
+
+    private final BudgetItemRepository budgetItemRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private FenwickTree[] categoryTrees = new FenwickTree[0];
+    private FenwickTree[] typeTrees = new FenwickTree[0];
+    private int baseDay;
+    private int dayCount;
+
+    public static class Series {
+        private final Granularity granularity;
+        private final GroupBy groupBy;
+        private final List<LocalDate> buckets;
+        private final Map<String, List<BigDecimal>> series;
+
+        public Series(Granularity granularity, GroupBy groupBy, List<LocalDate> buckets,
+                      Map<String, List<BigDecimal>> series) {
+            this.granularity = granularity;
+            this.groupBy = groupBy;
+            this.buckets = buckets;
+            this.series = series;
+        }
+
+        public Granularity getGranularity() { return granularity; }
+        public GroupBy getGroupBy() { return groupBy; }
+        public List<LocalDate> getBuckets() { return buckets; }
+        public Map<String, List<BigDecimal>> getSeries() { return series; }
+    }
+
+    @Autowired
+    public LedgerPrefixIndex(BudgetItemRepository budgetItemRepository) {
+        this.budgetItemRepository = budgetItemRepository;
+    }
+
+    /**
+     * Totals over [from, to] split into calendar buckets. Weeks start on Monday; the first and
+     * last buckets are clipped to the requested range and labelled by their calendar start.
+     * With {@code type} set, only that transaction type is included. CATEGORY series are keyed
+     * by category when a type is given and by "TYPE:CATEGORY" otherwise, so income and expense
+     * in the same category stay apart.
+     */
+    public Series series(LocalDate from, LocalDate to, Granularity granularity, GroupBy groupBy,
+                         BudgetItem.TransactionType type) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        List<LocalDate> buckets = new ArrayList<>();
+        for (LocalDate start = bucketStart(from, granularity); !start.isAfter(to); start = next(start, granularity)) {
+            if (buckets.size() == MAX_BUCKETS) {
+                throw new IllegalArgumentException("Too many buckets; use a coarser granularity");
+            }
+            buckets.add(start);
+        }
+
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        int n = buckets.size();
+        int[] lo = new int[n];
+        int[] hi = new int[n];
+        for (int b = 0; b < n; b++) {
+            lo[b] = Math.max(fromDay, (int) buckets.get(b).toEpochDay());
+            hi[b] = b + 1 < n ? (int) buckets.get(b + 1).toEpochDay() - 1 : toDay;
+        }
+
+        Map<String, List<BigDecimal>> series = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            for (BudgetItem.TransactionType t : BudgetItem.TransactionType.values()) {
+                if (type != null && t != type) {
+                    continue;
+                }
+                if (groupBy == GroupBy.TYPE) {
+                    addSeries(series, t.name(), tree(typeTrees, t.ordinal()), lo, hi);
+                    continue;
+                }
+                for (BudgetItem.BudgetCategory c : BudgetItem.BudgetCategory.values()) {
+                    String key = type != null ? c.name() : t.name() + ":" + c.name();
+                    addSeries(series, key, tree(categoryTrees, t.ordinal() * CATEGORY_COUNT + c.ordinal()), lo, hi);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // Categories with no activity in the range are left out
+        series.values().removeIf(values -> values.stream().allMatch(v -> v.signum() == 0));
+        return new Series(granularity, groupBy, buckets, series);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Object[]> rows;
+        int base;
+        int count;
+        // Read under the write lock so an event committed meanwhile is applied after the swap, not lost
+        lock.writeLock().lock();
+        try {
+            rows = budgetItemRepository.sumByDayTypeAndCategory();
+            int min = Integer.MAX_VALUE;
+            int max = (int) LocalDate.now().toEpochDay();
+            for (Object[] row : rows) {
+                int day = (int) ((LocalDate) row[0]).toEpochDay();
+                if (day >= MIN_DAY && day <= MAX_DAY) {
+                    min = Math.min(min, day);
+                    max = Math.max(max, day);
+                }
+            }
+            base = Math.max(MIN_DAY, Math.min(min, max) - SLACK_DAYS);
+            count = Math.min(MAX_DAY, max + SLACK_DAYS) - base + 1;
+
+            long[][] categoryValues = new long[TYPE_COUNT * CATEGORY_COUNT][count];
+            long[][] typeValues = new long[TYPE_COUNT][count];
+            for (Object[] row : rows) {
+                int day = (int) ((LocalDate) row[0]).toEpochDay();
+                if (day < MIN_DAY || day > MAX_DAY || row[1] == null || row[2] == null) {
+                    continue;
+                }
+                int t = ((BudgetItem.TransactionType) row[1]).ordinal();
+                int c = ((BudgetItem.BudgetCategory) row[2]).ordinal();
+                long amount = toMinorUnits((BigDecimal) row[3]);
+                categoryValues[t * CATEGORY_COUNT + c][day - base] += amount;
+                typeValues[t][day - base] += amount;
+            }
+            categoryTrees = build(categoryValues);
+            typeTrees = build(typeValues);
+            baseDay = base;
+            dayCount = count;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("Ledger prefix index loaded: " + rows.size() + " day buckets, "
+                + LocalDate.ofEpochDay(base) + " to " + LocalDate.ofEpochDay(base + count - 1));
+    }
+
+    @Order(DataVersions.READ_MODEL_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBudgetItemEvent(BudgetItemEvent event) {
+        if (event.getKind() == BudgetItemEvent.Kind.BULK_IMPORTED
+                || (event.getKind() == BudgetItemEvent.Kind.UPDATED && event.getPrevious() == null)) {
+            load();
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            switch (event.getKind()) {
+                case CREATED -> apply(event.getItem(), 1);
+                case DELETED -> apply(event.getItem(), -1);
+                case UPDATED -> {
+                    apply(event.getPrevious(), -1);
+                    apply(event.getItem(), 1);
+                }
+                default -> { }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(BudgetItem item, int sign) {
+        if (item.getTransactionDate() == null || item.getTransactionType() == null || item.getCategory() == null) {
+            return;
+        }
+        int day = (int) item.getTransactionDate().toEpochDay();
+        if (day < MIN_DAY || day > MAX_DAY) {
+            return;
+        }
+        ensureCovers(day);
+        int t = item.getTransactionType().ordinal();
+        long delta = sign * toMinorUnits(item.getAmount());
+        categoryTrees[t * CATEGORY_COUNT + item.getCategory().ordinal()].add(day - baseDay, delta);
+        typeTrees[t].add(day - baseDay, delta);
+    }
+
+    // Re-bases the trees when a write lands outside the indexed window; rare, O(days log days)
+    private void ensureCovers(int day) {
+        if (dayCount > 0 && day >= baseDay && day < baseDay + dayCount) {
+            return;
+        }
+        int newBase = dayCount == 0 ? day - SLACK_DAYS : Math.min(baseDay, day - SLACK_DAYS);
+        int newEnd = dayCount == 0 ? day + SLACK_DAYS : Math.max(baseDay + dayCount - 1, day + SLACK_DAYS);
+        newBase = Math.max(MIN_DAY, newBase);
+        newEnd = Math.min(MAX_DAY, newEnd);
+        categoryTrees = rebase(categoryTrees, TYPE_COUNT * CATEGORY_COUNT, newBase, newEnd);
+        typeTrees = rebase(typeTrees, TYPE_COUNT, newBase, newEnd);
+        baseDay = newBase;
+        dayCount = newEnd - newBase + 1;
+    }
+
+    private FenwickTree[] rebase(FenwickTree[] trees, int expected, int newBase, int newEnd) {
+        FenwickTree[] result = new FenwickTree[expected];
+        for (int i = 0; i < expected; i++) {
+            long[] values = new long[newEnd - newBase + 1];
+            if (i < trees.length) {
+                long[] old = trees[i].toValues();
+                System.arraycopy(old, 0, values, baseDay - newBase, old.length);
+            }
+            result[i] = FenwickTree.fromValues(values);
+        }
+        return result;
+    }
+
+    private void addSeries(Map<String, List<BigDecimal>> series, String key, FenwickTree tree, int[] lo, int[] hi) {
+        long[] sums = new long[lo.length];
+        if (tree != null) {
+            for (int b = 0; b < lo.length; b++) {
+                sums[b] = tree.range(lo[b] - baseDay, hi[b] - baseDay);
+            }
+        }
+        List<BigDecimal> values = new ArrayList<>(lo.length);
+        for (int b = 0; b < lo.length; b++) {
+            values.add(BigDecimal.valueOf(sums[b], 2));
+        }
+        series.put(key, values);
+    }
+
+    private static FenwickTree tree(FenwickTree[] trees, int index) {
+        return index < trees.length ? trees[index] : null;
+    }
+
+    private static FenwickTree[] build(long[][] values) {
+        FenwickTree[] trees = new FenwickTree[values.length];
+        for (int i = 0; i < values.length; i++) {
+            trees[i] = FenwickTree.fromValues(values[i]);
+        }
+        return trees;
+    }
+
+    private static LocalDate bucketStart(LocalDate date, Granularity granularity) {
+        return switch (granularity) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+            case YEAR -> date.withDayOfYear(1);
+        };
+    }
+
+    private static LocalDate next(LocalDate start, Granularity granularity) {
+        return switch (granularity) {
+            case DAY -> start.plusDays(1);
+            case WEEK -> start.plusWeeks(1);
+            case MONTH -> start.plusMonths(1);
+            case YEAR -> start.plusYears(1);
+        };
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+}
@@ -7,7 +7,9 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class NotificationService {
@@ -57,6 +59,19 @@ public class NotificationService {
         return reminders;
     }
 
+    // Same numbers as counting getReminders() by type, from one grouped query
+    public Map<String, Integer> getReminderCounts() {
+        LocalDateTime now = LocalDateTime.now();
+        // More than N whole days since verification means verified on or before now - (N + 1) days
+        long[] counts = assetService.countStaleAssets(now.minusDays(61), now.minusDays(91));
+        Map<String, Integer> result = new LinkedHashMap<>();
+        result.put("total", (int) counts[0]);
+        result.put("critical", (int) counts[1]);
+        result.put("warnings", (int) counts[2]);
+        result.put("info", (int) (counts[0] - counts[1] - counts[2]));
+        return result;
+    }
+
     private String generateMessage(Asset asset, long daysSince) {
         StringBuilder msg = new StringBuilder();
         msg.append("'").append(asset.getName()).append("' ");
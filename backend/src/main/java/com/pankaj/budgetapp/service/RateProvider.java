@@ -0,0 +1,19 @@
+package com.pankaj.budgetapp.service;
+
+import java.util.Map;
+
+/**
+ * Source of exchange rates. Implementations are tried in the order given by
+ * {@code fx.providers}; see {@link RateProviderChain}.
+ */
+public interface RateProvider {
+
+    // Name used in fx.providers, e.g. "exchangerate-host"
+    String getName();
+
+    // Rates for one unit of baseCurrency; must throw rather than return an empty map on failure
+    Map<String, Double> fetchLatestRates(String baseCurrency) throws Exception;
+
+    // Currency code -> description; empty if the provider does not publish symbols
+    Map<String, String> fetchSymbols() throws Exception;
+}
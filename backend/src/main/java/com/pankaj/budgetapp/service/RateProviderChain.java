@@ -0,0 +1,172 @@
+package com.pankaj.budgetapp.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fetches rates from the configured providers in order ({@code fx.providers}).
+ * Providers with an open circuit are skipped. If the current provider has not answered
+ * within {@code fx.hedge-after-ms}, the next one is started as well and the first
+ * successful answer wins; a provider that fails fast hands over immediately.
+ */
+@Service
+public class RateProviderChain {
+
+    private final List<RateProvider> providers = new ArrayList<>();
+    private final Map<String, CircuitBreaker> breakers = new LinkedHashMap<>();
+    private final long hedgeAfterMs;
+    private final long totalTimeoutMs;
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "fx-provider");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public RateProviderChain(List<RateProvider> available,
+                             @Value("${fx.providers:exchangerate-host,frankfurter}") List<String> order,
+                             @Value("${fx.hedge-after-ms:1500}") long hedgeAfterMs,
+                             @Value("${fx.total-timeout-ms:10000}") long totalTimeoutMs,
+                             @Value("${fx.breaker.failure-threshold:3}") int failureThreshold,
+                             @Value("${fx.breaker.open-ms:30000}") long openMs,
+                             @Value("${fx.breaker.max-open-ms:600000}") long maxOpenMs) {
+        for (String name : order) {
+            String trimmed = name.trim();
+            RateProvider provider = available.stream()
+                    .filter(p -> p.getName().equalsIgnoreCase(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown rate provider: " + trimmed));
+            providers.add(provider);
+            breakers.put(provider.getName(), new CircuitBreaker(failureThreshold, openMs, maxOpenMs));
+        }
+        this.hedgeAfterMs = hedgeAfterMs;
+        this.totalTimeoutMs = totalTimeoutMs;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public Map<String, Double> fetchLatestRates(String baseCurrency) throws Exception {
+        BlockingQueue<Outcome> outcomes = new LinkedBlockingQueue<>();
+        long deadline = System.currentTimeMillis() + totalTimeoutMs;
+        // Breakers are consulted only when a provider is actually launched, so a half-open
+        // trial slot is never taken by a provider that ends up not being called
+        int[] next = {0};
+        int pending = 0;
+        Exception lastError = null;
+
+        if (launchNext(next, baseCurrency, outcomes)) {
+            pending++;
+        }
+        if (pending == 0) {
+            throw new IllegalStateException("All rate providers are unavailable (circuit open)");
+        }
+        // Losing hedged calls are left to finish so their breakers record the real outcome
+        while (pending > 0) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                break;
+            }
+            boolean canHedge = next[0] < providers.size();
+            Outcome outcome = outcomes.poll(canHedge ? Math.min(hedgeAfterMs, remaining) : remaining,
+                    TimeUnit.MILLISECONDS);
+            if (outcome == null) {
+                // Latency budget spent: hedge with the next provider
+                if (canHedge && launchNext(next, baseCurrency, outcomes)) {
+                    pending++;
+                }
+                continue;
+            }
+            pending--;
+            if (outcome.rates != null) {
+                return outcome.rates;
+            }
+            lastError = outcome.error;
+            if (launchNext(next, baseCurrency, outcomes)) {
+                pending++;
+            }
+        }
+        throw new IllegalStateException("No rate provider answered in time", lastError);
+    }
+
+    // Symbols change rarely, so they are fetched sequentially without hedging
+    public Map<String, String> fetchSymbols() throws Exception {
+        Exception lastError = null;
+        for (RateProvider p : providers) {
+            CircuitBreaker breaker = breakers.get(p.getName());
+            if (!breaker.allowRequest()) {
+                continue;
+            }
+            try {
+                Map<String, String> symbols = p.fetchSymbols();
+                breaker.recordSuccess();
+                if (!symbols.isEmpty()) {
+                    return symbols;
+                }
+            } catch (Exception ex) {
+                breaker.recordFailure();
+                System.err.println("Failed to fetch symbols from " + p.getName() + ": " + ex.getMessage());
+                lastError = ex;
+            }
+        }
+        throw new IllegalStateException("No rate provider returned symbols", lastError);
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        breakers.forEach((name, breaker) -> status.put(name, Map.of(
+                "state", breaker.getState().name(),
+                "consecutiveFailures", breaker.getConsecutiveFailures())));
+        return status;
+    }
+
+    // Starts the next provider whose circuit allows a call; false if none is left
+    private boolean launchNext(int[] next, String baseCurrency, BlockingQueue<Outcome> outcomes) {
+        while (next[0] < providers.size()) {
+            RateProvider provider = providers.get(next[0]++);
+            CircuitBreaker breaker = breakers.get(provider.getName());
+            if (breaker.allowRequest()) {
+                launch(provider, breaker, baseCurrency, outcomes);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void launch(RateProvider provider, CircuitBreaker breaker, String baseCurrency,
+                        BlockingQueue<Outcome> outcomes) {
+        executor.execute(() -> {
+            try {
+                Map<String, Double> rates = provider.fetchLatestRates(baseCurrency);
+                breaker.recordSuccess();
+                outcomes.add(new Outcome(rates, null));
+            } catch (Exception ex) {
+                breaker.recordFailure();
+                System.err.println("Failed to fetch rates from " + provider.getName() + ": " + ex.getMessage());
+                outcomes.add(new Outcome(null, ex));
+            }
+        });
+    }
+
+    private static class Outcome {
+        private final Map<String, Double> rates;
+        private final Exception error;
+
+        Outcome(Map<String, Double> rates, Exception error) {
+            this.rates = rates;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.pankaj.budgetapp.service;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Immutable set of exchange rates fetched at one point in time.
+ * A new snapshot is published on every successful refresh; readers never see a half-written map.
+ * The cross-rate table is built once here, so lookups for any base are plain array reads.
+ */
+public final class RateSnapshot {
+
+    public static final RateSnapshot EMPTY = new RateSnapshot("USD", Collections.emptyMap(), 0L);
+
+    private final String base;
+    private final CrossRateTable table;
+    private final long fetchedAt;
+
+    public RateSnapshot(String base, Map<String, Double> rates, long fetchedAt) {
+        this.base = base.toUpperCase();
+        this.table = new CrossRateTable(rates);
+        this.fetchedAt = fetchedAt;
+    }
+
+    public String getBase() {
+        return base;
+    }
+
+    public Map<String, Double> getRates() {
+        return table.row(base);
+    }
+
+    // Rates relative to any base currency, or empty if the base is unknown
+    public Map<String, Double> getRates(String baseCurrency) {
+        return table.row(baseCurrency);
+    }
+
+    public CrossRateTable getTable() {
+        return table;
+    }
+
+    public long getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public boolean isEmpty() {
+        return table.size() == 0;
+    }
+
+    // Age in milliseconds, or -1 if nothing has been fetched yet
+    public long ageMillis() {
+        return fetchedAt == 0L ? -1L : System.currentTimeMillis() - fetchedAt;
+    }
+
+    public double convert(String from, String to, double amount) {
+        if (isEmpty()) {
+            throw new IllegalStateException("Exchange rates are not available yet");
+        }
+        int fromIdx = table.indexOf(from);
+        int toIdx = table.indexOf(to);
+        if (fromIdx == CrossRateTable.UNKNOWN || toIdx == CrossRateTable.UNKNOWN) {
+            throw new IllegalArgumentException("Unknown currency code");
+        }
+        return table.convert(fromIdx, toIdx, amount);
+    }
+}
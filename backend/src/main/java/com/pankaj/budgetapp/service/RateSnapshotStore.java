@@ -0,0 +1,105 @@
+package com.pankaj.budgetapp.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Persists the last good rate snapshot and currency symbols in a small binary file, so rates
+ * are available from startup until the first remote refresh succeeds, including offline.
+ * Writes go to a temp file that is atomically moved into place.
+ */
+@Service
+public class RateSnapshotStore {
+
+    private static final int MAGIC = 0x46585331; // "FXS1"
+    private static final int VERSION = 1;
+
+    @Value("${fx.snapshot-file:${user.home}/budgetapp/data/fx_snapshot.bin}")
+    private String snapshotFile;
+
+    public static class Stored {
+        private final RateSnapshot snapshot;
+        private final Map<String, String> symbols;
+
+        public Stored(RateSnapshot snapshot, Map<String, String> symbols) {
+            this.snapshot = snapshot;
+            this.symbols = symbols;
+        }
+
+        public RateSnapshot getSnapshot() { return snapshot; }
+        public Map<String, String> getSymbols() { return symbols; }
+    }
+
+    // Returns null if there is no usable snapshot file
+    public Stored load() {
+        Path path = Paths.get(snapshotFile);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                System.err.println("Ignoring unrecognized FX snapshot file: " + path);
+                return null;
+            }
+            String base = in.readUTF();
+            long fetchedAt = in.readLong();
+            int rateCount = in.readInt();
+            Map<String, Double> rates = new HashMap<>(rateCount * 2);
+            for (int i = 0; i < rateCount; i++) {
+                rates.put(in.readUTF(), in.readDouble());
+            }
+            int symbolCount = in.readInt();
+            Map<String, String> symbols = new HashMap<>(symbolCount * 2);
+            for (int i = 0; i < symbolCount; i++) {
+                symbols.put(in.readUTF(), in.readUTF());
+            }
+            return new Stored(new RateSnapshot(base, rates, fetchedAt), symbols);
+        } catch (IOException ex) {
+            System.err.println("Failed to read FX snapshot: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    public synchronized void save(RateSnapshot snapshot, Map<String, String> symbols) {
+        if (snapshot.isEmpty()) {
+            return;
+        }
+        Path path = Paths.get(snapshotFile).toAbsolutePath().normalize();
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(path.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(snapshot.getBase());
+                out.writeLong(snapshot.getFetchedAt());
+                Map<String, Double> rates = snapshot.getRates();
+                out.writeInt(rates.size());
+                for (Map.Entry<String, Double> e : rates.entrySet()) {
+                    out.writeUTF(e.getKey());
+                    out.writeDouble(e.getValue());
+                }
+                out.writeInt(symbols.size());
+                for (Map.Entry<String, String> e : symbols.entrySet()) {
+                    out.writeUTF(e.getKey());
+                    out.writeUTF(e.getValue() != null ? e.getValue() : "");
+                }
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            System.err.println("Failed to write FX snapshot: " + ex.getMessage());
+        }
+    }
+}
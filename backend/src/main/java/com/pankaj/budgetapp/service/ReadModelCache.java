@@ -0,0 +1,103 @@
+package com.pankaj.budgetapp.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Versioned snapshots of read models (dashboard, budget summary, reminder counts).
+ * A snapshot records the {@link DataVersions} of the tables it was built from and is served
+ * until one of them moves or it is older than its max age (for values that also depend on
+ * the clock or FX rates). Concurrent misses for the same key build once. Versions are bumped
+ * before other listeners run, so listeners reading through the cache see the new data.
+ *
+ * Metrics: readmodel.cache.requests{cache,result=hit|miss} and readmodel.cache.rebuild{cache}.
+ */
+@Service
+public class ReadModelCache {
+
+    // Keys include user input such as a currency code, so the snapshot map is capped
+    private static final int MAX_ENTRIES = 256;
+    // Builds are serialized per stripe rather than per key, so the locks need no cleanup
+    private static final int LOCK_STRIPES = 64;
+
+    private final MeterRegistry meterRegistry;
+    private final DataVersions dataVersions;
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final Object[] buildLocks = new Object[LOCK_STRIPES];
+
+    private static class Snapshot {
+        private final Object value;
+        private final long[] versions;
+        private final long builtAt;
+
+        Snapshot(Object value, long[] versions, long builtAt) {
+            this.value = value;
+            this.versions = versions;
+            this.builtAt = builtAt;
+        }
+    }
+
+    @Autowired
+    public ReadModelCache(MeterRegistry meterRegistry, DataVersions dataVersions) {
+        this.meterRegistry = meterRegistry;
+        this.dataVersions = dataVersions;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            buildLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * Cached value for {@code key} ("cache-name:variant"), rebuilt with {@code loader} when any
+     * table in {@code sources} has changed since it was built or it is older than {@code maxAgeMs}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Set<DataVersions.Source> sources, long maxAgeMs, Supplier<T> loader) {
+        String cache = key.contains(":") ? key.substring(0, key.indexOf(':')) : key;
+        Snapshot snapshot = snapshots.get(key);
+        if (isCurrent(snapshot, sources, maxAgeMs)) {
+            count(cache, "hit");
+            return (T) snapshot.value;
+        }
+        synchronized (buildLocks[Math.floorMod(key.hashCode(), LOCK_STRIPES)]) {
+            snapshot = snapshots.get(key);
+            if (isCurrent(snapshot, sources, maxAgeMs)) {
+                count(cache, "hit");
+                return (T) snapshot.value;
+            }
+            count(cache, "miss");
+            // Versions are read before loading, so a write that lands mid-build forces another rebuild
+            long[] seen = dataVersions.snapshot();
+            Timer.Sample sample = Timer.start(meterRegistry);
+            T value = loader.get();
+            sample.stop(meterRegistry.timer("readmodel.cache.rebuild", "cache", cache));
+            if (snapshots.size() >= MAX_ENTRIES && !snapshots.containsKey(key)) {
+                snapshots.clear();
+            }
+            snapshots.put(key, new Snapshot(value, seen, System.currentTimeMillis()));
+            return value;
+        }
+    }
+
+    private boolean isCurrent(Snapshot snapshot, Set<DataVersions.Source> sources, long maxAgeMs) {
+        if (snapshot == null || System.currentTimeMillis() - snapshot.builtAt > maxAgeMs) {
+            return false;
+        }
+        for (DataVersions.Source source : sources) {
+            if (snapshot.versions[source.ordinal()] != dataVersions.get(source)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void count(String cache, String result) {
+        meterRegistry.counter("readmodel.cache.requests", "cache", cache, "result", result).increment();
+    }
+}
@@ -0,0 +1,93 @@
+package com.pankaj.budgetapp.service;
+
+import com.pankaj.budgetapp.entity.BudgetItem;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+
+/**
+ * Occurrence dates (as epoch days) of one recurring item, generated on demand and cached.
+ * The k-th occurrence is always computed from the anchor (anchor + k months rather than
+ * previous + 1 month), so month-end dates do not drift. Each date is generated at most once;
+ * later horizons only extend the cache.
+ */
+public class RecurrenceSchedule {
+
+    private final LocalDate anchor;
+    private final BudgetItem.RecurrenceFrequency frequency;
+    private int[] days = new int[16];
+    private int size;
+
+    public RecurrenceSchedule(LocalDate anchor, BudgetItem.RecurrenceFrequency frequency) {
+        this.anchor = anchor;
+        this.frequency = frequency;
+    }
+
+    // Unbounded iterator over occurrences on or after fromDay; callers stop at their horizon
+    public PrimitiveIterator.OfInt from(int fromDay) {
+        int first = firstIndexOnOrAfter(fromDay);
+        return new PrimitiveIterator.OfInt() {
+            private int k = first;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public int nextInt() {
+                return dayAt(k++);
+            }
+        };
+    }
+
+    public synchronized int dayAt(int k) {
+        while (size <= k) {
+            if (size == days.length) {
+                days = Arrays.copyOf(days, days.length * 2);
+            }
+            days[size] = (int) generate(size).toEpochDay();
+            size++;
+        }
+        return days[k];
+    }
+
+    private int firstIndexOnOrAfter(int day) {
+        int anchorDay = (int) anchor.toEpochDay();
+        if (day <= anchorDay) {
+            return 0;
+        }
+        switch (frequency) {
+            case DAILY:
+                return day - anchorDay;
+            case WEEKLY:
+                return (day - anchorDay + 6) / 7;
+            default:
+                synchronized (this) {
+                    // Extend the cache until it passes day, then binary search
+                    int k = Math.max(size - 1, 0);
+                    while (dayAt(k) < day) {
+                        k = Math.max(k * 2, k + 1);
+                    }
+                    int idx = Arrays.binarySearch(days, 0, size, day);
+                    return idx >= 0 ? idx : -idx - 1;
+                }
+        }
+    }
+
+    private LocalDate generate(int k) {
+        switch (frequency) {
+            case DAILY:
+                return anchor.plusDays(k);
+            case WEEKLY:
+                return anchor.plusWeeks(k);
+            case MONTHLY:
+                return anchor.plusMonths(k);
+            case YEARLY:
+                return anchor.plusYears(k);
+            default:
+                throw new IllegalStateException("Unsupported frequency: " + frequency);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.pankaj.budgetapp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pankaj.budgetapp.entity.BudgetItem;
+import com.pankaj.budgetapp.entity.Transaction;
+import com.pankaj.budgetapp.entity.UserSettings;
+import com.pankaj.budgetapp.event.BudgetItemEvent;
+import com.pankaj.budgetapp.event.SettingsEvent;
+import com.pankaj.budgetapp.event.TransactionEvent;
+import com.pankaj.budgetapp.repository.BudgetItemRepository;
+import com.pankaj.budgetapp.repository.TransactionRepository;
+import com.pankaj.budgetapp.repository.UserSettingsRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Turns due occurrences of recurring definitions into transactions rows.
+ * Definitions are the active entries of the {@code recurring_reminders_v1} setting (monthly on
+ * dueDay) and recurring budget items (their own frequency, after the item's own date).
+ *
+ * Definitions sit in a min-heap ordered by next due day, so a run only touches what is due.
+ * Each occurrence gets a deterministic id ({@code rec:<recurringId>:<date>}) and the last
+ * processed day is stored in the {@code recurring_materialized_through} setting, so re-runs
+ * are no-ops and a catch-up after downtime inserts everything in one batched transaction.
+ */
+@Service
+public class RecurringMaterializationService {
+
+    private static final Logger log = LoggerFactory.getLogger(RecurringMaterializationService.class);
+
+    public static final String REMINDERS_KEY = "recurring_reminders_v1";
+    public static final String WATERMARK_KEY = "recurring_materialized_through";
+    private static final String BUDGET_ITEM_PREFIX = "budget-";
+    private static final int FLUSH_EVERY = 50;
+
+    private final TransactionRepository transactionRepository;
+    private final UserSettingsRepository userSettingsRepository;
+    private final BudgetItemRepository budgetItemRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final PriorityQueue<Due> dueIndex = new PriorityQueue<>(Comparator.comparingInt(d -> d.next));
+    private boolean dirty = true;
+    private String remindersSeen;
+
+    private static class Due {
+        private final String recurringId;
+        private final String category;
+        private final Transaction.TransactionType type;
+        private final BigDecimal amount;
+        private final String currency;
+        private final String description;
+        private final PrimitiveIterator.OfInt days;
+        private int next;
+
+        Due(String recurringId, String category, Transaction.TransactionType type, BigDecimal amount,
+            String currency, String description, PrimitiveIterator.OfInt days) {
+            this.recurringId = recurringId;
+            this.category = category;
+            this.type = type;
+            this.amount = amount;
+            this.currency = currency;
+            this.description = description;
+            this.days = days;
+            this.next = days.nextInt();
+        }
+    }
+
+    @Autowired
+    public RecurringMaterializationService(TransactionRepository transactionRepository,
+                                           UserSettingsRepository userSettingsRepository,
+                                           BudgetItemRepository budgetItemRepository,
+                                           EntityManager entityManager,
+                                           TransactionTemplate transactionTemplate,
+                                           ObjectMapper objectMapper,
+                                           ApplicationEventPublisher eventPublisher) {
+        this.transactionRepository = transactionRepository;
+        this.userSettingsRepository = userSettingsRepository;
+        this.budgetItemRepository = budgetItemRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Catch up once at startup, then daily shortly after midnight
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${recurring.materialize-cron:0 5 0 * * *}")
+    public void scheduledRun() {
+        try {
+            int created = materializeDue();
+            if (created > 0) {
+                log.info("Materialized {} recurring transactions", created);
+            }
+        } catch (Exception ex) {
+            log.error("Recurring materialization failed", ex);
+        }
+    }
+
+    /**
+     * Inserts all occurrences due after the stored watermark up to today. Returns the number
+     * of rows created. Safe to call repeatedly.
+     */
+    public synchronized int materializeDue() {
+        LocalDate today = LocalDate.now();
+        LocalDate watermark = readWatermark();
+        // First run: start from today instead of inventing history
+        LocalDate from = watermark != null ? watermark.plusDays(1) : today;
+        if (from.isAfter(today)) {
+            return 0;
+        }
+        String reminders = userSettingsRepository.findById(REMINDERS_KEY)
+                .map(UserSettings::getSettingValue).orElse(null);
+        if (dirty || !Objects.equals(reminders, remindersSeen)) {
+            rebuildIndex(reminders, (int) from.toEpochDay());
+            remindersSeen = reminders;
+            dirty = false;
+        }
+
+        int fromDay = (int) from.toEpochDay();
+        int todayDay = (int) today.toEpochDay();
+        List<Transaction> occurrences = new ArrayList<>();
+        while (!dueIndex.isEmpty() && dueIndex.peek().next <= todayDay) {
+            Due due = dueIndex.poll();
+            if (due.next >= fromDay) {
+                occurrences.add(toTransaction(due, LocalDate.ofEpochDay(due.next)));
+            }
+            due.next = due.days.nextInt();
+            dueIndex.add(due);
+        }
+
+        try {
+            Integer created = transactionTemplate.execute(status -> {
+                int inserted = insertNew(occurrences, from, today);
+                writeWatermark(today);
+                eventPublisher.publishEvent(new SettingsEvent(WATERMARK_KEY));
+                if (inserted > 0) {
+                    eventPublisher.publishEvent(TransactionEvent.bulkImported());
+                }
+                return inserted;
+            });
+            return created != null ? created : 0;
+        } catch (RuntimeException ex) {
+            // The index already moved past these days; rebuild it from the unchanged watermark
+            dirty = true;
+            throw ex;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBudgetItemEvent(BudgetItemEvent event) {
+        BudgetItem item = event.getItem();
+        BudgetItem previous = event.getPrevious();
+        if (event.getKind() == BudgetItemEvent.Kind.BULK_IMPORTED
+                || item.isRecurring() || (previous != null && previous.isRecurring())) {
+            dirty = true;
+        }
+    }
+
+    private int insertNew(List<Transaction> occurrences, LocalDate from, LocalDate to) {
+        if (occurrences.isEmpty()) {
+            return 0;
+        }
+        Set<String> existing = new HashSet<>(transactionRepository.findExistingIds(
+                occurrences.stream().map(Transaction::getId).collect(Collectors.toList())));
+        // Reminders marked paid by hand in the UI already have a row for that month
+        Set<String> paidMonths = transactionRepository
+                .findByRecurringIdIsNotNullAndDateBetween(YearMonth.from(from).atDay(1), to).stream()
+                .filter(t -> t.getDate() != null)
+                .map(t -> t.getRecurringId() + "@" + YearMonth.from(t.getDate()))
+                .collect(Collectors.toCollection(HashSet::new));
+
+        int inserted = 0;
+        for (Transaction tx : occurrences) {
+            if (existing.contains(tx.getId())) {
+                continue;
+            }
+            if (!tx.getRecurringId().startsWith(BUDGET_ITEM_PREFIX)
+                    && !paidMonths.add(tx.getRecurringId() + "@" + YearMonth.from(tx.getDate()))) {
+                continue;
+            }
+            // Ids were checked above, so persist directly instead of merge's select-per-row
+            entityManager.persist(tx);
+            if (++inserted % FLUSH_EVERY == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return inserted;
+    }
+
+    private void rebuildIndex(String reminders, int fromDay) {
+        dueIndex.clear();
+        for (BudgetItem item : budgetItemRepository.findByRecurringTrue()) {
+            if (item.getRecurrenceFrequency() == null || item.getTransactionDate() == null
+                    || item.getAmount() == null || item.getCategory() == null) {
+                continue;
+            }
+            RecurrenceSchedule schedule = new RecurrenceSchedule(item.getTransactionDate(), item.getRecurrenceFrequency());
+            // The item itself is the first occurrence
+            int start = Math.max(fromDay, (int) item.getTransactionDate().toEpochDay() + 1);
+            dueIndex.add(new Due(BUDGET_ITEM_PREFIX + item.getId(), item.getCategory().name(),
+                    item.getTransactionType() == BudgetItem.TransactionType.INCOME
+                            ? Transaction.TransactionType.INCOME : Transaction.TransactionType.EXPENSE,
+                    item.getAmount(), item.getCurrency(), item.getName() + " - Recurring",
+                    schedule.from(start)));
+        }
+        if (reminders == null || reminders.isBlank()) {
+            return;
+        }
+        try {
+            for (JsonNode r : objectMapper.readTree(reminders)) {
+                BigDecimal amount = r.path("amount").isNumber() ? r.path("amount").decimalValue() : BigDecimal.ZERO;
+                if (!r.path("active").asBoolean(false) || amount.signum() <= 0 || !r.hasNonNull("id")) {
+                    continue;
+                }
+                int dueDay = Math.min(Math.max(r.path("dueDay").asInt(1), 1), 31);
+                // Anchored on a 31-day month so short months clamp to their last day
+                RecurrenceSchedule schedule = new RecurrenceSchedule(LocalDate.of(2000, 1, dueDay),
+                        BudgetItem.RecurrenceFrequency.MONTHLY);
+                String name = r.path("name").asText(r.path("id").asText());
+                dueIndex.add(new Due(r.path("id").asText(), r.path("category").asText(name),
+                        Transaction.TransactionType.EXPENSE, amount,
+                        r.hasNonNull("currency") ? r.path("currency").asText() : null,
+                        name + " - Recurring Payment", schedule.from(fromDay)));
+            }
+        } catch (Exception ex) {
+            log.warn("Ignoring unreadable {}", REMINDERS_KEY, ex);
+        }
+    }
+
+    private static Transaction toTransaction(Due due, LocalDate date) {
+        Transaction tx = new Transaction();
+        tx.setId("rec:" + due.recurringId + ":" + date);
+        tx.setAmount(due.amount);
+        tx.setCategory(due.category);
+        tx.setDate(date);
+        tx.setDescription(due.description);
+        if (due.currency != null) {
+            tx.setCurrency(due.currency);
+        }
+        tx.setType(due.type);
+        tx.setRecurringId(due.recurringId);
+        tx.setCreatedAt(LocalDateTime.now());
+        return tx;
+    }
+
+    private LocalDate readWatermark() {
+        return userSettingsRepository.findById(WATERMARK_KEY)
+                .map(UserSettings::getSettingValue)
+                .map(LocalDate::parse)
+                .orElse(null);
+    }
+
+    private void writeWatermark(LocalDate day) {
+        userSettingsRepository.save(new UserSettings(WATERMARK_KEY, day.toString()));
+    }
+}
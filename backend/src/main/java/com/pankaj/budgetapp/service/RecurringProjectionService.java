@@ -0,0 +1,160 @@
+package com.pankaj.budgetapp.service;
+
+import com.pankaj.budgetapp.entity.BudgetItem;
+import com.pankaj.budgetapp.event.BudgetItemEvent;
+import com.pankaj.budgetapp.repository.BudgetItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Projects recurring budget items forward. Each item's schedule is generated lazily and
+ * cached (see RecurrenceSchedule); a forecast only counts occurrences per month and applies
+ * the amount once per (month, item). Schedules are dropped and rebuilt when their item changes.
+ */
+@Service
+public class RecurringProjectionService {
+
+    public static final int MAX_HORIZON_MONTHS = 1200;
+
+    private final BudgetItemRepository budgetItemRepository;
+    private final CurrencyService currencyService;
+    private final Map<Long, Projected> projections = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    private static class Projected {
+        private final BudgetItem.TransactionType type;
+        private final BigDecimal amount;
+        private final String currency;
+        private final RecurrenceSchedule schedule;
+
+        Projected(BudgetItem item) {
+            this.type = item.getTransactionType();
+            this.amount = item.getAmount();
+            this.currency = item.getCurrency();
+            this.schedule = new RecurrenceSchedule(item.getTransactionDate(), item.getRecurrenceFrequency());
+        }
+    }
+
+    @Autowired
+    public RecurringProjectionService(BudgetItemRepository budgetItemRepository, CurrencyService currencyService) {
+        this.budgetItemRepository = budgetItemRepository;
+        this.currencyService = currencyService;
+    }
+
+    /**
+     * Projected income, expenses and balance per month for the current month and the
+     * following {@code horizonMonths - 1}, counting occurrences after today only.
+     * With a currency, amounts are converted to it; otherwise they are summed as stored.
+     */
+    public List<Map<String, Object>> forecast(int horizonMonths, String currency) {
+        if (horizonMonths < 1 || horizonMonths > MAX_HORIZON_MONTHS) {
+            throw new IllegalArgumentException("horizon must be between 1 and " + MAX_HORIZON_MONTHS + " months");
+        }
+        ensureLoaded();
+        YearMonth first = YearMonth.now();
+        int[] monthStarts = new int[horizonMonths + 1];
+        for (int m = 0; m <= horizonMonths; m++) {
+            monthStarts[m] = (int) first.plusMonths(m).atDay(1).toEpochDay();
+        }
+        int fromDay = (int) LocalDate.now().plusDays(1).toEpochDay();
+        int endDay = monthStarts[horizonMonths] - 1;
+
+        int typeCount = BudgetItem.TransactionType.values().length;
+        CurrencyTotals[][] totals = new CurrencyTotals[horizonMonths][typeCount];
+        for (CurrencyTotals[] month : totals) {
+            for (int t = 0; t < typeCount; t++) {
+                month[t] = new CurrencyTotals();
+            }
+        }
+        int[] counts = new int[horizonMonths];
+        for (Projected p : projections.values()) {
+            Arrays.fill(counts, 0);
+            PrimitiveIterator.OfInt days = p.schedule.from(fromDay);
+            int m = 0;
+            for (int day = days.nextInt(); day <= endDay; day = days.nextInt()) {
+                while (day >= monthStarts[m + 1]) {
+                    m++;
+                }
+                counts[m]++;
+            }
+            for (int i = 0; i < horizonMonths; i++) {
+                if (counts[i] > 0) {
+                    totals[i][p.type.ordinal()].add(p.currency, p.amount.multiply(BigDecimal.valueOf(counts[i])));
+                }
+            }
+        }
+
+        RateSnapshot snapshot = currency != null ? currencyService.currentSnapshot() : null;
+        List<Map<String, Object>> months = new ArrayList<>(horizonMonths);
+        BigDecimal cumulative = BigDecimal.ZERO;
+        for (int i = 0; i < horizonMonths; i++) {
+            BigDecimal income = total(totals[i][BudgetItem.TransactionType.INCOME.ordinal()], currency, snapshot);
+            BigDecimal expenses = total(totals[i][BudgetItem.TransactionType.EXPENSE.ordinal()], currency, snapshot);
+            BigDecimal balance = income.subtract(expenses);
+            cumulative = cumulative.add(balance);
+            Map<String, Object> month = new LinkedHashMap<>();
+            month.put("month", first.plusMonths(i).toString());
+            month.put("income", income);
+            month.put("expenses", expenses);
+            month.put("balance", balance);
+            month.put("cumulativeBalance", cumulative);
+            months.add(month);
+        }
+        return months;
+    }
+
+    @Order(DataVersions.READ_MODEL_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBudgetItemEvent(BudgetItemEvent event) {
+        if (!loaded) {
+            return;
+        }
+        if (event.getKind() == BudgetItemEvent.Kind.BULK_IMPORTED) {
+            projections.clear();
+            loaded = false;
+            return;
+        }
+        BudgetItem item = event.getItem();
+        projections.remove(item.getId());
+        if (event.getKind() != BudgetItemEvent.Kind.DELETED && isProjectable(item)) {
+            projections.put(item.getId(), new Projected(item));
+        }
+    }
+
+    private synchronized void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        for (BudgetItem item : budgetItemRepository.findByRecurringTrue()) {
+            if (isProjectable(item)) {
+                projections.put(item.getId(), new Projected(item));
+            }
+        }
+        loaded = true;
+    }
+
+    private static boolean isProjectable(BudgetItem item) {
+        return item.isRecurring() && item.getRecurrenceFrequency() != null && item.getTransactionDate() != null
+                && item.getTransactionType() != null && item.getAmount() != null;
+    }
+
+    private static BigDecimal total(CurrencyTotals totals, String currency, RateSnapshot snapshot) {
+        if (currency != null) {
+            return totals.in(currency, snapshot);
+        }
+        return totals.getByCurrency().values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
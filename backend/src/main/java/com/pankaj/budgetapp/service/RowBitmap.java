@@ -0,0 +1,325 @@
+package com.pankaj.budgetapp.service;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of non-negative row numbers, split into chunks of 65536 rows in the manner of
+ * Roaring bitmaps. A chunk holding at most 4096 rows is a sorted char[] (2 bytes per row);
+ * a denser one is a 1024-word long[] bitset (8 KB). AND and intersection counts work chunk by
+ * chunk, so sparse sets stay cheap to store and to intersect. Not thread-safe; callers lock.
+ */
+public final class RowBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1024;
+
+    // Chunk keys (row >>> 16) in ascending order, with a container per key
+    private int[] keys = new int[4];
+    private Container[] containers = new Container[4];
+    private int chunks;
+
+    private static final class Container {
+        // Exactly one of array / bits is in use
+        char[] array;
+        long[] bits;
+        int cardinality;
+
+        static Container ofArray(int capacity) {
+            Container c = new Container();
+            c.array = new char[Math.max(4, capacity)];
+            return c;
+        }
+
+        boolean contains(char low) {
+            if (bits != null) {
+                return (bits[low >>> 6] & (1L << low)) != 0;
+            }
+            return Arrays.binarySearch(array, 0, cardinality, low) >= 0;
+        }
+
+        boolean add(char low) {
+            if (bits != null) {
+                long before = bits[low >>> 6];
+                bits[low >>> 6] = before | (1L << low);
+                if (before == bits[low >>> 6]) {
+                    return false;
+                }
+                cardinality++;
+                return true;
+            }
+            int at = Arrays.binarySearch(array, 0, cardinality, low);
+            if (at >= 0) {
+                return false;
+            }
+            if (cardinality == ARRAY_MAX) {
+                toBits();
+                return add(low);
+            }
+            at = -at - 1;
+            if (cardinality == array.length) {
+                array = Arrays.copyOf(array, Math.min(ARRAY_MAX, cardinality * 2));
+            }
+            System.arraycopy(array, at, array, at + 1, cardinality - at);
+            array[at] = low;
+            cardinality++;
+            return true;
+        }
+
+        boolean remove(char low) {
+            if (bits != null) {
+                long before = bits[low >>> 6];
+                bits[low >>> 6] = before & ~(1L << low);
+                if (before == bits[low >>> 6]) {
+                    return false;
+                }
+                if (--cardinality <= ARRAY_MAX / 2) {
+                    toArray();
+                }
+                return true;
+            }
+            int at = Arrays.binarySearch(array, 0, cardinality, low);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(array, at + 1, array, at, cardinality - at - 1);
+            cardinality--;
+            return true;
+        }
+
+        private void toBits() {
+            bits = new long[WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                bits[array[i] >>> 6] |= 1L << array[i];
+            }
+            array = null;
+        }
+
+        // Dropping back only at half the threshold avoids flapping around it
+        private void toArray() {
+            char[] values = new char[cardinality];
+            int n = 0;
+            for (int w = 0; w < WORDS; w++) {
+                long word = bits[w];
+                while (word != 0) {
+                    values[n++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            array = values;
+            bits = null;
+        }
+
+        Container and(Container other) {
+            if (bits != null && other.bits != null) {
+                Container out = new Container();
+                out.bits = new long[WORDS];
+                for (int w = 0; w < WORDS; w++) {
+                    out.bits[w] = bits[w] & other.bits[w];
+                    out.cardinality += Long.bitCount(out.bits[w]);
+                }
+                if (out.cardinality <= ARRAY_MAX) {
+                    out.toArray();
+                }
+                return out;
+            }
+            // At least one side is an array: probe the other with each of its values
+            Container small = bits == null ? this : other;
+            Container large = small == this ? other : this;
+            Container out = Container.ofArray(Math.min(small.cardinality, large.cardinality));
+            for (int i = 0; i < small.cardinality; i++) {
+                if (large.contains(small.array[i])) {
+                    out.array[out.cardinality++] = small.array[i];
+                }
+            }
+            return out;
+        }
+
+        int andCardinality(Container other) {
+            if (bits != null && other.bits != null) {
+                int count = 0;
+                for (int w = 0; w < WORDS; w++) {
+                    count += Long.bitCount(bits[w] & other.bits[w]);
+                }
+                return count;
+            }
+            Container small = bits == null ? this : other;
+            Container large = small == this ? other : this;
+            int count = 0;
+            for (int i = 0; i < small.cardinality; i++) {
+                if (large.contains(small.array[i])) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        Container or(Container other) {
+            Container out = copy();
+            if (other.bits != null) {
+                if (out.bits == null) {
+                    out.toBits();
+                }
+                out.cardinality = 0;
+                for (int w = 0; w < WORDS; w++) {
+                    out.bits[w] |= other.bits[w];
+                    out.cardinality += Long.bitCount(out.bits[w]);
+                }
+                return out;
+            }
+            for (int i = 0; i < other.cardinality; i++) {
+                out.add(other.array[i]);
+            }
+            return out;
+        }
+
+        Container copy() {
+            Container c = new Container();
+            c.cardinality = cardinality;
+            if (bits != null) {
+                c.bits = bits.clone();
+            } else {
+                c.array = Arrays.copyOf(array, Math.max(4, cardinality));
+            }
+            return c;
+        }
+
+        void forEach(int base, IntConsumer action) {
+            if (bits == null) {
+                for (int i = 0; i < cardinality; i++) {
+                    action.accept(base | array[i]);
+                }
+                return;
+            }
+            for (int w = 0; w < WORDS; w++) {
+                long word = bits[w];
+                while (word != 0) {
+                    action.accept(base | (w << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+    }
+
+    public void add(int row) {
+        int key = row >>> 16;
+        int at = find(key);
+        if (at < 0) {
+            at = -at - 1;
+            insertChunk(at, key, Container.ofArray(4));
+        }
+        containers[at].add((char) row);
+    }
+
+    public void remove(int row) {
+        int at = find(row >>> 16);
+        if (at < 0 || !containers[at].remove((char) row)) {
+            return;
+        }
+        if (containers[at].cardinality == 0) {
+            System.arraycopy(keys, at + 1, keys, at, chunks - at - 1);
+            System.arraycopy(containers, at + 1, containers, at, chunks - at - 1);
+            containers[--chunks] = null;
+        }
+    }
+
+    public boolean contains(int row) {
+        int at = find(row >>> 16);
+        return at >= 0 && containers[at].contains((char) row);
+    }
+
+    public int cardinality() {
+        int count = 0;
+        for (int i = 0; i < chunks; i++) {
+            count += containers[i].cardinality;
+        }
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return chunks == 0;
+    }
+
+    // Rows in both; neither input is modified
+    public RowBitmap and(RowBitmap other) {
+        RowBitmap out = new RowBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < chunks && j < other.chunks) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container c = containers[i].and(other.containers[j]);
+                if (c.cardinality > 0) {
+                    out.insertChunk(out.chunks, keys[i], c);
+                }
+                i++;
+                j++;
+            }
+        }
+        return out;
+    }
+
+    // Size of the intersection without building it; used for facet counts
+    public int andCardinality(RowBitmap other) {
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < chunks && j < other.chunks) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                count += containers[i++].andCardinality(other.containers[j++]);
+            }
+        }
+        return count;
+    }
+
+    // Rows in either; neither input is modified
+    public RowBitmap or(RowBitmap other) {
+        RowBitmap out = new RowBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < chunks || j < other.chunks) {
+            if (j == other.chunks || (i < chunks && keys[i] < other.keys[j])) {
+                out.insertChunk(out.chunks, keys[i], containers[i++].copy());
+            } else if (i == chunks || keys[i] > other.keys[j]) {
+                out.insertChunk(out.chunks, other.keys[j], other.containers[j++].copy());
+            } else {
+                out.insertChunk(out.chunks, keys[i], containers[i++].or(other.containers[j++]));
+            }
+        }
+        return out;
+    }
+
+    public RowBitmap copy() {
+        return or(new RowBitmap());
+    }
+
+    // Visits rows in ascending order
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < chunks; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    private int find(int key) {
+        return Arrays.binarySearch(keys, 0, chunks, key);
+    }
+
+    private void insertChunk(int at, int key, Container container) {
+        if (chunks == keys.length) {
+            keys = Arrays.copyOf(keys, chunks * 2);
+            containers = Arrays.copyOf(containers, chunks * 2);
+        }
+        System.arraycopy(keys, at, keys, at + 1, chunks - at);
+        System.arraycopy(containers, at, containers, at + 1, chunks - at);
+        keys[at] = key;
+        containers[at] = container;
+        chunks++;
+    }
+}
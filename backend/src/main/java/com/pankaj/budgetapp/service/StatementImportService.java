@@ -0,0 +1,477 @@
+package com.pankaj.budgetapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pankaj.budgetapp.entity.Transaction;
+import com.pankaj.budgetapp.entity.UserSettings;
+import com.pankaj.budgetapp.event.SettingsEvent;
+import com.pankaj.budgetapp.event.TransactionEvent;
+import com.pankaj.budgetapp.repository.TransactionRepository;
+import com.pankaj.budgetapp.repository.UserSettingsRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+
+/**
+ * Imports bank statements (CSV, OFX, QIF) as transactions in a background job.
+ * The uploaded file is streamed from disk: one thread cuts it into records and hands chunks of
+ * records to a fork-join pool for parsing, with a bounded number of chunks in flight, and
+ * writes parsed chunks in order as JDBC-batched inserts. Each imported row gets a deterministic
+ * id from a hash of its content, so re-importing an overlapping statement skips rows that are
+ * already stored. Column mappings for CSV exports are kept as named profiles in user settings.
+ */
+@Service
+public class StatementImportService {
+
+    public static final String PROFILES_KEY = "import_profiles_v1";
+    private static final String ID_PREFIX = "imp-";
+    private static final int RECORDS_PER_CHUNK = 4096;
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int MAX_JOBS_KEPT = 20;
+    private static final TypeReference<Map<String, ImportProfile>> PROFILES_TYPE = new TypeReference<>() {};
+
+    private final TransactionRepository transactionRepository;
+    private final UserSettingsRepository userSettingsRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final ForkJoinPool parsePool;
+    // Jobs run one at a time; each one already uses every core for parsing
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "statement-import");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Map<String, Job> jobs = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    public static class RowError {
+        private final int record;
+        private final String error;
+
+        RowError(int record, String error) {
+            this.record = record;
+            this.error = error;
+        }
+
+        // One-based position among the file's data records
+        public int getRecord() { return record; }
+        public String getError() { return error; }
+    }
+
+    /** Progress of one import; counters are written by the job thread only. */
+    public static class Job {
+        private final String id;
+        private final String fileName;
+        private final StatementParser.Format format;
+        private final String profile;
+        private final long totalBytes;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile State state = State.QUEUED;
+        private volatile long bytesRead;
+        private volatile int records;
+        private volatile int inserted;
+        private volatile int duplicates;
+        private volatile int failed;
+        private volatile long startedNanos;
+        private volatile long elapsedMs;
+        private volatile String error;
+        private final List<RowError> errors = Collections.synchronizedList(new ArrayList<>());
+
+        Job(String id, String fileName, StatementParser.Format format, String profile, long totalBytes) {
+            this.id = id;
+            this.fileName = fileName;
+            this.format = format;
+            this.profile = profile;
+            this.totalBytes = totalBytes;
+        }
+
+        public String getId() { return id; }
+        public String getFileName() { return fileName; }
+        public StatementParser.Format getFormat() { return format; }
+        public String getProfile() { return profile; }
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public State getState() { return state; }
+        public long getTotalBytes() { return totalBytes; }
+        public long getBytesRead() { return bytesRead; }
+
+        public int getPercent() {
+            if (state == State.COMPLETED) {
+                return 100;
+            }
+            return totalBytes > 0 ? (int) Math.min(99, bytesRead * 100 / totalBytes) : 0;
+        }
+
+        public int getRecords() { return records; }
+        public int getInserted() { return inserted; }
+        public int getDuplicates() { return duplicates; }
+        public int getFailed() { return failed; }
+
+        public long getElapsedMs() {
+            return state == State.RUNNING ? (System.nanoTime() - startedNanos) / 1_000_000 : elapsedMs;
+        }
+
+        public long getRecordsPerSecond() {
+            long ms = getElapsedMs();
+            return ms > 0 ? records * 1000L / ms : records;
+        }
+
+        public String getError() { return error; }
+
+        public List<RowError> getErrors() {
+            synchronized (errors) {
+                return new ArrayList<>(errors);
+            }
+        }
+
+        void fail(int record, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(record, message));
+            }
+        }
+    }
+
+    @Autowired
+    public StatementImportService(TransactionRepository transactionRepository,
+                                  UserSettingsRepository userSettingsRepository,
+                                  EntityManager entityManager,
+                                  TransactionTemplate transactionTemplate,
+                                  ObjectMapper objectMapper,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${bulk.chunk-size:1000}") int batchSize,
+                                  @Value("${import.parse-threads:0}") int parseThreads) {
+        this.transactionRepository = transactionRepository;
+        this.userSettingsRepository = userSettingsRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = Math.max(1, batchSize);
+        this.parsePool = new ForkJoinPool(parseThreads > 0 ? parseThreads : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        parsePool.shutdownNow();
+    }
+
+    /**
+     * Copies the upload to a temp file (the request's own copy goes away when it completes)
+     * and queues the import. The format defaults to the file extension.
+     */
+    public Job submit(MultipartFile file, String format, String profileName) throws IOException {
+        StatementParser.Format resolved = format != null && !format.isBlank()
+                ? StatementParser.Format.valueOf(format.trim().toUpperCase())
+                : StatementParser.Format.fromFileName(file.getOriginalFilename());
+        ImportProfile profile = new ImportProfile();
+        if (profileName != null && !profileName.isBlank()) {
+            profile = getProfiles().get(profileName);
+            if (profile == null) {
+                throw new IllegalArgumentException("Unknown import profile: " + profileName);
+            }
+        }
+        // Fails fast on a profile that cannot work (e.g. column names without a header)
+        new StatementParser(resolved, profile);
+
+        Path tmp = Files.createTempFile("statement-", "." + resolved.name().toLowerCase());
+        file.transferTo(tmp);
+        Job job = new Job(UUID.randomUUID().toString(), file.getOriginalFilename(), resolved, profileName, Files.size(tmp));
+        remember(job);
+        ImportProfile chosen = profile;
+        try {
+            jobExecutor.execute(() -> {
+                try {
+                    run(job, tmp, chosen);
+                } finally {
+                    try {
+                        Files.deleteIfExists(tmp);
+                    } catch (IOException e) {
+                        System.err.println("Failed to delete import temp file " + tmp + ": " + e.getMessage());
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        return job;
+    }
+
+    public Job getJob(String id) {
+        return jobs.get(id);
+    }
+
+    public List<Job> getJobs() {
+        synchronized (jobs) {
+            return new ArrayList<>(jobs.values());
+        }
+    }
+
+    public Map<String, ImportProfile> getProfiles() {
+        return userSettingsRepository.findById(PROFILES_KEY)
+                .map(UserSettings::getSettingValue)
+                .map(json -> {
+                    try {
+                        return new TreeMap<>(objectMapper.readValue(json, PROFILES_TYPE));
+                    } catch (JsonProcessingException e) {
+                        System.err.println("Ignoring unreadable import profiles: " + e.getMessage());
+                        return new TreeMap<String, ImportProfile>();
+                    }
+                })
+                .orElseGet(TreeMap::new);
+    }
+
+    public synchronized ImportProfile saveProfile(String name, ImportProfile profile) throws JsonProcessingException {
+        Map<String, ImportProfile> profiles = getProfiles();
+        profiles.put(name, profile);
+        writeProfiles(profiles);
+        return profile;
+    }
+
+    public synchronized boolean deleteProfile(String name) throws JsonProcessingException {
+        Map<String, ImportProfile> profiles = getProfiles();
+        if (profiles.remove(name) == null) {
+            return false;
+        }
+        writeProfiles(profiles);
+        return true;
+    }
+
+    private void writeProfiles(Map<String, ImportProfile> profiles) throws JsonProcessingException {
+        userSettingsRepository.save(new UserSettings(PROFILES_KEY, objectMapper.writeValueAsString(profiles)));
+        eventPublisher.publishEvent(new SettingsEvent(PROFILES_KEY));
+    }
+
+    private void run(Job job, Path file, ImportProfile profile) {
+        job.startedNanos = System.nanoTime();
+        job.state = State.RUNNING;
+        StatementParser parser = new StatementParser(job.format, profile);
+        Writer writer = new Writer(job, profile);
+        try (InputStream in = new CountingInputStream(Files.newInputStream(file), job);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16)) {
+            StatementParser.RecordReader records = parser.reader(reader);
+            writer.records = records;
+            if (job.format == StatementParser.Format.CSV && profile.isHasHeader()) {
+                String header = records.next();
+                if (header != null) {
+                    parser.readHeader(header);
+                }
+            }
+
+            // Parsing runs ahead of the writer by at most this many chunks, so memory stays bounded
+            int maxInFlight = parsePool.getParallelism() * 2;
+            Deque<ForkJoinTask<List<StatementParser.Entry>>> inFlight = new ArrayDeque<>();
+            List<String> chunk = new ArrayList<>(RECORDS_PER_CHUNK);
+            int firstRecord = 1;
+            String record;
+            while ((record = records.next()) != null) {
+                chunk.add(record);
+                if (chunk.size() == RECORDS_PER_CHUNK) {
+                    inFlight.add(parsePool.submit(parseTask(parser, chunk, firstRecord)));
+                    firstRecord += chunk.size();
+                    chunk = new ArrayList<>(RECORDS_PER_CHUNK);
+                    if (inFlight.size() >= maxInFlight) {
+                        writer.accept(inFlight.poll().join());
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                inFlight.add(parsePool.submit(parseTask(parser, chunk, firstRecord)));
+            }
+            while (!inFlight.isEmpty()) {
+                writer.accept(inFlight.poll().join());
+            }
+            writer.flush();
+            job.state = State.COMPLETED;
+        } catch (Exception e) {
+            job.error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            job.state = State.FAILED;
+            System.err.println("Statement import " + job.id + " failed: " + job.error);
+        } finally {
+            job.elapsedMs = (System.nanoTime() - job.startedNanos) / 1_000_000;
+            if (job.inserted > 0) {
+                eventPublisher.publishEvent(TransactionEvent.bulkImported());
+            }
+        }
+    }
+
+    private static Callable<List<StatementParser.Entry>> parseTask(
+            StatementParser parser, List<String> chunk, int firstRecord) {
+        return () -> {
+            List<StatementParser.Entry> entries = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                entries.add(parser.parse(firstRecord + i, chunk.get(i)));
+            }
+            return entries;
+        };
+    }
+
+    // Turns parsed entries into transactions in file order and inserts them in batches
+    private class Writer {
+        private final Job job;
+        private final ImportProfile profile;
+        private StatementParser.RecordReader records;
+        // Identical lines in one file (two equal coffees on one day) are told apart by occurrence
+        private final Map<String, Integer> occurrences = new HashMap<>();
+        private final List<Transaction> pending = new ArrayList<>();
+        private final List<Integer> pendingRecords = new ArrayList<>();
+
+        Writer(Job job, ImportProfile profile) {
+            this.job = job;
+            this.profile = profile;
+        }
+
+        void accept(List<StatementParser.Entry> entries) {
+            for (StatementParser.Entry entry : entries) {
+                job.records++;
+                if (entry.error != null) {
+                    job.fail(entry.record, entry.error);
+                    continue;
+                }
+                int occurrence = occurrences.merge(entry.contentKey, 1, Integer::sum);
+                pending.add(toTransaction(entry, occurrence));
+                pendingRecords.add(entry.record);
+                if (pending.size() >= batchSize) {
+                    flush();
+                }
+            }
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            try {
+                int[] counts = transactionTemplate.execute(status -> {
+                    Set<String> existing = new HashSet<>(transactionRepository.findExistingIds(
+                            pending.stream().map(Transaction::getId).collect(Collectors.toList())));
+                    int inserted = 0;
+                    for (Transaction tx : pending) {
+                        if (!existing.contains(tx.getId())) {
+                            entityManager.persist(tx);
+                            inserted++;
+                        }
+                    }
+                    entityManager.flush();
+                    return new int[]{inserted, existing.size()};
+                });
+                job.inserted += counts[0];
+                job.duplicates += counts[1];
+            } catch (RuntimeException e) {
+                String message = "batch rolled back: " + e.getMessage();
+                for (int record : pendingRecords) {
+                    job.fail(record, message);
+                }
+            } finally {
+                pending.clear();
+                pendingRecords.clear();
+            }
+        }
+
+        private Transaction toTransaction(StatementParser.Entry entry, int occurrence) {
+            Transaction tx = new Transaction();
+            tx.setId(ID_PREFIX + entry.contentKey + (occurrence > 1 ? "-" + occurrence : ""));
+            tx.setDate(entry.date);
+            tx.setAmount(entry.amount.abs());
+            tx.setType(entry.amount.signum() < 0 ? Transaction.TransactionType.EXPENSE : Transaction.TransactionType.INCOME);
+            tx.setCategory(entry.category);
+            tx.setDescription(entry.description);
+            String currency = entry.currency != null ? entry.currency
+                    : records != null && records.currency() != null ? records.currency() : profile.getCurrency();
+            if (currency != null) {
+                tx.setCurrency(currency.toUpperCase());
+            }
+            tx.setCreatedAt(LocalDateTime.now());
+            return tx;
+        }
+    }
+
+    private void remember(Job job) {
+        synchronized (jobs) {
+            jobs.put(job.id, job);
+            // Drop the oldest finished jobs once the list is full
+            Iterator<Job> it = jobs.values().iterator();
+            while (jobs.size() > MAX_JOBS_KEPT && it.hasNext()) {
+                Job oldest = it.next();
+                if (oldest.state == State.COMPLETED || oldest.state == State.FAILED) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    // Tracks how far into the file the reader is, for progress
+    private static class CountingInputStream extends FilterInputStream {
+        private final Job job;
+        private long count;
+
+        CountingInputStream(InputStream in, Job job) {
+            super(in);
+            this.job = job;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                job.bytesRead = ++count;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+                job.bytesRead = count;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,509 @@
+package com.pankaj.budgetapp.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads bank statement exports (CSV, OFX, QIF) in two stages. A {@link RecordReader} splits
+ * the character stream into raw records on one thread. {@link #parse} then turns records into
+ * entries; it is stateless once the CSV header is read, so chunks of records can be parsed in
+ * parallel.
+ */
+public class StatementParser {
+
+    public enum Format {
+        CSV,
+        OFX,
+        QIF;
+
+        public static Format fromFileName(String fileName) {
+            String name = fileName != null ? fileName.toLowerCase(Locale.ROOT) : "";
+            if (name.endsWith(".ofx") || name.endsWith(".qfx")) {
+                return OFX;
+            }
+            if (name.endsWith(".qif")) {
+                return QIF;
+            }
+            if (name.endsWith(".csv") || name.endsWith(".txt")) {
+                return CSV;
+            }
+            throw new IllegalArgumentException("Cannot tell the statement format from file name: " + fileName);
+        }
+    }
+
+    // Tried after the profile's own date format, US order first
+    private static final DateTimeFormatter[] FALLBACK_DATE_FORMATS = {
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("M/d/yyyy"),
+            DateTimeFormatter.ofPattern("M/d/yy"),
+            DateTimeFormatter.ofPattern("d.M.yyyy"),
+            DateTimeFormatter.ofPattern("yyyyMMdd")
+    };
+    // Hex digits of the content hash kept in ids (96 bits)
+    private static final int HASH_HEX_LENGTH = 24;
+    private static final int OFX_TAIL_KEPT = 64;
+
+    /** One statement line. Either {@code error} is set or date and amount are. */
+    public static class Entry {
+        int record;
+        LocalDate date;
+        // Signed as in the statement: negative is money going out (after profile sign rules)
+        BigDecimal amount;
+        String description;
+        String category;
+        String currency;
+        // The bank's own transaction id (OFX FITID), if any
+        String fitId;
+        // Hash of the entry's content; identical lines share it
+        String contentKey;
+        String error;
+
+        static Entry failed(int record, String error) {
+            Entry entry = new Entry();
+            entry.record = record;
+            entry.error = error;
+            return entry;
+        }
+    }
+
+    /** Returns raw records one at a time, or null at the end of input. Not thread-safe. */
+    public interface RecordReader {
+        String next() throws IOException;
+
+        // Statement-level currency if the file declares one (OFX CURDEF), else null
+        default String currency() {
+            return null;
+        }
+    }
+
+    private final Format format;
+    private final ImportProfile profile;
+    private final char delimiter;
+    private final DateTimeFormatter dateFormat;
+    private int dateColumn = -1;
+    private int amountColumn = -1;
+    private int debitColumn = -1;
+    private int creditColumn = -1;
+    private int descriptionColumn = -1;
+    private int categoryColumn = -1;
+    private int currencyColumn = -1;
+
+    public StatementParser(Format format, ImportProfile profile) {
+        this.format = format;
+        this.profile = profile;
+        this.delimiter = "\\t".equals(profile.getDelimiter()) ? '\t'
+                : profile.getDelimiter() != null && !profile.getDelimiter().isEmpty() ? profile.getDelimiter().charAt(0) : ',';
+        this.dateFormat = DateTimeFormatter.ofPattern(profile.getDateFormat() != null ? profile.getDateFormat() : "yyyy-MM-dd");
+        if (format == Format.CSV && !profile.isHasHeader()) {
+            resolveColumns(null);
+        }
+    }
+
+    public RecordReader reader(BufferedReader in) {
+        switch (format) {
+            case OFX:
+                return new OfxRecordReader(in);
+            case QIF:
+                return new QifRecordReader(in);
+            default:
+                return new CsvRecordReader(in);
+        }
+    }
+
+    // Maps the profile's column names onto positions in the CSV header record
+    public void readHeader(String header) {
+        resolveColumns(splitCsv(header.startsWith("\uFEFF") ? header.substring(1) : header, delimiter));
+    }
+
+    public Entry parse(int record, String raw) {
+        try {
+            Entry entry;
+            switch (format) {
+                case OFX:
+                    entry = parseOfx(raw);
+                    break;
+                case QIF:
+                    entry = parseQif(raw);
+                    break;
+                default:
+                    entry = parseCsv(raw);
+            }
+            entry.record = record;
+            if (entry.date == null) {
+                return Entry.failed(record, "missing date");
+            }
+            if (entry.amount == null) {
+                return Entry.failed(record, "missing amount");
+            }
+            if (entry.category == null || entry.category.isBlank()) {
+                entry.category = profile.getDefaultCategory();
+            }
+            entry.contentKey = contentKey(entry);
+            return entry;
+        } catch (RuntimeException e) {
+            return Entry.failed(record, e.getMessage());
+        }
+    }
+
+    private void resolveColumns(List<String> header) {
+        dateColumn = column(header, profile.getDateColumn());
+        amountColumn = column(header, profile.getAmountColumn());
+        debitColumn = column(header, profile.getDebitColumn());
+        creditColumn = column(header, profile.getCreditColumn());
+        descriptionColumn = column(header, profile.getDescriptionColumn());
+        categoryColumn = column(header, profile.getCategoryColumn());
+        currencyColumn = column(header, profile.getCurrencyColumn());
+        if (dateColumn < 0) {
+            throw new IllegalArgumentException("Date column not found: " + profile.getDateColumn());
+        }
+        if (amountColumn < 0 && debitColumn < 0 && creditColumn < 0) {
+            throw new IllegalArgumentException("Amount column not found: " + profile.getAmountColumn());
+        }
+    }
+
+    private static int column(List<String> header, String name) {
+        if (name == null || name.isBlank()) {
+            return -1;
+        }
+        if (header == null) {
+            try {
+                return Integer.parseInt(name.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Without a header, columns must be indexes: " + name);
+            }
+        }
+        for (int i = 0; i < header.size(); i++) {
+            if (header.get(i).trim().equalsIgnoreCase(name.trim())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Entry parseCsv(String raw) {
+        List<String> fields = splitCsv(raw, delimiter);
+        Entry entry = new Entry();
+        entry.date = parseDate(field(fields, dateColumn));
+        if (amountColumn >= 0) {
+            entry.amount = signed(parseAmount(field(fields, amountColumn)));
+        } else {
+            BigDecimal credit = parseAmount(field(fields, creditColumn));
+            BigDecimal debit = parseAmount(field(fields, debitColumn));
+            if (credit != null || debit != null) {
+                entry.amount = (credit != null ? credit.abs() : BigDecimal.ZERO)
+                        .subtract(debit != null ? debit.abs() : BigDecimal.ZERO);
+            }
+        }
+        entry.description = field(fields, descriptionColumn);
+        entry.category = field(fields, categoryColumn);
+        entry.currency = field(fields, currencyColumn);
+        return entry;
+    }
+
+    private Entry parseQif(String raw) {
+        Entry entry = new Entry();
+        String payee = null;
+        String memo = null;
+        for (String line : raw.split("\n")) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            String value = line.substring(1).trim();
+            switch (line.charAt(0)) {
+                case 'D':
+                    // Quicken writes years after 2000 as 1/15'24
+                    entry.date = parseDate(value.replace('\'', '/').replace(' ', '0'));
+                    break;
+                case 'T':
+                case 'U':
+                    entry.amount = signed(parseAmount(value));
+                    break;
+                case 'P':
+                    payee = value;
+                    break;
+                case 'M':
+                    memo = value;
+                    break;
+                case 'L':
+                    // Transfers are written as [Account]; keep just the name
+                    entry.category = value.replace("[", "").replace("]", "");
+                    break;
+                default:
+                    break;
+            }
+        }
+        entry.description = payee != null && !payee.isEmpty() ? payee : memo;
+        return entry;
+    }
+
+    private Entry parseOfx(String raw) {
+        Entry entry = new Entry();
+        String posted = ofxValue(raw, "DTPOSTED");
+        if (posted != null && posted.length() >= 8) {
+            entry.date = LocalDate.parse(posted.substring(0, 8), DateTimeFormatter.BASIC_ISO_DATE);
+        }
+        String amount = ofxValue(raw, "TRNAMT");
+        if (amount != null) {
+            // OFX amounts are always signed from the account holder's side
+            entry.amount = new BigDecimal(amount.indexOf('.') < 0 ? amount.replace(',', '.') : amount.replace(",", ""));
+        }
+        String name = ofxValue(raw, "NAME");
+        entry.description = name != null ? name : ofxValue(raw, "MEMO");
+        entry.currency = ofxValue(raw, "CURRENCY");
+        entry.fitId = ofxValue(raw, "FITID");
+        return entry;
+    }
+
+    // Value of an OFX element: text after <TAG> up to the next tag or line end
+    private static String ofxValue(String raw, String tag) {
+        int start = raw.indexOf("<" + tag + ">");
+        if (start < 0) {
+            return null;
+        }
+        start += tag.length() + 2;
+        int end = start;
+        while (end < raw.length() && raw.charAt(end) != '<' && raw.charAt(end) != '\n' && raw.charAt(end) != '\r') {
+            end++;
+        }
+        String value = raw.substring(start, end).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private LocalDate parseDate(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        String value = text.trim();
+        try {
+            return LocalDate.parse(value, dateFormat);
+        } catch (DateTimeParseException e) {
+            for (DateTimeFormatter fallback : FALLBACK_DATE_FORMATS) {
+                try {
+                    return LocalDate.parse(value, fallback);
+                } catch (DateTimeParseException ignored) {
+                    // try the next one
+                }
+            }
+            throw new IllegalArgumentException("Unreadable date: " + value);
+        }
+    }
+
+    // Accepts "1,234.56", "(12.00)", "-12", "$12.00", and "1.234,56" when the profile says so
+    private BigDecimal parseAmount(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean negative = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                sb.append(c);
+            } else if (c == '-' || c == '(') {
+                negative = true;
+            } else if (c == '.' || c == ',') {
+                boolean decimalPoint = profile.isDecimalComma() ? c == ',' : c == '.';
+                if (decimalPoint) {
+                    sb.append('.');
+                }
+            }
+        }
+        if (sb.length() == 0) {
+            throw new IllegalArgumentException("Unreadable amount: " + text);
+        }
+        BigDecimal amount = new BigDecimal(sb.toString());
+        return negative ? amount.negate() : amount;
+    }
+
+    // Card statements list charges as positive amounts; flip them so negative always means outgoing
+    private BigDecimal signed(BigDecimal amount) {
+        return amount != null && !profile.isNegativeIsExpense() ? amount.negate() : amount;
+    }
+
+    private static String field(List<String> fields, int index) {
+        if (index < 0 || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    static List<String> splitCsv(String line, char delimiter) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    // Same date, amount and normalized description give the same key; OFX adds the bank's FITID
+    private static String contentKey(Entry entry) {
+        String basis = entry.date + "|" + entry.amount.stripTrailingZeros().toPlainString() + "|"
+                + (entry.description != null
+                        ? entry.description.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT) : "")
+                + (entry.fitId != null ? "|" + entry.fitId : "");
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(basis.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest).substring(0, HASH_HEX_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // One record per line, except that a quoted field may span lines
+    private static class CsvRecordReader implements RecordReader {
+        private final BufferedReader in;
+
+        CsvRecordReader(BufferedReader in) {
+            this.in = in;
+        }
+
+        @Override
+        public String next() throws IOException {
+            String line;
+            do {
+                line = in.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            if (quoteCount(line) % 2 == 0) {
+                return line;
+            }
+            StringBuilder record = new StringBuilder(line);
+            int quotes = quoteCount(line);
+            while (quotes % 2 != 0 && (line = in.readLine()) != null) {
+                record.append('\n').append(line);
+                quotes += quoteCount(line);
+            }
+            return record.toString();
+        }
+
+        private static int quoteCount(String line) {
+            int count = 0;
+            for (int i = 0; i < line.length(); i++) {
+                if (line.charAt(i) == '"') {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    // Records end with a line holding just "^"; "!Type:" and other header lines are skipped
+    private static class QifRecordReader implements RecordReader {
+        private final BufferedReader in;
+
+        QifRecordReader(BufferedReader in) {
+            this.in = in;
+        }
+
+        @Override
+        public String next() throws IOException {
+            StringBuilder record = new StringBuilder();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.equals("^")) {
+                    if (record.length() > 0) {
+                        return record.toString();
+                    }
+                } else if (!trimmed.isEmpty() && !trimmed.startsWith("!")) {
+                    record.append(trimmed).append('\n');
+                }
+            }
+            return record.length() > 0 ? record.toString() : null;
+        }
+    }
+
+    // Cuts <STMTTRN>...</STMTTRN> blocks out of the stream; does not depend on line breaks,
+    // since some banks write the whole file on one line
+    private static class OfxRecordReader implements RecordReader {
+        private static final String OPEN = "<STMTTRN>";
+        private static final String CLOSE = "</STMTTRN>";
+
+        private final BufferedReader in;
+        private final StringBuilder buffer = new StringBuilder();
+        private final char[] chunk = new char[8192];
+        private String currency;
+
+        OfxRecordReader(BufferedReader in) {
+            this.in = in;
+        }
+
+        @Override
+        public String next() throws IOException {
+            while (true) {
+                int start = buffer.indexOf(OPEN);
+                if (start >= 0) {
+                    int end = buffer.indexOf(CLOSE, start);
+                    if (end >= 0) {
+                        scanCurrency(start);
+                        String record = buffer.substring(start + OPEN.length(), end);
+                        buffer.delete(0, end + CLOSE.length());
+                        return record;
+                    }
+                } else if (buffer.length() > OFX_TAIL_KEPT) {
+                    // Nothing to keep but a possible partial tag at the end
+                    int drop = buffer.length() - OFX_TAIL_KEPT;
+                    scanCurrency(drop);
+                    buffer.delete(0, drop);
+                }
+                int read = in.read(chunk);
+                if (read < 0) {
+                    return null;
+                }
+                buffer.append(chunk, 0, read);
+            }
+        }
+
+        @Override
+        public String currency() {
+            return currency;
+        }
+
+        // Picks up <CURDEF> in text that is about to be discarded
+        private void scanCurrency(int limit) {
+            int at = buffer.indexOf("<CURDEF>");
+            if (at >= 0 && at < limit) {
+                String value = ofxValue(buffer.toString(), "CURDEF");
+                if (value != null) {
+                    currency = value;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.pankaj.budgetapp.service;
+
+import com.pankaj.budgetapp.entity.Asset;
+import com.pankaj.budgetapp.event.AssetEvent;
+import com.pankaj.budgetapp.repository.AssetRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Storage locations as a prefix tree. "Home/Bedroom/Locker" (also split on '\' and '>') is the
+ * path Home -> Bedroom -> Locker; segments match case-insensitively and keep the spelling first
+ * seen. Every node carries the number of assets and the sum of getTotalValue() for its whole
+ * subtree, so "what is in the Bedroom and what is it worth" is a walk of the path's depth.
+ * Assets without a location count only at the root. Writes adjust the counters along the old
+ * and new paths. Built at startup and kept current from committed AssetEvents.
+ */
+@Service
+public class StorageLocationTree {
+
+    private static final String SEPARATORS = "[/\\\\>]";
+
+    private final AssetRepository assetRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Node root = new Node("", "");
+    // What each asset currently contributes, so an update can take it back out
+    private final Map<Long, Placement> placements = new HashMap<>();
+
+    private static final class Placement {
+        private final List<String> segments;
+        private final BigDecimal value;
+
+        Placement(List<String> segments, BigDecimal value) {
+            this.segments = segments;
+            this.value = value;
+        }
+    }
+
+    private static final class Node {
+        private final String name;
+        private final String path;
+        private int count;
+        private BigDecimal totalValue = BigDecimal.ZERO;
+        // Assets stored at exactly this location
+        private final Set<Long> assetIds = new LinkedHashSet<>();
+        // Keyed by lowercase segment
+        private final TreeMap<String, Node> children = new TreeMap<>();
+
+        Node(String name, String path) {
+            this.name = name;
+            this.path = path;
+        }
+    }
+
+    /** Read-only copy of a node and, down to the requested depth, its children. */
+    public static class LocationSummary {
+        private String name;
+        private String path;
+        private int count;
+        private int directCount;
+        private BigDecimal totalValue;
+        private int childCount;
+        private List<LocationSummary> children = new ArrayList<>();
+
+        public String getName() { return name; }
+        public String getPath() { return path; }
+        // Assets in this location and everything below it
+        public int getCount() { return count; }
+        // Assets stored at exactly this location
+        public int getDirectCount() { return directCount; }
+        public BigDecimal getTotalValue() { return totalValue; }
+        public int getChildCount() { return childCount; }
+        public List<LocationSummary> getChildren() { return children; }
+    }
+
+    @Autowired
+    public StorageLocationTree(AssetRepository assetRepository) {
+        this.assetRepository = assetRepository;
+    }
+
+    // Whole tree, children expanded down to depth levels (negative for unlimited)
+    public LocationSummary getTree(int depth) {
+        lock.readLock().lock();
+        try {
+            return summarize(root, depth);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The node at path with children down to depth levels, or null if no asset is stored there
+    public LocationSummary getSubtree(String path, int depth) {
+        lock.readLock().lock();
+        try {
+            Node node = find(split(path));
+            return node != null ? summarize(node, depth) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids of every asset stored at path or below it; empty if the path is unknown
+    public List<Long> getAssetIds(String path) {
+        lock.readLock().lock();
+        try {
+            List<Long> ids = new ArrayList<>();
+            Node node = find(split(path));
+            if (node != null) {
+                collect(node, ids);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Asset> all;
+        // Read under the write lock so an event committed meanwhile is applied after the rebuild, not lost
+        lock.writeLock().lock();
+        try {
+            all = assetRepository.findAll();
+            root = new Node("", "");
+            placements.clear();
+            for (Asset asset : all) {
+                place(asset);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("Storage location tree loaded: " + all.size() + " assets");
+    }
+
+    @Order(DataVersions.READ_MODEL_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetEvent(AssetEvent event) {
+        if (event.getKind() == AssetEvent.Kind.BULK_IMPORTED) {
+            load();
+            return;
+        }
+        Asset asset = event.getAsset();
+        if (asset == null || asset.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            unplace(asset.getId());
+            if (event.getKind() != AssetEvent.Kind.DELETED) {
+                place(asset);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void place(Asset asset) {
+        if (asset.getId() == null) {
+            return;
+        }
+        List<String> segments = split(asset.getStorageLocation());
+        BigDecimal value = asset.getTotalValue();
+        placements.put(asset.getId(), new Placement(segments, value));
+        Node node = root;
+        add(node, value, 1);
+        StringBuilder path = new StringBuilder();
+        for (String segment : segments) {
+            path.append(path.length() > 0 ? "/" : "").append(segment);
+            String key = segment.toLowerCase(Locale.ROOT);
+            String nodePath = path.toString();
+            node = node.children.computeIfAbsent(key, k -> new Node(segment, nodePath));
+            add(node, value, 1);
+        }
+        node.assetIds.add(asset.getId());
+    }
+
+    private void unplace(Long id) {
+        Placement placement = placements.remove(id);
+        if (placement == null) {
+            return;
+        }
+        Node node = root;
+        add(node, placement.value, -1);
+        for (String segment : placement.segments) {
+            Node parent = node;
+            String key = segment.toLowerCase(Locale.ROOT);
+            node = parent.children.get(key);
+            add(node, placement.value, -1);
+            if (node.count == 0) {
+                // Nothing left below; dropping it lets a later asset pick the spelling afresh
+                parent.children.remove(key);
+            }
+        }
+        node.assetIds.remove(id);
+    }
+
+    private static void add(Node node, BigDecimal value, int sign) {
+        node.count += sign;
+        node.totalValue = sign > 0 ? node.totalValue.add(value) : node.totalValue.subtract(value);
+    }
+
+    private Node find(List<String> segments) {
+        Node node = root;
+        for (String segment : segments) {
+            node = node.children.get(segment.toLowerCase(Locale.ROOT));
+            if (node == null) {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    private static void collect(Node node, List<Long> ids) {
+        ids.addAll(node.assetIds);
+        for (Node child : node.children.values()) {
+            collect(child, ids);
+        }
+    }
+
+    private static LocationSummary summarize(Node node, int depth) {
+        LocationSummary summary = new LocationSummary();
+        summary.name = node.name;
+        summary.path = node.path;
+        summary.count = node.count;
+        summary.directCount = node.assetIds.size();
+        summary.totalValue = node.totalValue;
+        summary.childCount = node.children.size();
+        if (depth != 0) {
+            for (Node child : node.children.values()) {
+                summary.children.add(summarize(child, depth - 1));
+            }
+        }
+        return summary;
+    }
+
+    static List<String> split(String location) {
+        List<String> segments = new ArrayList<>();
+        if (location == null) {
+            return segments;
+        }
+        for (String part : location.split(SEPARATORS)) {
+            String segment = part.trim();
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        return segments;
+    }
+}
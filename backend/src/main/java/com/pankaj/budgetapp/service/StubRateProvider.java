@@ -0,0 +1,83 @@
+package com.pankaj.budgetapp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Offline provider for load tests and CI: serves USD-based rates from a JSON file
+ * ({@code fx.stub-file}, shaped like {"rates": {...}, "symbols": {...}}) or a small built-in set.
+ * Enable with {@code fx.providers=stub}.
+ */
+@Component
+public class StubRateProvider implements RateProvider {
+
+    private static final Map<String, Double> DEFAULT_RATES = Map.of(
+            "USD", 1.0,
+            "EUR", 0.92,
+            "GBP", 0.79,
+            "INR", 83.2,
+            "JPY", 149.5
+    );
+
+    private static final Map<String, String> DEFAULT_SYMBOLS = Map.of(
+            "USD", "US Dollar",
+            "EUR", "Euro",
+            "GBP", "British Pound",
+            "INR", "Indian Rupee",
+            "JPY", "Japanese Yen"
+    );
+
+    @Value("${fx.stub-file:}")
+    private String stubFile;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Override
+    public String getName() {
+        return "stub";
+    }
+
+    @Override
+    public Map<String, Double> fetchLatestRates(String baseCurrency) throws Exception {
+        Map<String, Double> usdRates = new HashMap<>(DEFAULT_RATES);
+        JsonNode root = readStubFile();
+        if (root != null && root.has("rates")) {
+            usdRates.clear();
+            JsonNode ratesNode = root.path("rates");
+            ratesNode.fieldNames().forEachRemaining(code -> usdRates.put(code, ratesNode.path(code).asDouble()));
+            usdRates.putIfAbsent("USD", 1.0);
+        }
+        Double baseRate = usdRates.get(baseCurrency.toUpperCase());
+        if (baseRate == null || baseRate == 0) {
+            throw new IllegalArgumentException("Stub has no rate for " + baseCurrency);
+        }
+        Map<String, Double> rates = new HashMap<>();
+        usdRates.forEach((code, rate) -> rates.put(code, rate / baseRate));
+        return rates;
+    }
+
+    @Override
+    public Map<String, String> fetchSymbols() throws Exception {
+        JsonNode root = readStubFile();
+        if (root == null || !root.has("symbols")) {
+            return DEFAULT_SYMBOLS;
+        }
+        JsonNode symbolsNode = root.path("symbols");
+        Map<String, String> map = new HashMap<>();
+        symbolsNode.fieldNames().forEachRemaining(code -> map.put(code, symbolsNode.path(code).asText()));
+        return map;
+    }
+
+    private JsonNode readStubFile() throws Exception {
+        if (stubFile == null || stubFile.isBlank()) {
+            return null;
+        }
+        return mapper.readTree(new File(stubFile));
+    }
+}
@@ -0,0 +1,468 @@
+package com.pankaj.budgetapp.service;
+
+import com.pankaj.budgetapp.entity.Transaction;
+import com.pankaj.budgetapp.event.TransactionEvent;
+import com.pankaj.budgetapp.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory faceted search over the transactions table. Every transaction gets a row number;
+ * there is one RowBitmap per category, type, currency, month and description word, so a query
+ * is an intersection of a few bitmaps followed by a check of the date and amount columns for
+ * the surviving rows. Facet counts for a dimension are intersection sizes computed with every
+ * filter except that dimension's own, so the client can show how many rows each alternative
+ * would give. Built at startup and kept current from committed TransactionEvents.
+ */
+@Service
+public class TransactionSearchIndex {
+
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int LOAD_PAGE_SIZE = 5000;
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    private enum Dimension { CATEGORY, TYPE, CURRENCY, MONTH }
+
+    private final TransactionRepository transactionRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Transaction[] rows = new Transaction[INITIAL_CAPACITY];
+    private long[] amounts = new long[INITIAL_CAPACITY];
+    private int[] days = new int[INITIAL_CAPACITY];
+    private int size;
+    private int deletedRows;
+    private final Map<String, Integer> rowById = new HashMap<>();
+    private RowBitmap live = new RowBitmap();
+    private final Map<String, RowBitmap> byCategory = new HashMap<>();
+    private final Map<String, RowBitmap> byType = new HashMap<>();
+    private final Map<String, RowBitmap> byCurrency = new HashMap<>();
+    // Keyed by YearMonth.toString(), e.g. "2024-03"; sorted so date ranges are a subMap
+    private final TreeMap<String, RowBitmap> byMonth = new TreeMap<>();
+    // Description words; sorted so a query term matches every word it is a prefix of
+    private final TreeMap<String, RowBitmap> byTerm = new TreeMap<>();
+    private volatile boolean loaded;
+
+    /** Filters for one search; null or empty fields are not applied. */
+    public static class Query {
+        private List<String> categories;
+        private String type;
+        private String currency;
+        private LocalDate from;
+        private LocalDate to;
+        private BigDecimal minAmount;
+        private BigDecimal maxAmount;
+        private String text;
+        private int offset;
+        private int limit = DEFAULT_LIMIT;
+
+        public List<String> getCategories() { return categories; }
+        public void setCategories(List<String> categories) { this.categories = categories; }
+        public String getType() { return type; }
+        public void setType(String type) { this.type = type; }
+        public String getCurrency() { return currency; }
+        public void setCurrency(String currency) { this.currency = currency; }
+        public LocalDate getFrom() { return from; }
+        public void setFrom(LocalDate from) { this.from = from; }
+        public LocalDate getTo() { return to; }
+        public void setTo(LocalDate to) { this.to = to; }
+        public BigDecimal getMinAmount() { return minAmount; }
+        public void setMinAmount(BigDecimal minAmount) { this.minAmount = minAmount; }
+        public BigDecimal getMaxAmount() { return maxAmount; }
+        public void setMaxAmount(BigDecimal maxAmount) { this.maxAmount = maxAmount; }
+        public String getText() { return text; }
+        public void setText(String text) { this.text = text; }
+        public int getOffset() { return offset; }
+        public void setOffset(int offset) { this.offset = Math.max(0, offset); }
+        public int getLimit() { return limit; }
+        public void setLimit(int limit) { this.limit = Math.max(1, Math.min(MAX_LIMIT, limit)); }
+    }
+
+    /** One page of matches, newest first, with facet counts over all matches. */
+    public static class Result {
+        private int total;
+        private int offset;
+        private int limit;
+        private BigDecimal totalAmount = BigDecimal.ZERO;
+        private List<Transaction> transactions = new ArrayList<>();
+        private Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+
+        public int getTotal() { return total; }
+        public int getOffset() { return offset; }
+        public int getLimit() { return limit; }
+        // Plain sum of matching amounts across currencies; convert per currency facet if mixed
+        public BigDecimal getTotalAmount() { return totalAmount; }
+        public List<Transaction> getTransactions() { return transactions; }
+        public Map<String, Map<String, Integer>> getFacets() { return facets; }
+    }
+
+    @Autowired
+    public TransactionSearchIndex(TransactionRepository transactionRepository) {
+        this.transactionRepository = transactionRepository;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public Result search(Query query) {
+        int fromDay = query.from != null ? (int) query.from.toEpochDay() : NO_DATE;
+        int toDay = query.to != null ? (int) query.to.toEpochDay() : Integer.MAX_VALUE;
+        long minAmount = query.minAmount != null ? toMinorUnits(query.minAmount) : Long.MIN_VALUE;
+        long maxAmount = query.maxAmount != null ? toMinorUnits(query.maxAmount) : Long.MAX_VALUE;
+        boolean columnFilter = query.from != null || query.to != null
+                || query.minAmount != null || query.maxAmount != null;
+        lock.readLock().lock();
+        try {
+            Map<Dimension, RowBitmap> filters = new HashMap<>();
+            if (query.categories != null && !query.categories.isEmpty()) {
+                filters.put(Dimension.CATEGORY, union(byCategory, query.categories));
+            }
+            if (query.type != null && !query.type.isBlank()) {
+                filters.put(Dimension.TYPE, union(byType, List.of(query.type.trim().toUpperCase(Locale.ROOT))));
+            }
+            if (query.currency != null && !query.currency.isBlank()) {
+                filters.put(Dimension.CURRENCY,
+                        union(byCurrency, List.of(query.currency.trim().toUpperCase(Locale.ROOT))));
+            }
+            if (query.from != null || query.to != null) {
+                // Whole months overlapping the range; the day column trims the edges afterwards
+                String fromKey = query.from != null ? YearMonth.from(query.from).toString() : "0000-01";
+                String toKey = query.to != null ? YearMonth.from(query.to).toString() : "9999-12";
+                filters.put(Dimension.MONTH, fromKey.compareTo(toKey) > 0 ? new RowBitmap()
+                        : union(byMonth, byMonth.subMap(fromKey, true, toKey, true).keySet()));
+            }
+            RowBitmap textFilter = termFilter(query.text);
+
+            RowBitmap matches = intersect(filters, textFilter, null);
+            if (columnFilter) {
+                matches = checkColumns(matches, fromDay, toDay, minAmount, maxAmount);
+            }
+
+            Result result = new Result();
+            result.offset = query.offset;
+            result.limit = query.limit;
+            result.total = matches.cardinality();
+            result.transactions = page(matches, query.offset, query.limit);
+            long[] sum = new long[1];
+            matches.forEach(row -> sum[0] += amounts[row]);
+            result.totalAmount = BigDecimal.valueOf(sum[0], 2);
+
+            result.facets.put("category", facet(byCategory, filters, textFilter, Dimension.CATEGORY,
+                    columnFilter, fromDay, toDay, minAmount, maxAmount));
+            result.facets.put("type", facet(byType, filters, textFilter, Dimension.TYPE,
+                    columnFilter, fromDay, toDay, minAmount, maxAmount));
+            result.facets.put("currency", facet(byCurrency, filters, textFilter, Dimension.CURRENCY,
+                    columnFilter, fromDay, toDay, minAmount, maxAmount));
+            // Months are counted within the other filters but also within the date range
+            result.facets.put("month", facetCounts(byMonth, matches));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getRowCount() {
+        lock.readLock().lock();
+        try {
+            return size - deletedRows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            clear();
+            int page = 0;
+            Page<Transaction> batch;
+            do {
+                batch = transactionRepository.findAll(PageRequest.of(page++, LOAD_PAGE_SIZE, Sort.by("id")));
+                for (Transaction transaction : batch) {
+                    upsert(transaction);
+                }
+            } while (batch.hasNext());
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("Transaction search index loaded: " + getRowCount() + " transactions, "
+                + byTerm.size() + " terms");
+    }
+
+    @Order(DataVersions.READ_MODEL_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionEvent(TransactionEvent event) {
+        if (event.getKind() == TransactionEvent.Kind.BULK_IMPORTED) {
+            load();
+            return;
+        }
+        Transaction transaction = event.getTransaction();
+        if (transaction == null || transaction.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (event.getKind() == TransactionEvent.Kind.DELETED) {
+                delete(transaction.getId());
+            } else {
+                upsert(transaction);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Live rows passing every filter except the one for skip (if any), smallest bitmap first
+    private RowBitmap intersect(Map<Dimension, RowBitmap> filters, RowBitmap textFilter, Dimension skip) {
+        List<RowBitmap> parts = new ArrayList<>();
+        filters.forEach((dimension, bitmap) -> {
+            if (dimension != skip) {
+                parts.add(bitmap);
+            }
+        });
+        if (textFilter != null) {
+            parts.add(textFilter);
+        }
+        if (parts.isEmpty()) {
+            return live;
+        }
+        parts.sort((a, b) -> Integer.compare(a.cardinality(), b.cardinality()));
+        RowBitmap result = parts.get(0);
+        for (int i = 1; i < parts.size() && !result.isEmpty(); i++) {
+            result = result.and(parts.get(i));
+        }
+        // Filter bitmaps only ever hold live rows, so no need to AND with live
+        return result;
+    }
+
+    private RowBitmap checkColumns(RowBitmap candidates, int fromDay, int toDay, long minAmount, long maxAmount) {
+        RowBitmap out = new RowBitmap();
+        candidates.forEach(row -> {
+            int day = days[row];
+            long amount = amounts[row];
+            if (day >= fromDay && day <= toDay && amount >= minAmount && amount <= maxAmount) {
+                out.add(row);
+            }
+        });
+        return out;
+    }
+
+    private Map<String, Integer> facet(Map<String, RowBitmap> values, Map<Dimension, RowBitmap> filters,
+                                       RowBitmap textFilter, Dimension dimension, boolean columnFilter,
+                                       int fromDay, int toDay, long minAmount, long maxAmount) {
+        RowBitmap base = intersect(filters, textFilter, dimension);
+        if (columnFilter) {
+            base = checkColumns(base, fromDay, toDay, minAmount, maxAmount);
+        }
+        return facetCounts(values, base);
+    }
+
+    private static Map<String, Integer> facetCounts(Map<String, RowBitmap> values, RowBitmap base) {
+        Map<String, Integer> counts = new TreeMap<>();
+        values.forEach((value, bitmap) -> {
+            int count = base.andCardinality(bitmap);
+            if (count > 0) {
+                counts.put(value, count);
+            }
+        });
+        return counts;
+    }
+
+    // Every query word must match, as a prefix of some description word; null when there is no text
+    private RowBitmap termFilter(String text) {
+        List<String> words = tokenize(text);
+        if (words.isEmpty()) {
+            return null;
+        }
+        RowBitmap result = null;
+        for (String word : words) {
+            RowBitmap matches = union(byTerm, byTerm.subMap(word, true, word + Character.MAX_VALUE, false).keySet());
+            result = result == null ? matches : result.and(matches);
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static RowBitmap union(Map<String, RowBitmap> index, Iterable<String> keys) {
+        RowBitmap result = new RowBitmap();
+        for (String key : keys) {
+            RowBitmap bitmap = index.get(key);
+            if (bitmap != null) {
+                result = result.isEmpty() ? bitmap : result.or(bitmap);
+            }
+        }
+        return result;
+    }
+
+    // Newest first (date, then row order), undated rows last
+    private List<Transaction> page(RowBitmap matches, int offset, int limit) {
+        int count = matches.cardinality();
+        if (offset >= count) {
+            return new ArrayList<>();
+        }
+        long[] keys = new long[count];
+        int[] n = new int[1];
+        matches.forEach(row -> keys[n[0]++] = ((long) days[row] << 32) | row);
+        Arrays.sort(keys);
+        List<Transaction> out = new ArrayList<>(Math.min(limit, count - offset));
+        for (int i = count - 1 - offset; i >= 0 && out.size() < limit; i--) {
+            out.add(rows[(int) keys[i]]);
+        }
+        return out;
+    }
+
+    private void upsert(Transaction transaction) {
+        if (transaction.getId() == null) {
+            return;
+        }
+        Integer row = rowById.get(transaction.getId());
+        if (row == null) {
+            ensureCapacity(size + 1);
+            row = size++;
+            rowById.put(transaction.getId(), row);
+        } else {
+            unindex(row);
+        }
+        rows[row] = transaction;
+        amounts[row] = toMinorUnits(transaction.getAmount());
+        days[row] = transaction.getDate() != null ? (int) transaction.getDate().toEpochDay() : NO_DATE;
+        index(row);
+    }
+
+    private void delete(String id) {
+        Integer row = rowById.remove(id);
+        if (row == null) {
+            return;
+        }
+        unindex(row);
+        rows[row] = null;
+        deletedRows++;
+        if (deletedRows > INITIAL_CAPACITY && deletedRows > size / 4) {
+            compact();
+        }
+    }
+
+    private void index(int row) {
+        Transaction t = rows[row];
+        live.add(row);
+        add(byCategory, t.getCategory(), row);
+        add(byType, t.getType() != null ? t.getType().name() : null, row);
+        add(byCurrency, t.getCurrency() != null ? t.getCurrency().toUpperCase(Locale.ROOT) : null, row);
+        add(byMonth, t.getDate() != null ? YearMonth.from(t.getDate()).toString() : null, row);
+        for (String word : tokenize(t.getDescription())) {
+            add(byTerm, word, row);
+        }
+    }
+
+    private void unindex(int row) {
+        Transaction t = rows[row];
+        live.remove(row);
+        remove(byCategory, t.getCategory(), row);
+        remove(byType, t.getType() != null ? t.getType().name() : null, row);
+        remove(byCurrency, t.getCurrency() != null ? t.getCurrency().toUpperCase(Locale.ROOT) : null, row);
+        remove(byMonth, t.getDate() != null ? YearMonth.from(t.getDate()).toString() : null, row);
+        for (String word : tokenize(t.getDescription())) {
+            remove(byTerm, word, row);
+        }
+    }
+
+    private static void add(Map<String, RowBitmap> index, String key, int row) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> new RowBitmap()).add(row);
+        }
+    }
+
+    private static void remove(Map<String, RowBitmap> index, String key, int row) {
+        RowBitmap bitmap = key != null ? index.get(key) : null;
+        if (bitmap != null) {
+            bitmap.remove(row);
+            if (bitmap.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    // Rebuilds with dense row numbers so bitmaps and columns stay proportional to live rows
+    private void compact() {
+        List<Transaction> liveRows = new ArrayList<>(size - deletedRows);
+        for (int i = 0; i < size; i++) {
+            if (rows[i] != null) {
+                liveRows.add(rows[i]);
+            }
+        }
+        clear();
+        for (Transaction transaction : liveRows) {
+            upsert(transaction);
+        }
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= rows.length) {
+            return;
+        }
+        int capacity = Math.max(needed, rows.length * 2);
+        rows = Arrays.copyOf(rows, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        days = Arrays.copyOf(days, capacity);
+    }
+
+    private void clear() {
+        Arrays.fill(rows, 0, size, null);
+        size = 0;
+        deletedRows = 0;
+        rowById.clear();
+        live = new RowBitmap();
+        byCategory.clear();
+        byType.clear();
+        byCurrency.clear();
+        byMonth.clear();
+        byTerm.clear();
+    }
+
+    // Lowercase alphanumeric words, each once
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        Set<String> words = new LinkedHashSet<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return new ArrayList<>(words);
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+}
@@ -0,0 +1,84 @@
+package com.pankaj.budgetapp.service;
+
+import com.pankaj.budgetapp.entity.Transaction;
+import com.pankaj.budgetapp.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+@Transactional(readOnly = true)
+public class TransactionService {
+
+    private final TransactionRepository transactionRepository;
+    private final EntityManager entityManager;
+
+    @Autowired
+    public TransactionService(TransactionRepository transactionRepository, EntityManager entityManager) {
+        this.transactionRepository = transactionRepository;
+        this.entityManager = entityManager;
+    }
+
+    public LedgerPage<Transaction> getPage(String cursor, int limit) {
+        return KeysetCursor.page(cursor, limit,
+                (after, page) -> transactionRepository.findDatedPageAfter(after.getDate(),
+                        after.getId() != null ? after.getId() : "", page),
+                (after, page) -> transactionRepository.findUndatedPageAfter(after.getId(), page),
+                Transaction::getDate, Transaction::getId);
+    }
+
+    // Streams all transactions in ledger order; each one is detached after use so memory stays flat
+    public void forEachTransaction(Consumer<? super Transaction> action) {
+        try (Stream<Transaction> transactions = transactionRepository.streamAll()) {
+            transactions.forEach(tx -> {
+                action.accept(tx);
+                entityManager.detach(tx);
+            });
+        }
+    }
+
+    /**
+     * Builds a transaction from an API payload (id, amount, category, date, description, currency,
+     * type, recurringId). Fields that are absent keep the entity defaults; the id is left null
+     * when not given. Malformed values throw (NumberFormatException, DateTimeParseException,
+     * IllegalArgumentException).
+     */
+    public static Transaction fromPayload(Map<String, Object> payload) {
+        Transaction transaction = new Transaction();
+        if (payload.get("id") != null) {
+            transaction.setId(payload.get("id").toString());
+        }
+        if (payload.get("amount") != null) {
+            transaction.setAmount(new BigDecimal(payload.get("amount").toString()));
+        }
+        if (payload.get("category") != null) {
+            transaction.setCategory(payload.get("category").toString());
+        }
+        if (payload.get("date") != null) {
+            transaction.setDate(LocalDate.parse(payload.get("date").toString()));
+        }
+        if (payload.get("description") != null) {
+            transaction.setDescription(payload.get("description").toString());
+        }
+        if (payload.get("currency") != null) {
+            transaction.setCurrency(payload.get("currency").toString());
+        }
+        if (payload.get("type") != null) {
+            String typeStr = payload.get("type").toString().toUpperCase();
+            transaction.setType(Transaction.TransactionType.valueOf(typeStr));
+        }
+        if (payload.get("recurringId") != null) {
+            transaction.setRecurringId(payload.get("recurringId").toString());
+        }
+        transaction.setCreatedAt(LocalDateTime.now());
+        return transaction;
+    }
+}
@@ -0,0 +1,76 @@
+package com.pankaj.budgetapp.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Time-ordered string ids in ULID form: 26 Crockford base32 characters encoding a 48-bit
+ * millisecond timestamp followed by 80 random bits. Ids sort by creation time, so inserts
+ * append to the end of the primary key index, and are unique across processes by randomness.
+ * Within this process they are strictly increasing: ids in the same millisecond (or after the
+ * clock steps back) continue from the previous one instead of drawing new random bits.
+ * Lock-free; concurrent callers retry a compare-and-set.
+ */
+public final class UlidGenerator {
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final long RANDOM_HI_MASK = 0xFFFFL;
+
+    private static final AtomicReference<State> LAST = new AtomicReference<>(new State(0L, 0L, 0L));
+
+    // Timestamp plus the 80 random bits split as 16 high bits and 64 low bits
+    private static final class State {
+        private final long time;
+        private final long hi;
+        private final long lo;
+
+        State(long time, long hi, long lo) {
+            this.time = time;
+            this.hi = hi;
+            this.lo = lo;
+        }
+    }
+
+    private UlidGenerator() {
+    }
+
+    public static String next() {
+        while (true) {
+            State last = LAST.get();
+            long now = System.currentTimeMillis();
+            State next;
+            if (now > last.time) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                next = new State(now, random.nextLong() & RANDOM_HI_MASK, random.nextLong());
+            } else {
+                long lo = last.lo + 1;
+                long hi = lo == 0 ? last.hi + 1 : last.hi;
+                // 80 bits used up within one millisecond: move on to the next one
+                next = hi > RANDOM_HI_MASK ? new State(last.time + 1, 0L, 0L) : new State(last.time, hi, lo);
+            }
+            if (LAST.compareAndSet(last, next)) {
+                return encode(next);
+            }
+        }
+    }
+
+    private static String encode(State state) {
+        char[] out = new char[26];
+        for (int i = 0; i < 10; i++) {
+            out[i] = ALPHABET[(int) (state.time >>> (45 - 5 * i)) & 31];
+        }
+        for (int i = 0; i < 16; i++) {
+            int shift = 75 - 5 * i;
+            long bits;
+            if (shift >= 64) {
+                bits = state.hi >>> (shift - 64);
+            } else if (shift > 59) {
+                bits = (state.lo >>> shift) | (state.hi << (64 - shift));
+            } else {
+                bits = state.lo >>> shift;
+            }
+            out[10 + i] = ALPHABET[(int) bits & 31];
+        }
+        return new String(out);
+    }
+}
@@ -0,0 +1,414 @@
+package com.pankaj.budgetapp.repository;
+
+import com.pankaj.budgetapp.entity.Asset;
+import com.pankaj.budgetapp.entity.BudgetItem;
+import com.pankaj.budgetapp.entity.ChangeLogEntry;
+import com.pankaj.budgetapp.entity.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the repository queries against a seeded H2 schema, captures the SQL and bind values
+ * Hibernate actually sends, and checks the H2 EXPLAIN plan of each for the index it should use.
+ * Queries that read every row by design are pinned to a single table scan instead.
+ */
+@DataJpaTest
+@Import(QueryPlanTest.CaptureConfig.class)
+class QueryPlanTest {
+
+    private static final String TABLE_SCAN = ".tableScan";
+    private static final String PRIMARY_KEY = "PRIMARY_KEY";
+    private static final List<BudgetItem.TransactionType> BOTH_TYPES =
+            Arrays.asList(BudgetItem.TransactionType.values());
+
+    @Autowired
+    private BudgetItemRepository budgetItemRepository;
+
+    @Autowired
+    private BudgetRollupRepository budgetRollupRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private ChangeLogRepository changeLogRepository;
+
+    @Autowired
+    private ChangeLogHeadRepository changeLogHeadRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TestConfiguration
+    static class CaptureConfig {
+        // Wraps the test DataSource so every prepared statement's SQL and bind values are recorded
+        @Bean
+        static BeanPostProcessor capturingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource) {
+                        return proxy(DataSource.class, dataSource, (method, args, result) ->
+                                method.getName().equals("getConnection")
+                                        ? proxy(Connection.class, (Connection) result, QueryPlanTest::onConnectionCall)
+                                        : result);
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    // Statements executed since the last reset, EXPLAINs excluded
+    private static final List<Captured> CAPTURED = new ArrayList<>();
+
+    private static final class Captured {
+        private final String sql;
+        private final Map<Integer, Object> params = new TreeMap<>();
+
+        private Captured(String sql) {
+            this.sql = sql;
+        }
+    }
+
+    @BeforeEach
+    void seed() {
+        String categories = caseOf("MOD(X, " + BudgetItem.BudgetCategory.values().length + ")",
+                Arrays.stream(BudgetItem.BudgetCategory.values()).map(Enum::name).toArray(String[]::new));
+        // 20 000 items over ~5 years, 1 in 100 undated, 1 in 50 recurring
+        jdbcTemplate.update("INSERT INTO budget_items (id, name, category, transaction_type, amount, currency, "
+                + "transaction_date, created_at, recurring) "
+                + "SELECT X, 'Item ' || X, " + categories + ", "
+                + "CASE WHEN MOD(X, 5) = 0 THEN 'INCOME' ELSE 'EXPENSE' END, MOD(X, 1000) + 0.5, 'USD', "
+                + "CASE WHEN MOD(X, 100) = 0 THEN NULL ELSE DATEADD(DAY, -MOD(X, 1800), DATE '2024-06-30') END, "
+                + "CURRENT_TIMESTAMP, MOD(X, 50) = 0 FROM SYSTEM_RANGE(1, 20000)");
+        jdbcTemplate.update("INSERT INTO transactions (id, amount, category, date, currency, type, recurring_id, "
+                + "created_at) "
+                + "SELECT 'tx-' || X, MOD(X, 1000) + 0.5, " + caseOf("MOD(X, 4)", "FOOD", "RENT", "TRAVEL", "SALARY") + ", "
+                + "CASE WHEN MOD(X, 100) = 0 THEN NULL ELSE DATEADD(DAY, -MOD(X, 1800), DATE '2024-06-30') END, "
+                + "'USD', CASE WHEN MOD(X, 5) = 0 THEN 'INCOME' ELSE 'EXPENSE' END, "
+                + "CASE WHEN MOD(X, 30) = 0 THEN 'rem-' || MOD(X, 7) END, CURRENT_TIMESTAMP "
+                + "FROM SYSTEM_RANGE(1, 20000)");
+        jdbcTemplate.update("INSERT INTO assets (id, name, type, storage_location, current_market_price, "
+                + "last_verified_date, created_at) "
+                + "SELECT X, 'Asset ' || X, " + caseOf("MOD(X, " + Asset.AssetType.values().length + ")",
+                        Arrays.stream(Asset.AssetType.values()).map(Enum::name).toArray(String[]::new)) + ", "
+                + "'Shelf ' || MOD(X, 20), 100, DATEADD(DAY, -MOD(X, 400), TIMESTAMP '2024-06-30 00:00:00'), "
+                + "CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, 5000)");
+        jdbcTemplate.update("INSERT INTO budget_rollups (id, period_year, period_month, transaction_type, category, "
+                + "currency, total, item_count) "
+                + "SELECT X, 2020 + X / 480, 1 + MOD(X / 40, 12), "
+                + "CASE WHEN MOD(X, 2) = 0 THEN 'INCOME' ELSE 'EXPENSE' END, " + categories + ", 'USD', 10, 1 "
+                + "FROM SYSTEM_RANGE(0, 2399)");
+        jdbcTemplate.update("INSERT INTO change_log (seq, entity_type, entity_id, operation, changed_at) "
+                + "SELECT X, " + caseOf("MOD(X, 3)", "TRANSACTION", "ASSET", "SETTING") + ", 'e-' || X, "
+                + "CASE WHEN MOD(X, 10) = 0 THEN 'DELETE' ELSE 'UPSERT' END, CURRENT_TIMESTAMP "
+                + "FROM SYSTEM_RANGE(1, 20000)");
+        jdbcTemplate.update("INSERT INTO change_log_head (id, seq, resync_floor, clean_shutdown) "
+                + "VALUES (1, 20000, 0, FALSE)");
+        CAPTURED.clear();
+    }
+
+    // -- budget_items
+
+    @Test
+    void budgetItemsByTypeAndDateRange() {
+        budgetItemRepository.findByTypeAndDateRange(BudgetItem.TransactionType.EXPENSE,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+        assertPlanUses("IDX_BUDGET_ITEMS_TYPE_DATE");
+    }
+
+    @Test
+    void budgetItemsIncomeForPeriod() {
+        budgetItemRepository.calculateIncomeForPeriod(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+        assertPlanUses("IDX_BUDGET_ITEMS_TYPE_DATE");
+    }
+
+    @Test
+    void budgetItemsByDateRange() {
+        budgetItemRepository.findByTransactionDateBetween(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+        assertPlanUses("IDX_BUDGET_ITEMS_DATE");
+    }
+
+    @Test
+    void budgetItemsByCategory() {
+        budgetItemRepository.findByCategory(BudgetItem.BudgetCategory.FOOD);
+        assertPlanUses("IDX_BUDGET_ITEMS_CATEGORY");
+    }
+
+    @Test
+    void budgetItemsRecurring() {
+        budgetItemRepository.findByRecurringTrue();
+        assertPlanUses("IDX_BUDGET_ITEMS_RECURRING");
+    }
+
+    @Test
+    void budgetItemsDatedPage() {
+        budgetItemRepository.findDatedPageAfter(BOTH_TYPES, LocalDate.of(2024, 6, 1), 1000L, PageRequest.of(0, 101));
+        assertPlanUses("IDX_BUDGET_ITEMS_TYPE_DATE");
+    }
+
+    @Test
+    void budgetItemsUndatedPage() {
+        budgetItemRepository.findUndatedPageAfter(BOTH_TYPES, null, PageRequest.of(0, 101));
+        assertPlanUses("IDX_BUDGET_ITEMS_TYPE_DATE");
+    }
+
+    @Test
+    void budgetItemsPageAfterId() {
+        budgetItemRepository.findPageAfterId(10_000L, PageRequest.of(0, 5000));
+        assertPlanUses(PRIMARY_KEY);
+    }
+
+    // Rebuilding the rollups aggregates every item in one pass
+    @Test
+    void budgetItemsSumByRollupBucket() {
+        budgetItemRepository.sumByRollupBucket();
+        assertPlanUses(TABLE_SCAN);
+    }
+
+    // Rebuilding the prefix-sum indexes aggregates every dated item in one pass
+    @Test
+    void budgetItemsSumByDayTypeAndCategory() {
+        budgetItemRepository.sumByDayTypeAndCategory();
+        assertPlanUses(TABLE_SCAN);
+    }
+
+    // -- budget_rollups
+
+    @Test
+    void rollupApplyDelta() {
+        budgetRollupRepository.applyDelta(2024, 1, BudgetItem.TransactionType.EXPENSE,
+                BudgetItem.BudgetCategory.FOOD, "USD", BigDecimal.ONE, 1);
+        assertPlanUses("UK_BUDGET_ROLLUP_BUCKET");
+    }
+
+    @Test
+    void rollupSumByType() {
+        budgetRollupRepository.sumByType(BudgetItem.TransactionType.EXPENSE);
+        assertPlanUses("IDX_BUDGET_ROLLUPS_TYPE");
+    }
+
+    @Test
+    void rollupSumByTypeForMonth() {
+        budgetRollupRepository.sumByTypeForMonth(BudgetItem.TransactionType.EXPENSE, 2024, 1);
+        assertPlanUses("UK_BUDGET_ROLLUP_BUCKET", "IDX_BUDGET_ROLLUPS_TYPE");
+    }
+
+    // -- transactions
+
+    @Test
+    void transactionsByMonth() {
+        transactionRepository.findByYearAndMonth(2024, 1);
+        assertPlanUses("IDX_TRANSACTIONS_DATE");
+    }
+
+    @Test
+    void transactionsByType() {
+        transactionRepository.findByType(Transaction.TransactionType.INCOME);
+        assertPlanUses("IDX_TRANSACTIONS_TYPE_DATE");
+    }
+
+    @Test
+    void transactionsByCategory() {
+        transactionRepository.findByCategory("FOOD");
+        assertPlanUses("IDX_TRANSACTIONS_CATEGORY");
+    }
+
+    @Test
+    void transactionsRecurringInRange() {
+        transactionRepository.findByRecurringIdIsNotNullAndDateBetween(LocalDate.of(2024, 1, 1),
+                LocalDate.of(2024, 6, 30));
+        assertPlanUses("IDX_TRANSACTIONS_DATE", "IDX_TRANSACTIONS_RECURRING_DATE");
+    }
+
+    @Test
+    void transactionsExistingIds() {
+        transactionRepository.findExistingIds(List.of("tx-1", "tx-2", "tx-3"));
+        assertPlanUses(PRIMARY_KEY);
+    }
+
+    @Test
+    void transactionsDatedPage() {
+        transactionRepository.findDatedPageAfter(LocalDate.of(2024, 6, 1), "tx-500", PageRequest.of(0, 101));
+        assertPlanUses("IDX_TRANSACTIONS_DATE");
+    }
+
+    @Test
+    void transactionsUndatedPage() {
+        transactionRepository.findUndatedPageAfter(null, PageRequest.of(0, 101));
+        assertPlanUses("IDX_TRANSACTIONS_DATE");
+    }
+
+    // An export reads every row; the ascending index cannot serve the DESC order, so H2 sorts
+    @Test
+    void transactionsStreamAll() {
+        try (Stream<Transaction> rows = transactionRepository.streamAll()) {
+            rows.limit(1).count();
+        }
+        assertPlanUses(TABLE_SCAN);
+    }
+
+    // -- assets
+
+    @Test
+    void assetsByType() {
+        assetRepository.findByType(Asset.AssetType.GOLD);
+        assertPlanUses("IDX_ASSETS_TYPE");
+    }
+
+    @Test
+    void assetsStale() {
+        assetRepository.findStaleAssets(LocalDateTime.of(2023, 7, 1, 0, 0));
+        assertPlanUses("IDX_ASSETS_LAST_VERIFIED");
+    }
+
+    @Test
+    void assetsCountStale() {
+        assetRepository.countStale(LocalDateTime.of(2024, 5, 31, 0, 0),
+                LocalDateTime.of(2024, 4, 1, 0, 0), LocalDateTime.of(2024, 1, 1, 0, 0));
+        assertPlanUses("IDX_ASSETS_LAST_VERIFIED");
+    }
+
+    // Grouping on the indexed column lets H2 read the groups in index order
+    @Test
+    void assetsSummarizeByType() {
+        assetRepository.summarizeByType();
+        assertPlanUses("IDX_ASSETS_TYPE");
+    }
+
+    // Leading-wildcard LIKE cannot use a B-tree index
+    @Test
+    void assetsSearch() {
+        assetRepository.searchAssets("shelf");
+        assertPlanUses(TABLE_SCAN);
+    }
+
+    // -- change_log
+
+    @Test
+    void changeLogMaxSeq() {
+        changeLogRepository.findMaxSeq();
+        assertPlanUses("direct lookup");
+    }
+
+    @Test
+    void changeLogPage() {
+        changeLogRepository.findBySeqGreaterThanAndSeqLessThanEqualOrderBySeq(19_000L, 20_000L);
+        assertPlanUses(PRIMARY_KEY);
+    }
+
+    @Test
+    void changeLogIdsSince() {
+        changeLogRepository.findIdsSince(19_000L, ChangeLogEntry.EntityType.TRANSACTION,
+                ChangeLogEntry.Operation.DELETE);
+        assertPlanUses(PRIMARY_KEY, "IDX_CHANGE_LOG_ENTITY");
+    }
+
+    @Test
+    void changeLogDeleteSuperseded() {
+        changeLogRepository.deleteSuperseded(ChangeLogEntry.EntityType.ASSET, "e-4", 20_001L);
+        assertPlanUses("IDX_CHANGE_LOG_ENTITY");
+    }
+
+    @Test
+    void changeLogDeleteOlderOfTypeAndOperation() {
+        changeLogRepository.deleteOlderOfTypeAndOperation(ChangeLogEntry.EntityType.SETTING,
+                ChangeLogEntry.Operation.RESET, 20_001L);
+        assertPlanUses(PRIMARY_KEY, "IDX_CHANGE_LOG_ENTITY");
+    }
+
+    @Test
+    void changeLogHeadIncrement() {
+        changeLogHeadRepository.increment();
+        assertPlanUses(PRIMARY_KEY);
+    }
+
+    // EXPLAINs the one statement the repository call sent and checks its plan names one of the expected paths
+    private void assertPlanUses(String... expected) {
+        assertEquals(1, CAPTURED.size(), () -> "expected one statement, got " + sqlOf(CAPTURED));
+        Captured statement = CAPTURED.get(0);
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + statement.sql, String.class,
+                statement.params.values().toArray());
+        assertTrue(plan != null && Arrays.stream(expected).anyMatch(plan::contains),
+                () -> "expected " + Arrays.toString(expected) + " in plan of\n" + statement.sql + "\n" + plan);
+    }
+
+    private static List<String> sqlOf(List<Captured> statements) {
+        List<String> sql = new ArrayList<>();
+        statements.forEach(s -> sql.add(s.sql));
+        return sql;
+    }
+
+    private static String caseOf(String selector, String... values) {
+        StringBuilder sql = new StringBuilder("CASE ").append(selector);
+        for (int i = 0; i < values.length; i++) {
+            sql.append(" WHEN ").append(i).append(" THEN '").append(values[i]).append('\'');
+        }
+        return sql.append(" END").toString();
+    }
+
+    private interface AfterCall {
+        Object apply(Method method, Object[] args, Object result) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, AfterCall after) {
+        return (T) Proxy.newProxyInstance(QueryPlanTest.class.getClassLoader(), new Class<?>[]{type},
+                (p, method, args) -> {
+                    try {
+                        return after.apply(method, args, method.invoke(target, args));
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                });
+    }
+
+    private static Object onConnectionCall(Method method, Object[] args, Object result) {
+        if (!method.getName().equals("prepareStatement") || ((String) args[0]).startsWith("EXPLAIN ")) {
+            return result;
+        }
+        Captured captured = new Captured((String) args[0]);
+        return proxy(PreparedStatement.class, (PreparedStatement) result, (m, a, r) -> {
+            String name = m.getName();
+            if (name.startsWith("set") && a != null && a.length >= 2 && a[0] instanceof Integer index) {
+                captured.params.put(index, name.equals("setNull") ? null : a[1]);
+            } else if (name.equals("clearParameters")) {
+                captured.params.clear();
+            } else if (name.startsWith("execute")) {
+                CAPTURED.add(captured);
+            }
+            return r;
+        });
+    }
+}
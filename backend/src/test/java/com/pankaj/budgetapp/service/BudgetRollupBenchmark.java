@@ -0,0 +1,132 @@
+package com.pankaj.budgetapp.service;
+
+import com.pankaj.budgetapp.entity.BudgetItem;
+import com.pankaj.budgetapp.repository.BudgetItemRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Dashboard totals from full budget_items scans (the pre-rollup BudgetService queries) against
+ * the same totals read from budget_rollups, over 1M items in an embedded H2. Not a JMH harness:
+ * each side is timed over several warmed-up rounds and the best round is reported.
+ *
+ * Run with: mvn test -Dtest=BudgetRollupBenchmark -Dbenchmark=true
+ */
+@DataJpaTest
+@Import(BudgetRollupService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BudgetRollupBenchmark {
+
+    private static final int ITEMS = 1_000_000;
+    // Spread over ten years, so the rollup holds about 120 months x categories x currencies rows
+    private static final int DAYS = 3650;
+    private static final int ROUNDS = 10;
+
+    @Autowired
+    private BudgetItemRepository budgetItemRepository;
+
+    @Autowired
+    private BudgetRollupService rollupService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM budget_rollups");
+        jdbcTemplate.update("DELETE FROM budget_items");
+    }
+
+    @Test
+    void summary() {
+        long seedStart = System.nanoTime();
+        seed();
+        int buckets = rollupService.rebuild();
+        System.out.printf("seeded %d items, rebuilt %d buckets in %d ms%n",
+                ITEMS, buckets, (System.nanoTime() - seedStart) / 1_000_000);
+
+        LocalDate today = LocalDate.now();
+        LocalDate monthStart = today.withDayOfMonth(1);
+        LocalDate monthEnd = today.withDayOfMonth(today.lengthOfMonth());
+        assertEquals(0, budgetItemRepository.calculateTotalIncome()
+                .compareTo(rollupService.getTotal(BudgetItem.TransactionType.INCOME)));
+        assertEquals(0, budgetItemRepository.calculateExpensesForPeriod(monthStart, monthEnd)
+                .compareTo(rollupService.getTotalForMonth(BudgetItem.TransactionType.EXPENSE,
+                        today.getYear(), today.getMonthValue())));
+        assertEquals(budgetItemRepository.sumByCategory(BudgetItem.TransactionType.EXPENSE).size(),
+                rollupService.sumByCategory(BudgetItem.TransactionType.EXPENSE).size());
+
+        // The five totals the dashboard summary needs, computed each way
+        double scanMs = best(() -> {
+            BigDecimal sum = budgetItemRepository.calculateTotalIncome()
+                    .add(budgetItemRepository.calculateTotalExpenses())
+                    .add(budgetItemRepository.calculateIncomeForPeriod(monthStart, monthEnd))
+                    .add(budgetItemRepository.calculateExpensesForPeriod(monthStart, monthEnd));
+            return sum.doubleValue() + budgetItemRepository.sumByCategory(BudgetItem.TransactionType.EXPENSE).size();
+        }) / 1_000_000.0;
+        double rollupMs = best(() -> {
+            BigDecimal sum = rollupService.getTotal(BudgetItem.TransactionType.INCOME)
+                    .add(rollupService.getTotal(BudgetItem.TransactionType.EXPENSE))
+                    .add(rollupService.getTotalForMonth(BudgetItem.TransactionType.INCOME,
+                            today.getYear(), today.getMonthValue()))
+                    .add(rollupService.getTotalForMonth(BudgetItem.TransactionType.EXPENSE,
+                            today.getYear(), today.getMonthValue()));
+            return sum.doubleValue() + rollupService.sumByCategory(BudgetItem.TransactionType.EXPENSE).size();
+        }) / 1_000_000.0;
+        System.out.printf("summary over %d items: scan %.2f ms, rollup %.3f ms%n", ITEMS, scanMs, rollupMs);
+    }
+
+    // One set-based insert; every fifth item is income, the rest cycle through the categories
+    private void seed() {
+        StringBuilder category = new StringBuilder("CASE MOD(X, ");
+        BudgetItem.BudgetCategory[] categories = BudgetItem.BudgetCategory.values();
+        category.append(categories.length).append(')');
+        for (int i = 0; i < categories.length; i++) {
+            category.append(" WHEN ").append(i).append(" THEN '").append(categories[i].name()).append('\'');
+        }
+        category.append(" END");
+        jdbcTemplate.update("INSERT INTO budget_items (id, name, category, transaction_type, amount, currency, "
+                + "transaction_date, created_at, recurring) "
+                + "SELECT X, 'Item ' || X, " + category + ", "
+                + "CASE WHEN MOD(X, 5) = 0 THEN 'INCOME' ELSE 'EXPENSE' END, "
+                + "CAST(MOD(X * 7919, 100000) AS DECIMAL(19, 2)) / 100, "
+                + "CASE MOD(X, 3) WHEN 0 THEN 'USD' WHEN 1 THEN 'EUR' ELSE 'INR' END, "
+                + "DATEADD(DAY, -MOD(X, " + DAYS + "), CURRENT_DATE), CURRENT_TIMESTAMP, FALSE "
+                + "FROM SYSTEM_RANGE(1, " + ITEMS + ")");
+    }
+
+    private interface Round {
+        double run();
+    }
+
+    // Fastest of ROUNDS after two warm-up rounds, in nanoseconds; the sum keeps the work alive
+    private static double best(Round round) {
+        double sink = 0;
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS + 2; i++) {
+            long start = System.nanoTime();
+            sink += round.run();
+            long elapsed = System.nanoTime() - start;
+            if (i >= 2) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+        return best;
+    }
+}
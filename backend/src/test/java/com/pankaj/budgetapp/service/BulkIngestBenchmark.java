@@ -0,0 +1,103 @@
+package com.pankaj.budgetapp.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Throughput of BulkIngestService over the rows bulk-benchmark.sh generates, against a file-based
+ * H2 like the application's. Run once per JDBC batch size to compare: batch size 1 is one
+ * round trip per insert, the application default is 50.
+ *
+ * Run with: mvn test -Dtest=BulkIngestBenchmark -Dbenchmark=true -Dbench.batch-size=1
+ *      and: mvn test -Dtest=BulkIngestBenchmark -Dbenchmark=true -Dbench.batch-size=50
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({BulkIngestService.class, BudgetRollupService.class})
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/bulk-benchmark/budget_db",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=${bench.batch-size:50}",
+        "bulk.chunk-size=1000"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BulkIngestBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final int WARM_UP_ROWS = 10_000;
+
+    @Autowired
+    private BulkIngestService bulkIngestService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+    private int batchSize;
+
+    @BeforeEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM transactions");
+        jdbcTemplate.update("DELETE FROM budget_rollups");
+        jdbcTemplate.update("DELETE FROM budget_items");
+    }
+
+    @Test
+    void transactions() throws IOException {
+        bulkIngestService.ingestTransactions(expenses("warm", WARM_UP_ROWS));
+        BulkIngestService.Result result = bulkIngestService.ingestTransactions(expenses("run", ROWS));
+        assertEquals(ROWS, result.getInserted());
+        System.out.printf("transactions, batch size %d: %d rows in %d ms, %d rows/s%n",
+                batchSize, result.getInserted(), result.getElapsedMs(), result.getRowsPerSecond());
+    }
+
+    @Test
+    void budgetItems() throws IOException {
+        bulkIngestService.ingestBudgetItems(budgetItems(WARM_UP_ROWS));
+        BulkIngestService.Result result = bulkIngestService.ingestBudgetItems(budgetItems(ROWS));
+        assertEquals(ROWS, result.getInserted());
+        System.out.printf("budget items, batch size %d: %d rows in %d ms, %d rows/s%n",
+                batchSize, result.getInserted(), result.getElapsedMs(), result.getRowsPerSecond());
+    }
+
+    // Same NDJSON rows as bulk-benchmark.sh
+    private static ByteArrayInputStream expenses(String run, int rows) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            body.append(String.format("{\"id\":\"bench-%s-%d\",\"category\":\"Groceries\",\"amount\":%d.%02d,"
+                            + "\"date\":\"2024-%02d-%02d\",\"description\":\"bench %d\"}%n",
+                    run, i, i % 500, i % 100, i % 12 + 1, i % 28 + 1, i));
+        }
+        return new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ByteArrayInputStream budgetItems(int rows) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            body.append(String.format("{\"name\":\"bench %d\",\"category\":\"FOOD\",\"transactionType\":\"EXPENSE\","
+                            + "\"amount\":%d.%02d,\"transactionDate\":\"2024-%02d-%02d\"}%n",
+                    i, i % 500, i % 100, i % 12 + 1, i % 28 + 1));
+        }
+        return new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,144 @@
+package com.pankaj.budgetapp.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Map lookups (the pre-matrix RateSnapshot / CurrencyService.rebase) against the dense
+ * CrossRateTable, over 170 currencies and random pairs. Not a JMH harness: each case is timed
+ * over several warmed-up rounds and the best round is reported.
+ *
+ * Run with: mvn test -Dtest=CrossRateTableBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CrossRateTableBenchmark {
+
+    private static final int CURRENCIES = 170;
+    private static final int PAIRS = 1 << 16;
+    private static final int ROUNDS = 10;
+    private static final int CONVERSIONS_PER_ROUND = 5_000_000;
+    private static final int REBASES_PER_ROUND = 50_000;
+
+    private final Map<String, Double> rates = new LinkedHashMap<>();
+    private final String[] from = new String[PAIRS];
+    private final String[] to = new String[PAIRS];
+
+    CrossRateTableBenchmark() {
+        Random random = new Random(42);
+        String[] codes = new String[CURRENCIES];
+        for (int i = 0; i < CURRENCIES; i++) {
+            codes[i] = "" + (char) ('A' + i / 26 % 26) + (char) ('A' + i % 26) + (char) ('A' + i * 7 % 26);
+            rates.put(codes[i], 0.01 + random.nextDouble() * 1000);
+        }
+        for (int i = 0; i < PAIRS; i++) {
+            from[i] = codes[random.nextInt(CURRENCIES)];
+            to[i] = codes[random.nextInt(CURRENCIES)];
+        }
+    }
+
+    @Test
+    void convert() {
+        Map<String, Double> map = new HashMap<>(rates);
+        RateSnapshot snapshot = new RateSnapshot("USD", rates, System.currentTimeMillis());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(mapConvert(map, from[i], to[i], 100), snapshot.convert(from[i], to[i], 100), 1e-9);
+        }
+
+        double mapNs = best(() -> {
+            double sum = 0;
+            for (int i = 0; i < CONVERSIONS_PER_ROUND; i++) {
+                sum += mapConvert(map, from[i & (PAIRS - 1)], to[i & (PAIRS - 1)], 100);
+            }
+            return sum;
+        }) / CONVERSIONS_PER_ROUND;
+        double matrixNs = best(() -> {
+            double sum = 0;
+            for (int i = 0; i < CONVERSIONS_PER_ROUND; i++) {
+                sum += snapshot.convert(from[i & (PAIRS - 1)], to[i & (PAIRS - 1)], 100);
+            }
+            return sum;
+        }) / CONVERSIONS_PER_ROUND;
+        System.out.printf("convert: map %.1f ns/op, matrix %.1f ns/op%n", mapNs, matrixNs);
+    }
+
+    @Test
+    void rebase() {
+        Map<String, Double> map = new HashMap<>(rates);
+        RateSnapshot snapshot = new RateSnapshot("USD", rates, System.currentTimeMillis());
+        Map<String, Double> expected = mapRebase(map, from[0]);
+        Map<String, Double> actual = snapshot.getRates(from[0]);
+        for (Map.Entry<String, Double> e : expected.entrySet()) {
+            assertEquals(e.getValue(), actual.get(e.getKey()), 1e-9);
+        }
+
+        // Both sides read every rate, as serializing the /api/rates response does
+        double mapNs = best(() -> {
+            double sum = 0;
+            for (int i = 0; i < REBASES_PER_ROUND; i++) {
+                for (double v : mapRebase(map, from[i & (PAIRS - 1)]).values()) {
+                    sum += v;
+                }
+            }
+            return sum;
+        }) / REBASES_PER_ROUND;
+        double matrixNs = best(() -> {
+            double sum = 0;
+            for (int i = 0; i < REBASES_PER_ROUND; i++) {
+                for (double v : snapshot.getRates(from[i & (PAIRS - 1)]).values()) {
+                    sum += v;
+                }
+            }
+            return sum;
+        }) / REBASES_PER_ROUND;
+        System.out.printf("rebase (%d currencies): map %.0f ns/op, matrix %.0f ns/op%n", CURRENCIES, mapNs, matrixNs);
+    }
+
+    // The conversion as RateSnapshot did it before the matrix
+    private static double mapConvert(Map<String, Double> rates, String from, String to, double amount) {
+        Double fromRate = rates.get(from.toUpperCase());
+        Double toRate = rates.get(to.toUpperCase());
+        if (fromRate == null || toRate == null) {
+            throw new IllegalArgumentException("Unknown currency code");
+        }
+        return amount / fromRate * toRate;
+    }
+
+    // The rebase as CurrencyService did it before the matrix
+    private static Map<String, Double> mapRebase(Map<String, Double> rates, String base) {
+        Double baseRate = rates.get(base.toUpperCase());
+        Map<String, Double> adjusted = new HashMap<>();
+        for (Map.Entry<String, Double> e : rates.entrySet()) {
+            adjusted.put(e.getKey(), e.getValue() / baseRate);
+        }
+        return adjusted;
+    }
+
+    private interface Round {
+        double run();
+    }
+
+    // Fastest of ROUNDS after two warm-up rounds, in nanoseconds; the sum keeps the work alive
+    private static double best(Round round) {
+        double sink = 0;
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS + 2; i++) {
+            long start = System.nanoTime();
+            sink += round.run();
+            long elapsed = System.nanoTime() - start;
+            if (i >= 2) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+        return best;
+    }
+}
@@ -0,0 +1,101 @@
+package com.pankaj.budgetapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UlidGeneratorTest {
+
+    private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 50_000;
+
+    @Test
+    void idsAreWellFormedAndCarryTheCurrentTime() {
+        long before = System.currentTimeMillis();
+        String id = UlidGenerator.next();
+        long after = System.currentTimeMillis();
+
+        assertEquals(26, id.length());
+        for (char c : id.toCharArray()) {
+            assertTrue(ALPHABET.indexOf(c) >= 0, "unexpected character in " + id);
+        }
+        long time = timestamp(id);
+        assertTrue(time >= before && time <= after + 1, "timestamp " + time + " outside " + before + ".." + after);
+    }
+
+    @Test
+    void idsFromOneThreadStrictlyIncrease() {
+        String previous = UlidGenerator.next();
+        for (int i = 0; i < 200_000; i++) {
+            String id = UlidGenerator.next();
+            assertTrue(id.compareTo(previous) > 0, id + " is not after " + previous);
+            previous = id;
+        }
+    }
+
+    @Test
+    void concurrentIdsAreUniqueAndIncreasePerThreadAndMillisecond() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String[]>> futures = new ArrayList<>();
+        long before = System.currentTimeMillis();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    String[] ids = new String[IDS_PER_THREAD];
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = UlidGenerator.next();
+                    }
+                    return ids;
+                }));
+            }
+            start.countDown();
+
+            Set<String> all = new HashSet<>(THREADS * IDS_PER_THREAD * 2);
+            Set<Long> millis = new HashSet<>();
+            for (Future<String[]> future : futures) {
+                String[] ids = future.get(60, TimeUnit.SECONDS);
+                for (int i = 0; i < ids.length; i++) {
+                    assertTrue(all.add(ids[i]), "duplicate id " + ids[i]);
+                    millis.add(timestamp(ids[i]));
+                    if (i > 0) {
+                        // Later calls never sort before earlier ones, including within one millisecond
+                        assertTrue(ids[i].compareTo(ids[i - 1]) > 0, ids[i] + " is not after " + ids[i - 1]);
+                        assertTrue(timestamp(ids[i]) >= timestamp(ids[i - 1]));
+                    }
+                }
+            }
+            long after = System.currentTimeMillis();
+
+            assertEquals(THREADS * IDS_PER_THREAD, all.size());
+            // Many ids share a millisecond, so the same-millisecond increment path was exercised
+            assertTrue(millis.size() < all.size(), "every id had its own millisecond");
+            for (long time : millis) {
+                assertTrue(time >= before && time <= after + 1, "timestamp " + time + " outside " + before + ".." + after);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static long timestamp(String id) {
+        long time = 0;
+        for (int i = 0; i < 10; i++) {
+            time = (time << 5) | ALPHABET.indexOf(id.charAt(i));
+        }
+        return time;
+    }
+}
@@ -0,0 +1,28 @@
+#!/bin/bash
+# Bulk ingest benchmark: posts N generated rows (default 100000) as NDJSON to a running backend
+# and prints the server's counts and throughput.
+#   ./bulk-benchmark.sh [rows] [expenses|budget]
+
+ROWS=${1:-100000}
+TARGET=${2:-expenses}
+API=${API:-http://localhost:8080/api}
+FILE=$(mktemp)
+trap 'rm -f "$FILE"' EXIT
+
+echo "Generating $ROWS $TARGET rows..."
+if [ "$TARGET" = "budget" ]; then
+    awk -v n="$ROWS" 'BEGIN { for (i = 0; i < n; i++)
+        printf "{\"name\":\"bench %d\",\"category\":\"FOOD\",\"transactionType\":\"EXPENSE\",\"amount\":%d.%02d,\"transactionDate\":\"2024-%02d-%02d\"}\n",
+            i, i % 500, i % 100, i % 12 + 1, i % 28 + 1 }' > "$FILE"
+else
+    awk -v n="$ROWS" -v run="$(date +%s)" 'BEGIN { for (i = 0; i < n; i++)
+        printf "{\"id\":\"bench-%s-%d\",\"category\":\"Groceries\",\"amount\":%d.%02d,\"date\":\"2024-%02d-%02d\",\"description\":\"bench %d\"}\n",
+            run, i, i % 500, i % 100, i % 12 + 1, i % 28 + 1, i }' > "$FILE"
+fi
+
+echo "Posting to $API/$TARGET/bulk..."
+START=$(date +%s%N)
+curl -s -X POST "$API/$TARGET/bulk" -H "Content-Type: application/x-ndjson" --data-binary @"$FILE" \
+    | grep -o '"\(received\|inserted\|failed\|chunks\|elapsedMs\|rowsPerSecond\)":[0-9]*'
+END=$(date +%s%N)
+echo "Wall clock: $(( (END - START) / 1000000 )) ms"
@@ -46,6 +46,12 @@ export async function convert(from, to, amount) {
   return res?.data || { result: amount };
 }
 
+// items: [{ from, to, amount, date? }] - converted in one round trip against one rate snapshot
+export async function convertBatch(items) {
+  const res = await optionalApiCall(() => axios.post(url('/api/convert/batch'), items));
+  return res?.data || { results: items.map((i) => ({ ...i, result: i.amount })) };
+}
+
 export async function addExpense(expenseData) {
   // Try API, but don't fail if backend is down
   await optionalApiCall(() => axios.post(url('/api/expenses'), expenseData));
@@ -62,12 +68,90 @@ export async function getForecast() {
   return res?.data || {};
 }
 
+// Projected monthly cash flow from recurring budget items
+export async function getBudgetForecast(horizon = 12, currency) {
+  const res = await optionalApiCall(() => axios.get(url('/api/budget/forecast'), { params: { horizon, currency } }));
+  return res?.data || { horizonMonths: horizon, months: [] };
+}
+
+// Live change feed (server-sent events). handlers: { transaction, 'budget-item', asset, totals, reminders, fx, reset }.
+// EventSource reconnects by itself and resumes from the last event id. All subscribers share one
+// connection, opened by the first and closed with the last. Returns a function that unsubscribes.
+let eventSource = null;
+let eventSubscribers = 0;
+
+export function subscribeEvents(handlers) {
+  if (OFFLINE_MODE || typeof EventSource === 'undefined') {
+    return () => {};
+  }
+  if (!eventSource) {
+    eventSource = new EventSource(url('/api/events'));
+  }
+  const source = eventSource;
+  eventSubscribers++;
+  const listeners = Object.entries(handlers).map(([type, handler]) => {
+    const listener = (e) => handler(JSON.parse(e.data), e);
+    source.addEventListener(type, listener);
+    return [type, listener];
+  });
+  let subscribed = true;
+  return () => {
+    if (!subscribed) return;
+    subscribed = false;
+    listeners.forEach(([type, listener]) => source.removeEventListener(type, listener));
+    eventSubscribers--;
+    if (eventSubscribers === 0) {
+      source.close();
+      eventSource = null;
+    }
+  };
+}
+
 // ========== DASHBOARD API ==========
 export async function getDashboardSummary() {
   const res = await optionalApiCall(() => axios.get(url('/api/dashboard/summary')));
   return res?.data || { netWorth: 0, reminderCount: 0, staleAssetsCount: 0, assetsByType: {} };
 }
 
+// ========== TRANSACTION SEARCH API ==========
+// filters: { category (string or array), type, currency, from, to, minAmount, maxAmount, q, offset, limit }
+// Returns { total, transactions, facets: { category, type, currency, month } } or null when offline
+export async function searchTransactions(filters = {}) {
+  const params = new URLSearchParams();
+  Object.entries(filters).forEach(([key, value]) => {
+    if (value === undefined || value === null || value === '') return;
+    (Array.isArray(value) ? value : [value]).forEach(v => params.append(key, v));
+  });
+  const res = await optionalApiCall(() => axios.get(url('/api/expenses/search'), { params }));
+  return res?.data || null;
+}
+
+// ========== STATEMENT IMPORT API ==========
+// Uploads a CSV/OFX/QIF bank export; returns the queued job ({ id, state, percent, ... }) or null
+export async function importStatement(file, { format, profile } = {}) {
+  const formData = new FormData();
+  formData.append('file', file);
+  if (format) formData.append('format', format);
+  if (profile) formData.append('profile', profile);
+  const res = await optionalApiCall(() => axios.post(url('/api/imports'), formData));
+  return res?.data || null;
+}
+
+export async function getImportJob(id) {
+  const res = await optionalApiCall(() => axios.get(url(`/api/imports/${id}`)));
+  return res?.data || null;
+}
+
+export async function getImportProfiles() {
+  const res = await optionalApiCall(() => axios.get(url('/api/imports/profiles')));
+  return res?.data || {};
+}
+
+export async function saveImportProfile(name, profile) {
+  const res = await optionalApiCall(() => axios.put(url(`/api/imports/profiles/${encodeURIComponent(name)}`), profile));
+  return res?.data || null;
+}
+
 // ========== ASSET API ==========
 export async function getAllAssets() {
   const res = await optionalApiCall(() => axios.get(url('/api/assets')));
@@ -109,6 +193,17 @@ export async function searchAssets(query) {
   );
 }
 
+// Storage locations ("Home/Bedroom/Locker") as a tree with count and totalValue per subtree
+export async function getLocationTree(depth = -1) {
+  const res = await optionalApiCall(() => axios.get(url('/api/assets/locations/tree'), { params: { depth } }));
+  return res?.data || null;
+}
+
+export async function getAssetsInLocation(path) {
+  const res = await optionalApiCall(() => axios.get(url('/api/assets/locations/subtree/assets'), { params: { path } }));
+  return res?.data || [];
+}
+
 export async function verifyAssetLocation(id) {
   const res = await optionalApiCall(() => axios.post(url(`/api/assets/${id}/verify`)));
   return res?.data || { id, lastVerifiedDate: new Date().toISOString() };
@@ -218,6 +313,7 @@ export async function listBackups() {
 // Push all localStorage data to backend
 export async function syncPushToBackend() {
   const data = {
+    since: getSyncCursor(),
     transactions: JSON.parse(localStorage.getItem('transactions_v1') || '[]'),
     monthlyExpenses: JSON.parse(localStorage.getItem('monthly_expenses_v1') || '[]'),
     assets: JSON.parse(localStorage.getItem('assets_v1') || '[]'),
@@ -234,48 +330,30 @@ export async function syncPushToBackend() {
   return res?.data || { success: false };
 }
 
-// Pull all data from backend to localStorage
+// Pull changes from backend to localStorage. With a stored cursor only rows changed since the
+// last sync come back (plus ids deleted on the server); without one, everything does.
 export async function syncPullFromBackend() {
-  const res = await optionalApiCall(() => axios.get(url('/api/sync/pull')));
+  const since = getSyncCursor();
+  const res = await optionalApiCall(() => axios.get(url('/api/sync/pull'), {
+    params: since !== null ? { since } : {}
+  }));
 
   if (res?.data) {
-    const data = res.data;
-
-    // Replace transactions (deduplicated)
-    if (data.transactions && Array.isArray(data.transactions)) {
-      const existing = JSON.parse(localStorage.getItem('transactions_v1') || '[]');
-      const merged = deduplicateById([...existing, ...data.transactions]);
-      localStorage.setItem('transactions_v1', JSON.stringify(merged));
-    }
-
-    // Replace assets (deduplicated)
-    if (data.assets && Array.isArray(data.assets)) {
-      const existing = JSON.parse(localStorage.getItem('assets_v1') || '[]');
-      const merged = deduplicateById([...existing, ...data.assets]);
-      localStorage.setItem('assets_v1', JSON.stringify(merged));
-    }
-
-    // Restore settings
-    if (data.settings) {
-      for (const [key, value] of Object.entries(data.settings)) {
-        if (value) {
-          localStorage.setItem(key, value);
-        }
-      }
-    }
-
-    return { success: true, ...data };
+    applyPulledData(res.data);
+    return { success: true, ...res.data };
   }
 
   return { success: false };
 }
 
-// Full sync - push local changes then pull from backend
+// Full sync - push local changes then pull what changed on the backend
 export async function syncFull() {
   // First deduplicate local data before syncing
   cleanupLocalStorage();
 
+  const since = getSyncCursor();
   const data = {
+    since,
     transactions: JSON.parse(localStorage.getItem('transactions_v1') || '[]'),
     monthlyExpenses: JSON.parse(localStorage.getItem('monthly_expenses_v1') || '[]'),
     assets: JSON.parse(localStorage.getItem('assets_v1') || '[]'),
@@ -288,15 +366,86 @@ export async function syncFull() {
     app_settings_v1: localStorage.getItem('app_settings_v1')
   };
 
-  const res = await optionalApiCall(() => axios.post(url('/api/sync/full'), data));
+  const res = await optionalApiCall(() => axios.post(url('/api/sync/full'), data, {
+    params: since !== null ? { since } : {}
+  }));
 
   if (res?.data) {
+    applyPulledData(res.data);
     return { success: true, ...res.data };
   }
 
   return { success: false };
 }
 
+// Server change-log position of the last applied pull; null before the first sync
+const SYNC_CURSOR_KEY = 'sync_cursor_v1';
+
+function getSyncCursor() {
+  const value = localStorage.getItem(SYNC_CURSOR_KEY);
+  return value !== null && value !== '' ? Number(value) : null;
+}
+
+// Merges a pull response into localStorage, then stores its cursor for the next sync.
+// Collections listed in data.full were sent whole and replace the local copy, so rows deleted
+// on the server drop out even when their tombstones are older than the client's cursor.
+function applyPulledData(data) {
+  const deleted = data.deleted || {};
+  const full = new Set(data.full || []);
+
+  if (full.has('transactions')) {
+    replaceCollection('transactions_v1', data.transactions);
+    retainIds('monthly_expenses_v1', data.transactions);
+  } else {
+    mergeCollection('transactions_v1', data.transactions, deleted.transactions);
+    mergeCollection('monthly_expenses_v1', undefined, deleted.transactions);
+  }
+  if (full.has('assets')) {
+    replaceCollection('assets_v1', data.assets);
+  } else {
+    mergeCollection('assets_v1', data.assets, deleted.assets);
+  }
+
+  if (data.settings) {
+    for (const [key, value] of Object.entries(data.settings)) {
+      if (value) {
+        localStorage.setItem(key, value);
+      }
+    }
+  }
+  (deleted.settings || []).forEach(key => localStorage.removeItem(key));
+
+  if (data.cursor !== undefined && data.cursor !== null) {
+    localStorage.setItem(SYNC_CURSOR_KEY, String(data.cursor));
+  }
+}
+
+// Upserts rows (deduplicated) and drops ids the server reported as deleted
+function mergeCollection(key, rows, deletedIds) {
+  if (!Array.isArray(rows) && !(deletedIds && deletedIds.length)) return;
+  const existing = JSON.parse(localStorage.getItem(key) || '[]');
+  let merged = deduplicateById([...existing, ...(Array.isArray(rows) ? rows : [])]);
+  if (deletedIds && deletedIds.length) {
+    const gone = new Set(deletedIds.map(String));
+    merged = merged.filter(item => !gone.has(String(item.id)));
+  }
+  localStorage.setItem(key, JSON.stringify(merged));
+}
+
+// Stores rows (deduplicated) as the whole collection
+function replaceCollection(key, rows) {
+  if (!Array.isArray(rows)) return;
+  localStorage.setItem(key, JSON.stringify(deduplicateById(rows)));
+}
+
+// Drops rows whose id is not among rows; rows without an id are kept
+function retainIds(key, rows) {
+  if (!Array.isArray(rows)) return;
+  const ids = new Set(rows.filter(r => r.id).map(r => String(r.id)));
+  const existing = JSON.parse(localStorage.getItem(key) || '[]');
+  localStorage.setItem(key, JSON.stringify(existing.filter(item => !item.id || ids.has(String(item.id)))));
+}
+
 // Helper to deduplicate by ID (keeps last occurrence)
 function deduplicateById(items) {
   const map = new Map();
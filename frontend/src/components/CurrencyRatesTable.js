@@ -1,5 +1,5 @@
 import React, { useEffect, useMemo, useState } from "react";
-import { getRates, getSymbols, convert } from "../api/api";
+import { getRates, getSymbols, convert, subscribeEvents } from "../api/api";
 import { useTranslation } from "react-i18next";
 
 export default function CurrencyRatesTable({ compact = false }) {
@@ -31,8 +31,8 @@ export default function CurrencyRatesTable({ compact = false }) {
       }
     }
     load();
-    const id = setInterval(load, 60 * 1000);
-    return () => clearInterval(id);
+    // Rates are refetched when the server publishes a new snapshot instead of every minute
+    return subscribeEvents({ fx: load, reset: load });
   }, [base]);
 
   const rows = useMemo(() => {
@@ -25,7 +25,7 @@ import InvestmentTracker from "./InvestmentTracker";
 import ThemeScheduler from "./ThemeScheduler";
 import { useTranslation } from "react-i18next";
 import { useSettings } from "../contexts/SettingsContext";
-import { getDashboardSummary } from "../api/api";
+import { getDashboardSummary, subscribeEvents } from "../api/api";
 
 // Storage keys for syncing data
 const TRANSACTIONS_KEY = "transactions_v1";
@@ -57,6 +57,17 @@ export default function Dashboard() {
     loadLocalData();
   }, [refreshTrigger]);
 
+  // Totals and reminder counts arrive pushed; asset changes and resets refetch the summary
+  useEffect(() => {
+    const merge = (data) => setDashboardData(prev => ({ ...(prev || {}), ...data }));
+    return subscribeEvents({
+      totals: merge,
+      reminders: merge,
+      asset: () => loadDashboardData(),
+      reset: () => loadDashboardData(),
+    });
+  }, []);
+
   const loadDashboardData = async () => {
     try {
       const data = await getDashboardSummary();
@@ -1,5 +1,5 @@
 import React, { useState, useEffect } from 'react';
-import { getReminders, verifyAssetLocation } from '../api/api';
+import { getReminders, verifyAssetLocation, subscribeEvents } from '../api/api';
 
 export default function ReminderToast({ onViewAsset }) {
   const [reminders, setReminders] = useState([]);
@@ -8,8 +8,8 @@ export default function ReminderToast({ onViewAsset }) {
 
   useEffect(() => {
     loadReminders();
-    const interval = setInterval(loadReminders, 60000);
-    return () => clearInterval(interval);
+    // Reload when the server reports reminder counts or assets changing instead of polling
+    return subscribeEvents({ reminders: loadReminders, asset: loadReminders, reset: loadReminders });
   }, []);
 
   const loadReminders = async () => {